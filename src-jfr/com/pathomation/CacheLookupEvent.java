@@ -0,0 +1,29 @@
+package com.pathomation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event for a lookup in one of the SDK's caches, see
+ * {@link PmaEvents}
+ */
+@Name("com.pathomation.CacheLookup")
+@Label("PMA Cache Lookup")
+@Category({ "Pathomation", "SDK" })
+@Description("Lookup in the URL, slide information or local tile cache")
+@StackTrace(false)
+class CacheLookupEvent extends jdk.jfr.Event {
+
+	@Label("Cache")
+	String cache;
+
+	@Label("Key")
+	@Description("URL without session ID and password, slide or tile looked up")
+	String key;
+
+	@Label("Hit")
+	boolean hit;
+}
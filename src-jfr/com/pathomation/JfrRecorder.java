@@ -0,0 +1,67 @@
+package com.pathomation;
+
+/**
+ * Emits the JDK Flight Recorder events of {@link PmaEvents}; the only class
+ * referring to the event classes, loaded once Flight Recorder is known to be
+ * available
+ */
+final class JfrRecorder implements PmaEvents.Recorder {
+
+	JfrRecorder() {
+	}
+
+	@Override
+	public Object beginRequest() {
+		RequestEvent event = new RequestEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	@Override
+	public void endRequest(Object o, String method, String url, String server, String endpoint, int status,
+			long wireBytes, long decodedBytes, Throwable error) {
+		RequestEvent event = (RequestEvent) o;
+		event.end();
+		if (!event.shouldCommit()) {
+			return;
+		}
+		event.method = method;
+		event.url = PmaEvents.redact(url);
+		event.server = server;
+		event.endpoint = endpoint;
+		event.slideRef = DownloadStats.parameter(url, "pathOrUid");
+		boolean tile = "tile".equals(endpoint);
+		event.zoomLevel = tile ? intParameter(url, "z") : -1;
+		event.x = tile ? intParameter(url, "x") : -1;
+		event.y = tile ? intParameter(url, "y") : -1;
+		event.status = status;
+		event.wireBytes = wireBytes;
+		event.decodedBytes = decodedBytes;
+		event.error = error != null ? PmaEvents.redact(error.toString()) : null;
+		event.commit();
+	}
+
+	@Override
+	public void cacheLookup(String cache, String key, boolean hit) {
+		CacheLookupEvent event = new CacheLookupEvent();
+		if (!event.isEnabled()) {
+			return;
+		}
+		event.cache = cache;
+		event.key = PmaEvents.redact(key);
+		event.hit = hit;
+		event.commit();
+	}
+
+	private static int intParameter(String url, String name) {
+		String value = DownloadStats.parameter(url, name);
+		try {
+			return value != null ? Integer.parseInt(value) : -1;
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.pathomation;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event for one attempt of an HTTP request to PMA.core,
+ * PMA.control or the admin API, see {@link PmaEvents}
+ */
+@Name("com.pathomation.Request")
+@Label("PMA Request")
+@Category({ "Pathomation", "SDK" })
+@Description("HTTP request sent to PMA.core, PMA.control or the admin API")
+@StackTrace(false)
+class RequestEvent extends jdk.jfr.Event {
+
+	@Label("Method")
+	String method;
+
+	@Label("URL")
+	@Description("URL requested, without session ID and password")
+	String url;
+
+	@Label("Server")
+	String server;
+
+	@Label("Endpoint")
+	String endpoint;
+
+	@Label("Slide")
+	@Description("Slide's path or UID, if the request is about a slide")
+	String slideRef;
+
+	@Label("Zoom Level")
+	@Description("Zoom level of a tile, -1 for other requests")
+	int zoomLevel;
+
+	@Label("X")
+	@Description("Column of a tile, -1 for other requests")
+	int x;
+
+	@Label("Y")
+	@Description("Row of a tile, -1 for other requests")
+	int y;
+
+	@Label("Status")
+	@Description("HTTP status code, 0 if no answer came")
+	int status;
+
+	@Label("Wire Bytes")
+	@Description("Response body as received over the wire")
+	@DataAmount
+	long wireBytes;
+
+	@Label("Decoded Bytes")
+	@Description("Response body after decompression")
+	@DataAmount
+	long decodedBytes;
+
+	@Label("Error")
+	String error;
+}
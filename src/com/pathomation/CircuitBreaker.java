@@ -0,0 +1,245 @@
+package com.pathomation;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Circuit breaker guarding the requests to one server.
+ * <p>
+ * The breaker is closed while the server answers. After a number of
+ * consecutive failures (connection failures, timeouts, 502, 503 or 504
+ * answers) it opens, and every request fails immediately with an
+ * {@link OpenException} instead of waiting for yet another timeout. Once the
+ * open period has elapsed a single trial request is let through (half open):
+ * if it succeeds the breaker closes again, otherwise it stays open for another
+ * period.
+ * </p>
+ */
+public class CircuitBreaker {
+
+	/**
+	 * State of a breaker
+	 */
+	public enum State {
+		/**
+		 * Requests go through
+		 */
+		CLOSED,
+		/**
+		 * Requests fail immediately
+		 */
+		OPEN,
+		/**
+		 * A single trial request decides whether the breaker closes again
+		 */
+		HALF_OPEN
+	}
+
+	/**
+	 * Thrown instead of sending a request while the breaker is open
+	 */
+	public static class OpenException extends IOException {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long retryAfterMillis;
+
+		OpenException(String server, long retryAfterMillis) {
+			super("Circuit breaker open for " + server + ", retry in " + retryAfterMillis + " ms");
+			this.retryAfterMillis = retryAfterMillis;
+		}
+
+		/**
+		 * @return the number of milliseconds before the breaker lets a trial request
+		 *         through
+		 */
+		public long getRetryAfterMillis() {
+			return retryAfterMillis;
+		}
+	}
+
+	/**
+	 * Default number of consecutive failures that opens the breaker
+	 */
+	public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+
+	/**
+	 * Default number of milliseconds the breaker stays open (30 s)
+	 */
+	public static final long DEFAULT_OPEN_MILLIS = 30000;
+
+	private final String server;
+	private volatile int failureThreshold;
+	private volatile long openNanos;
+	// guarded by this
+	private State state = State.CLOSED;
+	private int consecutiveFailures = 0;
+	private long openUntil = 0;
+	private boolean trialInFlight = false;
+
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder opened = new LongAdder();
+
+	/**
+	 * Constructor, uses the default failure threshold and open period
+	 *
+	 * @param server server the breaker guards, used in messages
+	 */
+	public CircuitBreaker(String server) {
+		this(server, DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_MILLIS);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param server           server the breaker guards, used in messages
+	 * @param failureThreshold number of consecutive failures that opens the
+	 *                         breaker
+	 * @param openMillis       number of milliseconds the breaker stays open
+	 */
+	public CircuitBreaker(String server, int failureThreshold, long openMillis) {
+		this.server = server;
+		setFailureThreshold(failureThreshold);
+		setOpenMillis(openMillis);
+	}
+
+	/**
+	 * This method is used to ask whether a request may be sent. Every request let
+	 * through must be followed by a call to onSuccess(), onFailure() or cancel()
+	 *
+	 * @throws OpenException if the breaker is open
+	 */
+	public synchronized void acquire() throws OpenException {
+		if (state == State.CLOSED) {
+			return;
+		}
+		long now = System.nanoTime();
+		if (state == State.OPEN && now - openUntil >= 0) {
+			state = State.HALF_OPEN;
+		}
+		if (state == State.HALF_OPEN && !trialInFlight) {
+			trialInFlight = true;
+			return;
+		}
+		rejected.increment();
+		throw new OpenException(server, Math.max(0, TimeUnit.NANOSECONDS.toMillis(openUntil - now)));
+	}
+
+	/**
+	 * This method is used to report that the server answered
+	 */
+	public synchronized void onSuccess() {
+		consecutiveFailures = 0;
+		trialInFlight = false;
+		state = State.CLOSED;
+	}
+
+	/**
+	 * This method is used to report that the server didn't answer or reported
+	 * being unavailable
+	 */
+	public synchronized void onFailure() {
+		consecutiveFailures++;
+		trialInFlight = false;
+		if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+			state = State.OPEN;
+			openUntil = System.nanoTime() + openNanos;
+			opened.increment();
+			PmaLog.warning(() -> "Circuit breaker opened for " + server + " after " + consecutiveFailures
+					+ " consecutive failures");
+		}
+	}
+
+	/**
+	 * This method is used to report that a request let through was abandoned
+	 * before it got an answer or a failure (e.g. because the thread was
+	 * interrupted)
+	 */
+	public synchronized void cancel() {
+		trialInFlight = false;
+	}
+
+	/**
+	 * This method is used to close the breaker, e.g. after the server was known to
+	 * be restarted
+	 */
+	public synchronized void reset() {
+		onSuccess();
+	}
+
+	/**
+	 * @return the current state
+	 */
+	public synchronized State getState() {
+		if (state == State.OPEN && System.nanoTime() - openUntil >= 0) {
+			return State.HALF_OPEN;
+		}
+		return state;
+	}
+
+	/**
+	 * @return the number of failures since the server last answered
+	 */
+	public synchronized int getConsecutiveFailures() {
+		return consecutiveFailures;
+	}
+
+	/**
+	 * @return the number of consecutive failures that opens the breaker
+	 */
+	public int getFailureThreshold() {
+		return failureThreshold;
+	}
+
+	/**
+	 * @param failureThreshold the number of consecutive failures that opens the
+	 *                         breaker
+	 */
+	public void setFailureThreshold(int failureThreshold) {
+		if (failureThreshold < 1) {
+			PmaLog.severe(() -> "setFailureThreshold() : Invalid argument");
+			throw new IllegalArgumentException("failureThreshold must be at least 1");
+		}
+		this.failureThreshold = failureThreshold;
+	}
+
+	/**
+	 * @return the number of milliseconds the breaker stays open
+	 */
+	public long getOpenMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(openNanos);
+	}
+
+	/**
+	 * @param openMillis the number of milliseconds the breaker stays open
+	 */
+	public void setOpenMillis(long openMillis) {
+		if (openMillis < 0) {
+			PmaLog.severe(() -> "setOpenMillis() : Invalid argument");
+			throw new IllegalArgumentException("openMillis must not be negative");
+		}
+		this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+	}
+
+	/**
+	 * @return the number of requests failed immediately because the breaker was
+	 *         open
+	 */
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+
+	/**
+	 * @return the number of times the breaker opened
+	 */
+	public long getOpenedCount() {
+		return opened.sum();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "CircuitBreaker [server=" + server + ", state=" + getState() + ", consecutiveFailures="
+				+ consecutiveFailures + ", opened=" + opened.sum() + ", rejected=" + rejected.sum() + "]";
+	}
+}
@@ -0,0 +1,326 @@
+package com.pathomation;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adaptive limit on the number of simultaneous requests to one server.
+ * <p>
+ * The limit follows an AIMD (additive increase, multiplicative decrease)
+ * scheme: every request that completes in time while the limit was actually
+ * being used raises it by 1/limit, so it grows by about one per round of
+ * requests; every request that fails to connect, times out, takes longer than
+ * the latency threshold or is answered with 429 (Too Many Requests) or 503
+ * (Service Unavailable) lowers it by the backoff ratio. The limit stays between
+ * 1 and the maximum given to the constructor.
+ * </p>
+ * <p>
+ * Requests are either interactive or batch, as set per thread through
+ * {@link #setPriority(Priority)}. Waiting interactive requests always go first,
+ * and batch requests may only use a share of the limit, so bulk jobs (crawls,
+ * tile exports...) leave room for users working interactively against the same
+ * server.
+ * </p>
+ */
+public class ConcurrencyLimiter {
+
+	/**
+	 * Priority of a request
+	 */
+	public enum Priority {
+		/**
+		 * A user is waiting for the answer
+		 */
+		INTERACTIVE,
+		/**
+		 * Bulk work that may wait
+		 */
+		BATCH
+	}
+
+	/**
+	 * Default share of the limit batch requests may use
+	 */
+	public static final double DEFAULT_BATCH_SHARE = 0.75;
+
+	/**
+	 * Default latency above which a request counts as a sign of overload (10 s)
+	 */
+	public static final long DEFAULT_LATENCY_THRESHOLD_MILLIS = 10000;
+
+	/**
+	 * Factor the limit is multiplied by when the server shows signs of overload
+	 */
+	public static final double BACKOFF_RATIO = 0.9;
+
+	private static final ThreadLocal<Priority> priority = new ThreadLocal<>();
+
+	/**
+	 * A request admitted by the limiter, to be handed back to release()
+	 */
+	public static class Permit {
+		private final Priority priority;
+		private final long startNanos;
+
+		private Permit(Priority priority) {
+			this.priority = priority;
+			this.startNanos = System.nanoTime();
+		}
+
+		/**
+		 * @return the priority the request was admitted with
+		 */
+		public Priority getPriority() {
+			return priority;
+		}
+	}
+
+	private final int maxLimit;
+	private final double batchShare;
+	private final long latencyThresholdNanos;
+	// guarded by this
+	private double limit;
+	private int inFlight = 0;
+	private int batchInFlight = 0;
+	private final ArrayDeque<Object> interactiveQueue = new ArrayDeque<>();
+	private final ArrayDeque<Object> batchQueue = new ArrayDeque<>();
+
+	/**
+	 * Constructor, uses the default batch share and latency threshold
+	 *
+	 * @param initialLimit initial limit
+	 * @param maxLimit     maximum limit
+	 */
+	public ConcurrencyLimiter(int initialLimit, int maxLimit) {
+		this(initialLimit, maxLimit, DEFAULT_BATCH_SHARE, DEFAULT_LATENCY_THRESHOLD_MILLIS);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param initialLimit           initial limit
+	 * @param maxLimit               maximum limit
+	 * @param batchShare             share of the limit batch requests may use,
+	 *                               between 0 and 1 (at least one batch request is
+	 *                               always allowed)
+	 * @param latencyThresholdMillis latency above which a request counts as a sign
+	 *                               of overload
+	 */
+	public ConcurrencyLimiter(int initialLimit, int maxLimit, double batchShare, long latencyThresholdMillis) {
+		if (maxLimit < 1 || initialLimit < 1 || initialLimit > maxLimit || batchShare <= 0 || batchShare > 1
+				|| latencyThresholdMillis < 1) {
+			PmaLog.severe(() -> "ConcurrencyLimiter() : Invalid argument");
+			throw new IllegalArgumentException(
+					"1 <= initialLimit <= maxLimit, 0 < batchShare <= 1 and latencyThresholdMillis >= 1 required");
+		}
+		this.limit = initialLimit;
+		this.maxLimit = maxLimit;
+		this.batchShare = batchShare;
+		this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+	}
+
+	/**
+	 * This method is used to get the priority of the requests made by the current
+	 * thread
+	 *
+	 * @return Priority, INTERACTIVE unless set otherwise
+	 */
+	public static Priority getPriority() {
+		Priority current = priority.get();
+		return current != null ? current : Priority.INTERACTIVE;
+	}
+
+	/**
+	 * This method is used to set the priority of the requests made by the current
+	 * thread
+	 *
+	 * @param newPriority priority, null for INTERACTIVE
+	 * @return Previous priority, to be restored when done
+	 */
+	public static Priority setPriority(Priority newPriority) {
+		Priority previous = getPriority();
+		if (newPriority == null || newPriority == Priority.INTERACTIVE) {
+			priority.remove();
+		} else {
+			priority.set(newPriority);
+		}
+		return previous;
+	}
+
+	/**
+	 * This method is used to run a task whose requests have a given priority
+	 *
+	 * @param <T>          Type of the task's result
+	 * @param taskPriority priority of the task's requests
+	 * @param task         task to run on the current thread
+	 * @return Task's result
+	 * @throws Exception if the task throws
+	 */
+	public static <T> T callWithPriority(Priority taskPriority, Callable<T> task) throws Exception {
+		Priority previous = setPriority(taskPriority);
+		try {
+			return task.call();
+		} finally {
+			setPriority(previous);
+		}
+	}
+
+	/**
+	 * This method is used to wait until a request may be sent
+	 *
+	 * @param requestPriority priority of the request
+	 * @return Permit to hand back to release() once the request completed
+	 * @throws InterruptedException if the thread is interrupted while waiting
+	 */
+	public Permit acquire(Priority requestPriority) throws InterruptedException {
+		return acquire(requestPriority, Long.MAX_VALUE);
+	}
+
+	/**
+	 * This method is used to wait a limited time until a request may be sent
+	 *
+	 * @param requestPriority priority of the request
+	 * @param timeoutNanos    maximum time to wait in nanoseconds
+	 * @return Permit to hand back to release() once the request completed, null
+	 *         if the time ran out
+	 * @throws InterruptedException if the thread is interrupted while waiting
+	 */
+	public synchronized Permit acquire(Priority requestPriority, long timeoutNanos) throws InterruptedException {
+		boolean batch = requestPriority == Priority.BATCH;
+		ArrayDeque<Object> queue = batch ? batchQueue : interactiveQueue;
+		Object ticket = new Object();
+		queue.add(ticket);
+		long end = System.nanoTime() + timeoutNanos;
+		try {
+			while (queue.peek() != ticket || !admits(batch)) {
+				if (timeoutNanos == Long.MAX_VALUE) {
+					wait();
+					continue;
+				}
+				long left = end - System.nanoTime();
+				if (left <= 0) {
+					queue.remove(ticket);
+					notifyAll();
+					return null;
+				}
+				TimeUnit.NANOSECONDS.timedWait(this, left);
+			}
+		} catch (InterruptedException e) {
+			queue.remove(ticket);
+			notifyAll();
+			throw e;
+		}
+		queue.poll();
+		inFlight++;
+		if (batch) {
+			batchInFlight++;
+		}
+		// the next waiter in line may be admitted as well
+		notifyAll();
+		return new Permit(batch ? Priority.BATCH : Priority.INTERACTIVE);
+	}
+
+	/**
+	 * This method is used to hand back a permit and adapt the limit
+	 *
+	 * @param permit     permit returned by acquire()
+	 * @param overloaded true if the request failed in a way that suggests the
+	 *                   server is overloaded (timeout, connection failure, 429,
+	 *                   503)
+	 */
+	public synchronized void release(Permit permit, boolean overloaded) {
+		long latency = System.nanoTime() - permit.startNanos;
+		// only grow when the limit (or the batch share of it) was actually reached,
+		// not while idling
+		boolean saturated = inFlight >= (int) limit
+				|| (permit.priority == Priority.BATCH && batchInFlight >= batchLimit());
+		inFlight--;
+		if (permit.priority == Priority.BATCH) {
+			batchInFlight--;
+		}
+		if (overloaded || latency > latencyThresholdNanos) {
+			limit = Math.max(1, limit * BACKOFF_RATIO);
+		} else if (saturated) {
+			limit = Math.min(maxLimit, limit + 1 / limit);
+		}
+		notifyAll();
+	}
+
+	/**
+	 * @return the current limit
+	 */
+	public synchronized int getLimit() {
+		return (int) limit;
+	}
+
+	/**
+	 * @return the maximum limit
+	 */
+	public int getMaxLimit() {
+		return maxLimit;
+	}
+
+	/**
+	 * @return the number of requests in flight
+	 */
+	public synchronized int getInFlight() {
+		return inFlight;
+	}
+
+	/**
+	 * This method is used to get the number of requests of a given priority in
+	 * flight
+	 *
+	 * @param requestPriority priority
+	 * @return Number of requests in flight
+	 */
+	public synchronized int getInFlight(Priority requestPriority) {
+		return requestPriority == Priority.BATCH ? batchInFlight : inFlight - batchInFlight;
+	}
+
+	/**
+	 * @return the number of requests waiting to be sent
+	 */
+	public synchronized int getQueueDepth() {
+		return interactiveQueue.size() + batchQueue.size();
+	}
+
+	/**
+	 * This method is used to get the number of requests of a given priority
+	 * waiting to be sent
+	 *
+	 * @param requestPriority priority
+	 * @return Number of waiting requests
+	 */
+	public synchronized int getQueueDepth(Priority requestPriority) {
+		return requestPriority == Priority.BATCH ? batchQueue.size() : interactiveQueue.size();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "ConcurrencyLimiter [limit=" + (int) limit + ", maxLimit=" + maxLimit + ", inFlight=" + inFlight
+				+ ", batchInFlight=" + batchInFlight + ", interactiveQueue=" + interactiveQueue.size()
+				+ ", batchQueue=" + batchQueue.size() + "]";
+	}
+
+	/**
+	 * Must be called while holding the lock
+	 */
+	private boolean admits(boolean batch) {
+		if (inFlight >= (int) limit) {
+			return false;
+		}
+		if (!batch) {
+			return true;
+		}
+		return interactiveQueue.isEmpty() && batchInFlight < batchLimit();
+	}
+
+	/**
+	 * Must be called while holding the lock
+	 */
+	private int batchLimit() {
+		return Math.max(1, (int) (limit * batchShare));
+	}
+}
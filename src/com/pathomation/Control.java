@@ -1,17 +1,11 @@
 package com.pathomation;
 
-import java.io.OutputStream;
-import java.io.PrintWriter;
-import java.io.StringWriter;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
-import javax.net.ssl.HttpsURLConnection;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.json.JSONArray;
@@ -46,14 +40,6 @@ public class Control {
 	 */
 	public static void setDebugFlag(boolean flag) {
 		PMA.setDebugFlag(flag);
-		if (flag) {
-			System.out.println(
-					"Debug flag enabled. You will receive extra feedback and messages from the Java SDK (like this one)");
-			if (PMA.logger != null) {
-				PMA.logger.severe(
-						"Debug flag enabled. You will receive extra feedback and messages from the Java SDK (like this one)");
-			}
-		}
 	}
 
 	/**
@@ -73,12 +59,7 @@ public class Control {
 			// we remove ""
 			return jsonString.substring(1, jsonString.length() - 1);
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -98,12 +79,7 @@ public class Control {
 			JSONArray jsonResponse = PMA.getJSONArrayResponse(jsonString);
 			return jsonResponse;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -126,12 +102,7 @@ public class Control {
 			JSONArray jsonResponse = PMA.getJSONArrayResponse(jsonString);
 			return jsonResponse;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -267,12 +238,7 @@ public class Control {
 			}
 			return participants;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -388,38 +354,16 @@ public class Control {
 		try {
 			String url = PMA.join(pmaControlURL, "api/Sessions/") + pmaControlTrainingSessionID.toString()
 					+ "/AddParticipant?SessionID=" + pmaCoreSessionID;
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("POST");
-			con.setRequestProperty("Content-Type", "application/json");
-			con.setUseCaches(true);
-			con.setDoOutput(true);
 			// default interaction mode = Locked
 			String data = "{ \"UserName\": \"" + participantUsername + "\", \"Role\": \"" + pmaControlRole + "\" }";
 			// + ", \"InteractionMode\": \"" +
 			// String.valueOf(pmacontrolInteractionMode.ordinal() + 1) + "\" }";
-			OutputStream os = con.getOutputStream();
-			os.write(data.getBytes("UTF-8"));
-			os.close();
-			if (PMA.debug) {
-				System.out.println("Posting to " + url);
-				System.out.println("with payload " + data);
-			}
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
+			PmaLog.debug("Posting to {0} with payload {1}", url, data);
+			String jsonString = PMA.httpPostString(url, data, null);
 			PMA.clearURLCache();
 			return jsonString;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -444,37 +388,15 @@ public class Control {
 		try {
 			String url = PMA.join(pmaControlURL, "api/Projects/") + pmaControlProjectID + "/AddParticipant?SessionID="
 					+ pmaCoreSessionID;
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("POST");
-			con.setRequestProperty("Content-Type", "application/json");
-			con.setUseCaches(true);
-			con.setDoOutput(true);
 			// default interaction mode = Locked
 			String data = "{ \"UserName\": \"" + participantUsername + "\", \"Role\": \"" + pmaControlRole
 					+ "\", \"InteractionMode\": \"" + pmaControlInteractionMode + "\" }";
-			OutputStream os = con.getOutputStream();
-			os.write(data.getBytes("UTF-8"));
-			os.close();
-			if (PMA.debug) {
-				System.out.println("Posting to " + url);
-				System.out.println("with payload " + data);
-			}
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
+			PmaLog.debug("Posting to {0} with payload {1}", url, data);
+			String jsonString = PMA.httpPostString(url, data, null);
 			PMA.clearURLCache();
 			return jsonString;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -596,39 +518,17 @@ public class Control {
 		try {
 			String url = PMA.join(pmaControlURL, "api/Sessions/") + pmaControlTrainingSessionID
 					+ "/InteractionMode?SessionID=" + pmaCoreSessionID;
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("POST");
-			con.setRequestProperty("Content-Type", "application/json");
-			con.setUseCaches(true);
-			con.setDoOutput(true);
 			String data = "{ \"UserName\": \"" + participantUsername + "\", " + " \"CaseCollectionId\": \""
 					+ pmaControlCaseCollectionID + "\", " + "\"InteractionMode\": \"" + pmaControlInteractionMode
 					+ "\" }"; // default interaction mode = Locked
 			// + ", \"InteractionMode\": \"" +
 			// String.valueOf(pmacontrolInteractionMode.ordinal() + 1) + "\" }";
-			OutputStream os = con.getOutputStream();
-			os.write(data.getBytes("UTF-8"));
-			os.close();
-			if (PMA.debug) {
-				System.out.println("Posting to " + url);
-				System.out.println("with payload " + data);
-			}
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
+			PmaLog.debug("Posting to {0} with payload {1}", url, data);
+			String jsonString = PMA.httpPostString(url, data, null);
 			PMA.clearURLCache();
 			return jsonString;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -648,12 +548,7 @@ public class Control {
 			return new ArrayList<String>(
 					getTrainingSessionTitlesDict(pmaControlURL, pmaControlProjectID, pmaCoreSessionID).values());
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -682,12 +577,7 @@ public class Control {
 			}
 			return map;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -808,12 +698,7 @@ public class Control {
 			JSONArray jsonResponse = PMA.getJSONArrayResponse(jsonString);
 			return jsonResponse;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -855,12 +740,7 @@ public class Control {
 			return new ArrayList<String>(
 					getCaseCollectionTitlesDict(pmaControlURL, pmaControlProjectID, pmaCoreSessionID).values());
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -914,12 +794,7 @@ public class Control {
 			}
 			return map;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -1017,12 +892,7 @@ public class Control {
 			JSONArray jsonResponse = PMA.getJSONArrayResponse(jsonString);
 			return jsonResponse;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -1069,12 +939,7 @@ public class Control {
 		try {
 			return new ArrayList<String>(getProjectTitlesDict(pmaControlURL, pmaCoreSessionID).values());
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -1096,12 +961,7 @@ public class Control {
 			}
 			return map;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -1146,12 +1006,7 @@ public class Control {
 			// Project ID not found
 			return null;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -1245,40 +1100,18 @@ public class Control {
 		try {
 			String url = PMA.join(pmaControlURL, "api/Sessions/") + pmaControlTrainingSessionID
 					+ "/InteractionModeCaseCollections?SessionID=" + pmaCoreSessionID;
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("POST");
-			con.setRequestProperty("Content-Type", "application/json");
-			con.setUseCaches(true);
-			con.setDoOutput(true);
 			String data = "{ \"UserName\": \"" + participantUsername + "\", " + " \"CaseCollectionIds\": ["
 					+ StringUtils.join(ArrayUtils.toObject(pmaControlCaseCollectionIDs), ", ") + "], "
 					+ "\"InteractionMode\": \"" + pmaControlInteractionMode + "\" }"; // default interaction mode =
 																						// Locked
 			// + ", \"InteractionMode\": \"" +
 			// String.valueOf(pmacontrolInteractionMode.ordinal() + 1) + "\" }";
-			OutputStream os = con.getOutputStream();
-			os.write(data.getBytes("UTF-8"));
-			os.close();
-			if (PMA.debug) {
-				System.out.println("Posting to " + url);
-				System.out.println("with payload " + data);
-			}
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
+			PmaLog.debug("Posting to {0} with payload {1}", url, data);
+			String jsonString = PMA.httpPostString(url, data, null);
 			PMA.clearURLCache();
 			return jsonString;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -1301,17 +1134,6 @@ public class Control {
 			throws Exception {
 		try {
 			String url = PMA.join(pmaControlURL, "api/Sessions/InteractionMode?sessionID=") + pmaCoreSessionID;
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("POST");
-			con.setRequestProperty("Content-Type", "application/json");
-			con.setUseCaches(true);
-			con.setDoOutput(true);
 			String jsonContentForTrainingSessions = "";
 			for (Map<String, Object> trainingSession : trainingSessions) {
 				jsonContentForTrainingSessions += "{\"SessionId\":\"" + trainingSession.get("Id")
@@ -1322,23 +1144,12 @@ public class Control {
 			String data = "{\"UserName\":\"" + participantUsername + "\", " + "\"Sessions\":["
 					+ jsonContentForTrainingSessions + "]," + "\"InteractionMode\":\"" + pmaControlInteractionMode
 					+ "\"}"; // default interaction mode = // Locked
-			OutputStream os = con.getOutputStream();
-			os.write(data.getBytes("UTF-8"));
-			os.close();
-			if (PMA.debug) {
-				System.out.println("Posting to " + url);
-				System.out.println("with payload " + data);
-			}
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
+			PmaLog.debug("Posting to {0} with payload {1}", url, data);
+			String jsonString = PMA.httpPostString(url, data, null);
 			PMA.clearURLCache();
 			return jsonString;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
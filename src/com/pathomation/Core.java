@@ -1,37 +1,42 @@
 package com.pathomation;
 
 import java.awt.Image;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.OutputStream;
-import java.io.PrintWriter;
-import java.io.StringWriter;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
-import java.util.function.Supplier;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.imageio.ImageIO;
-import javax.net.ssl.HttpsURLConnection;
 
 import org.apache.commons.io.FilenameUtils;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 /**
  * <h1>Java SDK</h1>
@@ -44,57 +49,58 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  * @version 2.0.0.96
  */
 public class Core {
-	/**
-	 * So afterwards we can look up what username actually belongs to a sessions
-	 */
-	private static Map<String, Object> pmaSessions = new HashMap<String, Object>();
-	/**
-	 * So afterwards we can determine the PMA.core URL to connect to for a given
-	 * SessionID
-	 */
-	private static Map<String, String> pmaUsernames = new HashMap<>();
-	/**
-	 * A caching mechanism for slide information; obsolete and should be improved
-	 * through httpGet()
-	 */
-	private static Map<String, Object> pmaSlideInfos = new HashMap<String, Object>();
 	private static final String pmaCoreLiteURL = "http://localhost:54001/";
 	private static final String pmaCoreLiteSessionID = "SDK.Java";
+	private static final ObjectWriter jsonWriter = new ObjectMapper().writer();
 	private static Boolean pmaUseCacheWhenRetrievingTiles = true;
+	// how long the local tile cache trusts a slide's fingerprint, and how long
+	// it doesn't ask again for one that couldn't be retrieved
+	private static final long FINGERPRINT_TTL_MILLIS = 5 * 60 * 1000;
+	private static final long FINGERPRINT_FAILURE_TTL_MILLIS = 30 * 1000;
+
 	/**
-	 * Keep track of how much data was downloaded
+	 * @return the pmaSessions of the current client
 	 */
-	@SuppressWarnings("serial")
-	private static Map<String, Integer> pmaAmountOfDataDownloaded = new HashMap<String, Integer>() {
-		{
-			put(pmaCoreLiteSessionID, 0);
-		}
-	};
+	public static Map<String, Object> getPmaSessions() {
+		return sessions();
+	}
 
 	/**
-	 * Object Mapper for Jackson library
+	 * @return the pmaUsernames of the current client
 	 */
-	private static ObjectMapper objectMapper = new ObjectMapper();
+	public static Map<String, String> getPmaUsernames() {
+		return usernames();
+	}
 
 	/**
-	 * @return the pmaSessions
+	 * @return a read-only snapshot of the cached slide information, session's ID
+	 *         to a map of slide path or UID to slide information
+	 * @deprecated use getSlideInfoCache() instead
 	 */
-	public static Map<String, Object> getPmaSessions() {
-		return pmaSessions;
+	@Deprecated
+	public static Map<String, Object> getPmaSlideInfos() {
+		return slideInfoCache().snapshot();
 	}
 
 	/**
-	 * @return the pmaUsernames
+	 * @return the slideInfoCache of the current client
 	 */
-	public static Map<String, String> getPmaUsernames() {
-		return pmaUsernames;
+	public static SlideInfoCache getSlideInfoCache() {
+		return slideInfoCache();
 	}
 
 	/**
-	 * @return the pmaSlideInfos
+	 * @return the slideInfoBatcher of the current client
 	 */
-	public static Map<String, Object> getPmaSlideInfos() {
-		return pmaSlideInfos;
+	public static SlideInfoBatcher getSlideInfoBatcher() {
+		return PmaClient.current().getSlideInfoBatcher();
+	}
+
+	/**
+	 * @return the slideCrawler of the current client
+	 */
+	public static SlideCrawler getSlideCrawler() {
+		return PmaClient.current().getSlideCrawler();
 	}
 
 	/**
@@ -112,10 +118,186 @@ public class Core {
 	}
 
 	/**
-	 * @return the pmaAmountOfDataDownloaded
+	 * This method is used to get the amount of data downloaded per session by the
+	 * current client. It's a snapshot kept for compatibility, capped at
+	 * Integer.MAX_VALUE per session; getDownloadStats() has the 64-bit counters,
+	 * decoded sizes and per endpoint counters
+	 * 
+	 * @return the pmaAmountOfDataDownloaded of the current client, in bytes
+	 *         received over the wire
 	 */
 	public static Map<String, Integer> getPmaAmountOfDataDownloaded() {
-		return pmaAmountOfDataDownloaded;
+		DownloadStats stats = PmaClient.current().getDownloadStats();
+		Map<String, Integer> amounts = new HashMap<>();
+		amounts.put(pmaCoreLiteSessionID, 0);
+		for (String sessionID : sessions().keySet()) {
+			amounts.put(sessionID, 0);
+		}
+		for (Map.Entry<String, DownloadStats.Counter> entry : stats.getSessions().entrySet()) {
+			amounts.put(entry.getKey(), (int) Math.min(Integer.MAX_VALUE, entry.getValue().getWireBytes()));
+		}
+		return amounts;
+	}
+
+	/**
+	 * @return the amount of data downloaded by the current client, in total, per
+	 *         session and per endpoint
+	 */
+	public static DownloadStats getDownloadStats() {
+		return PmaClient.current().getDownloadStats();
+	}
+
+	/**
+	 * This method is used to get the metrics of the requests sent by the current
+	 * client, e.g. getMetrics().snapshot() for the latency percentiles, failures
+	 * and bytes per server and endpoint, and the hit ratios of the caches
+	 * 
+	 * @return the metrics of the current client
+	 */
+	public static PmaMetrics getMetrics() {
+		return PmaClient.current().getMetrics();
+	}
+
+	/**
+	 * This method is used to get the executor the asynchronous (*Async) methods run
+	 * on. Unless one was set through setAsyncExecutor(), a fixed pool of daemon
+	 * threads sized to the transport's per-host connection limit is created on
+	 * first use; additional requests wait in its queue rather than each holding a
+	 * thread of their own
+	 * 
+	 * @return Executor used by the asynchronous methods of the current client
+	 */
+	public static Executor getAsyncExecutor() {
+		return PmaClient.current().getAsyncExecutor();
+	}
+
+	/**
+	 * This method is used to set the executor the asynchronous (*Async) methods run
+	 * on
+	 * 
+	 * @param executor Executor to use, or null to fall back to the default pool
+	 */
+	public static void setAsyncExecutor(Executor executor) {
+		PmaClient.current().setAsyncExecutor(executor);
+	}
+
+	/**
+	 * This method is used to get the local tile cache consulted by getTile(),
+	 * getTileBytes() and writeTile() before requesting a tile from PMA.core
+	 * 
+	 * @return Local tile cache, null if tiles aren't cached locally
+	 */
+	public static DiskTileCache getDiskTileCache() {
+		return PmaClient.current().getDiskTileCache();
+	}
+
+	/**
+	 * This method is used to set the local tile cache consulted by getTile(),
+	 * getTileBytes() and writeTile() before requesting a tile from PMA.core.
+	 * Tiles are cached per server and slide fingerprint, so a slide that is
+	 * replaced on the server isn't served from stale tiles after a restart. The
+	 * previous cache, if any, is not closed
+	 * 
+	 * @param cache Local tile cache, or null to stop caching tiles locally
+	 */
+	public static void setDiskTileCache(DiskTileCache cache) {
+		PmaClient.current().setDiskTileCache(cache);
+	}
+
+	/**
+	 * This method is used to get the local index searchSlides() answers from
+	 * 
+	 * @return Local slide path index, null if searchSlides() queries PMA.core
+	 */
+	public static SlidePathIndex getSlidePathIndex() {
+		return PmaClient.current().getSlidePathIndex();
+	}
+
+	/**
+	 * This method is used to set a local index for searchSlides() to answer from,
+	 * e.g. one built from a crawl with SlidePathIndex.of() and kept up to date
+	 * with SlidePathIndex.apply(). Searches the index doesn't cover (another
+	 * server, a directory outside the crawl) still query PMA.core. This also
+	 * makes searching available on PMA.start
+	 * 
+	 * @param index Local slide path index, or null to query PMA.core again
+	 */
+	public static void setSlidePathIndex(SlidePathIndex index) {
+		PmaClient.current().setSlidePathIndex(index);
+	}
+
+	/**
+	 * So afterwards we can look up what username actually belongs to a session
+	 */
+	private static Map<String, Object> sessions() {
+		return PmaClient.current().getSessions();
+	}
+
+	/**
+	 * So afterwards we can determine the PMA.core URL to connect to for a given
+	 * SessionID
+	 */
+	private static Map<String, String> usernames() {
+		return PmaClient.current().getUsernames();
+	}
+
+	/**
+	 * A caching mechanism for slide information, per session
+	 */
+	private static SlideInfoCache slideInfoCache() {
+		return PmaClient.current().getSlideInfoCache();
+	}
+
+	/**
+	 * This method is used to run a blocking call on the asynchronous executor.
+	 * Cancelling the returned future interrupts the call if it is still running
+	 * 
+	 * @param task blocking call to run
+	 * @return Future completed with the call's result, or exceptionally with the
+	 *         exception it threw
+	 */
+	private static <T> CompletableFuture<T> async(final Callable<T> task) {
+		return async(getAsyncExecutor(), task);
+	}
+
+	/**
+	 * This method is used to run a blocking call on a given executor. Cancelling
+	 * the returned future interrupts the call if it is still running. The call
+	 * keeps the client, and its requests the priority and the deadline, of the
+	 * calling thread
+	 * 
+	 * @param executor executor to run the call on
+	 * @param task     blocking call to run
+	 * @return Future completed with the call's result, or exceptionally with the
+	 *         exception it threw
+	 */
+	static <T> CompletableFuture<T> async(Executor executor, final Callable<T> task) {
+		final CompletableFuture<T> result = new CompletableFuture<T>();
+		final ConcurrencyLimiter.Priority priority = ConcurrencyLimiter.getPriority();
+		final Deadline deadline = Deadline.current();
+		final PmaClient client = PmaClient.current();
+		final FutureTask<Void> future = new FutureTask<Void>(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					result.complete(client.call(() -> Deadline.callWith(deadline,
+							() -> ConcurrencyLimiter.callWithPriority(priority, task))));
+				} catch (Throwable t) {
+					result.completeExceptionally(t);
+				}
+			}
+		}, null);
+		result.whenComplete((value, throwable) -> {
+			if (result.isCancelled()) {
+				future.cancel(true);
+			}
+		});
+		try {
+			executor.execute(future);
+		} catch (RejectedExecutionException e) {
+			result.completeExceptionally(e);
+		}
+		return result;
 	}
 
 	/**
@@ -127,14 +309,6 @@ public class Core {
 	 */
 	public static void setDebugFlag(boolean flag) {
 		PMA.setDebugFlag(flag);
-		if (flag) {
-			System.out.println(
-					"Debug flag enabled. You will receive extra feedback and messages from the Java SDK (like this one)");
-			if (PMA.logger != null) {
-				PMA.logger.severe(
-						"Debug flag enabled. You will receive extra feedback and messages from the Java SDK (like this one)");
-			}
-		}
 	}
 
 	/**
@@ -148,7 +322,7 @@ public class Core {
 	 * @return The same sessionID if explicited, otherwise it recovers a session's
 	 *         ID
 	 */
-	private static String sessionId(String... varargs) {
+	static String sessionId(String... varargs) {
 		// setting the default value when argument's value is omitted
 		String sessionID = varargs.length > 0 ? varargs[0] : null;
 		if (sessionID == null) {
@@ -161,6 +335,125 @@ public class Core {
 		}
 	}
 
+	/**
+	 * This method is used to get the session's ID passed at a given position of an
+	 * array of optional arguments
+	 * 
+	 * @param method  name of the calling method, for logging purposes
+	 * @param varargs Array of optional arguments
+	 * @param index   position of the session's ID in varargs
+	 * @return The same sessionID if explicited, otherwise it recovers a session's
+	 *         ID
+	 */
+	private static String sessionIdArgument(String method, Object[] varargs, int index) {
+		String sessionID = null;
+		if (varargs.length > index) {
+			if (!(varargs[index] instanceof String) && varargs[index] != null) {
+				PmaLog.severe(() -> method + "() : Invalid argument");
+				throw new IllegalArgumentException("...");
+			}
+			sessionID = (String) varargs[index];
+		}
+		return sessionId(sessionID);
+	}
+
+	/**
+	 * This method is used to read an optional argument, checking its type
+	 * 
+	 * @param method       name of the calling method, for logging purposes
+	 * @param varargs      Array of optional arguments
+	 * @param index        position of the argument
+	 * @param type         expected type
+	 * @param defaultValue value used when the argument is omitted or null
+	 * @return Argument's value
+	 */
+	private static <T> T argument(String method, Object[] varargs, int index, Class<T> type, T defaultValue) {
+		if (varargs.length <= index || varargs[index] == null) {
+			return defaultValue;
+		}
+		if (!type.isInstance(varargs[index])) {
+			PmaLog.severe(() -> method + "() : Invalid argument");
+			throw new IllegalArgumentException("...");
+		}
+		return type.cast(varargs[index]);
+	}
+
+	/**
+	 * This method is used to read the recursivity argument of getDirectories() and
+	 * getSlides()
+	 * 
+	 * @param method  name of the calling method, for logging purposes
+	 * @param varargs Array of optional arguments
+	 * @param index   position of the argument
+	 * @return Depth to descend to, 0 for none, SlideCrawler.UNLIMITED_DEPTH for
+	 *         the whole tree
+	 */
+	private static int depthArgument(String method, Object[] varargs, int index) {
+		if (varargs.length <= index || varargs[index] == null) {
+			return 0;
+		}
+		if (varargs[index] instanceof Boolean) {
+			return (Boolean) varargs[index] ? SlideCrawler.UNLIMITED_DEPTH : 0;
+		}
+		if (varargs[index] instanceof Integer) {
+			return Math.max(0, (Integer) varargs[index]);
+		}
+		PmaLog.severe(() -> method + "() : Invalid argument");
+		throw new IllegalArgumentException("...");
+	}
+
+	/**
+	 * This method is used to get an encoded tile, from the local tile cache when
+	 * one is set and holds the tile, otherwise from PMA.core (adding it to the
+	 * local tile cache)
+	 * 
+	 * @param url       tile's URL, as returned by getTileUrl()
+	 * @param slideRef  slide's path or UID
+	 * @param x         x position
+	 * @param y         y position
+	 * @param zoomLevel zoom level
+	 * @param zStack    z stack
+	 * @param sessionID session's ID
+	 * @param format    image format
+	 * @param quality   quality
+	 * @return Encoded tile
+	 * @throws Exception if the tile can't be retrieved
+	 */
+	private static byte[] tileBytes(String url, String slideRef, int x, int y, int zoomLevel, int zStack,
+			String sessionID, String format, Integer quality) throws Exception {
+		PmaClient client = PmaClient.current();
+		DiskTileCache cache = client.getDiskTileCache();
+		if (cache == null) {
+			return PMA.httpGetBytes(url);
+		}
+		String server = pmaUrl(sessionID);
+		String fingerprintKey = server + "|" + slideRef;
+		String fingerprint = client.getTileFingerprints().get(fingerprintKey);
+		if (fingerprint == null) {
+			fingerprint = getFingerPrint(slideRef, sessionID);
+			// a failure is remembered too, so the slide's next tiles don't each ask
+			// again
+			client.getTileFingerprints().put(fingerprintKey, fingerprint != null ? fingerprint : "",
+					fingerprint != null ? FINGERPRINT_TTL_MILLIS : FINGERPRINT_FAILURE_TTL_MILLIS);
+		}
+		if (fingerprint == null || fingerprint.isEmpty()) {
+			// without a fingerprint there's no safe key
+			return PMA.httpGetBytes(url);
+		}
+		String key = DiskTileCache.key(server, fingerprint, x, y, zoomLevel, zStack, format, quality);
+		byte[] data = cache.get(key);
+		if (data == null) {
+			data = PMA.httpGetBytes(url);
+			try {
+				cache.put(key, data);
+			} catch (Exception e) {
+				// the tile was downloaded, failing to cache it doesn't make it fail
+				PmaLog.error(() -> "Unable to cache tile " + key, e);
+			}
+		}
+		return data;
+	}
+
 	/**
 	 * This method is used to get PMA.core active session
 	 * 
@@ -168,20 +461,14 @@ public class Core {
 	 */
 	private static String firstSessionId() {
 		// do we have any stored sessions from earlier login events?
-		if (pmaSessions.size() > 0) {
+		if (sessions().size() > 0) {
 			// yes we do! This means that when there's a PMA.core active session AND
 			// PMA.core.lite version running,
 			// the PMA.core active will be selected and returned
-			return pmaSessions.keySet().toArray()[0].toString();
+			return sessions().keySet().toArray()[0].toString();
 		} else {
 			// ok, we don't have stored sessions; not a problem per se...
 			if (pmaIsLite()) {
-				if (!pmaSlideInfos.containsKey(pmaCoreLiteSessionID)) {
-					pmaSlideInfos.put(pmaCoreLiteSessionID, new HashMap<String, Object>());
-				}
-				if (!pmaAmountOfDataDownloaded.containsKey(pmaCoreLiteSessionID)) {
-					pmaAmountOfDataDownloaded.put(pmaCoreLiteSessionID, 0);
-				}
 				return pmaCoreLiteSessionID;
 			} else {
 				// no stored PMA.core sessions found NOR PMA.core.lite
@@ -213,17 +500,16 @@ public class Core {
 		} else {
 			// assume sessionID is a valid session; otherwise the following will generate an
 			// error
-			if (pmaSessions.containsKey(sessionID)) {
-				String url = pmaSessions.get(sessionID).toString();
+			if (sessions().containsKey(sessionID)) {
+				String url = sessions().get(sessionID).toString();
 				if (!url.endsWith("/")) {
 					url = url + "/";
 				}
 				return url;
 			} else {
-				if (PMA.logger != null) {
-					PMA.logger.severe("Invalid sessionID:" + sessionID);
-				}
-				throw new Exception("Invalid sessionID:" + sessionID);
+				String message = "Invalid sessionID:" + sessionID;
+				PmaLog.severe(() -> message);
+				throw new Exception(message);
 			}
 		}
 	}
@@ -255,12 +541,7 @@ public class Core {
 			return jsonString.equals("true");
 		} catch (Exception e) {
 			// this happens when NO instance of PMA.core is detected
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -287,18 +568,14 @@ public class Core {
 		Boolean xml = false;
 		if (varargs.length > 0) {
 			if (!(varargs[0] instanceof String) && varargs[0] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("apiUrl() : Invalid argument");
-				}
+				PmaLog.severe(() -> "apiUrl() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			sessionID = (String) varargs[0];
 		}
 		if (varargs.length > 1) {
 			if (!(varargs[1] instanceof Boolean) && varargs[1] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("apiUrl() : Invalid argument");
-				}
+				PmaLog.severe(() -> "apiUrl() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			xml = (Boolean) varargs[1];
@@ -308,12 +585,7 @@ public class Core {
 		try {
 			url = pmaUrl(sessionID);
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			url = null;
 		}
 		if (url == null) {
@@ -351,12 +623,7 @@ public class Core {
 			// remember, pmaUrl is guaranteed to return a URL that ends with "/"
 			return PMA.join(url, "query/json/");
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -406,25 +673,13 @@ public class Core {
 		// apiUrl() takes session information into account
 		String url = PMA.join(pmaCoreURL, "api/json/GetVersionInfo");
 		String version = null;
-		if (PMA.debug) {
-			System.out.println(url);
-		}
+		PmaLog.debug(url);
 		try {
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("GET");
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
+			String jsonString = PMA.httpGetString(url, null);
 			if (PMA.isJSONObject(jsonString)) {
 				JSONObject jsonResponse = PMA.getJSONObjectResponse(jsonString);
 				if (jsonResponse.has("Code")) {
-					if (PMA.logger != null) {
-						PMA.logger.severe("getVersionInfo failed : " + jsonResponse.get("Message"));
-					}
+					PmaLog.severe(() -> "getVersionInfo failed : " + jsonResponse.get("Message"));
 					throw new Exception("getVersionInfo failed : " + jsonResponse.get("Message"));
 				} else if (jsonResponse.has("d")) {
 					version = jsonResponse.getString("d");
@@ -436,12 +691,7 @@ public class Core {
 			}
 			return version;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -461,28 +711,13 @@ public class Core {
 		// setting the default values when arguments' values are omitted
 		String pmaCoreURL = varargs.length > 0 ? varargs[0] : pmaCoreLiteURL;
 		String url = PMA.join(pmaCoreURL, "api/json/GetAPIVersion");
-		if (PMA.debug) {
-			System.out.println(url);
-		}
+		PmaLog.debug(url);
 
 		String jsonString = null;
 		try {
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("GET");
-			jsonString = PMA.getJSONAsStringBuffer(con).toString();
+			jsonString = PMA.httpGetString(url, null);
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 		List<Integer> version = null;
@@ -490,9 +725,7 @@ public class Core {
 			if (PMA.isJSONObject(jsonString)) {
 				JSONObject jsonResponse = PMA.getJSONObjectResponse(jsonString);
 				if (jsonResponse.has("Code")) {
-					if (PMA.logger != null) {
-						PMA.logger.severe("get_api_version resulted in: " + jsonResponse.get("Message"));
-					}
+					PmaLog.severe(() -> "get_api_version resulted in: " + jsonResponse.get("Message"));
 					throw new Exception("get_api_version resulted in: " + jsonResponse.get("Message"));
 				} else if (jsonResponse.has("d")) {
 					JSONArray array = jsonResponse.getJSONArray("d");
@@ -512,13 +745,7 @@ public class Core {
 			}
 			return version;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-				PMA.logger.severe("GetAPIVersion method not available at " + pmaCoreURL);
-			}
+			PmaLog.error(() -> "GetAPIVersion method not available at " + pmaCoreURL, e);
 			throw new Exception("GetAPIVersion method not available at " + pmaCoreURL);
 		}
 	}
@@ -587,15 +814,7 @@ public class Core {
 			url = url.concat("&password=").concat(PMA.pmaQ(pmaCorePassword));
 		}
 		try {
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("GET");
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
+			String jsonString = PMA.httpGetString(url, null);
 			String sessionID = null;
 			if (PMA.isJSONObject(jsonString)) {
 				JSONObject jsonResponse = PMA.getJSONObjectResponse(jsonString);
@@ -603,12 +822,8 @@ public class Core {
 					return null;
 				} else {
 					sessionID = jsonResponse.getString("SessionId");
-					pmaUsernames.put(sessionID, pmaCoreUsername);
-					pmaSessions.put(sessionID, pmaCoreURL);
-					if (!pmaSlideInfos.containsKey(sessionID)) {
-						pmaSlideInfos.put(sessionID, new HashMap<String, Object>());
-					}
-					pmaAmountOfDataDownloaded.put(sessionID, jsonResponse.length());
+					usernames().put(sessionID, pmaCoreUsername);
+					sessions().put(sessionID, pmaCoreURL);
 					return sessionID;
 				}
 			} else {
@@ -616,12 +831,7 @@ public class Core {
 			}
 		} catch (Exception e) {
 			// Something went wrong; unable to communicate with specified endpoint
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -645,13 +855,12 @@ public class Core {
 		sessionID = sessionId(sessionID);
 		String url = apiUrl(sessionID, false) + "DeAuthenticate?sessionID=" + PMA.pmaQ((sessionID));
 		String contents = PMA.httpGet(url, "application/json");
-		pmaAmountOfDataDownloaded.put(sessionID, pmaAmountOfDataDownloaded.get(sessionID) + contents.length());
-		if (pmaSessions.size() > 0) {
+		if (sessions().size() > 0) {
 			// yes we do! This means that when there's a PMA.core active session AND
 			// PMA.core.lite version running,
 			// the PMA.core active will be selected and returned
-			pmaSessions.remove(sessionID);
-			pmaSlideInfos.remove(sessionID);
+			sessions().remove(sessionID);
+			slideInfoCache().removeSession(sessionID);
 			return true;
 		} else {
 			return false;
@@ -677,24 +886,10 @@ public class Core {
 		sessionID = sessionId(sessionID);
 		String url = apiUrl(sessionID, false) + "Ping?sessionID=" + PMA.pmaQ(sessionID);
 		try {
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("GET");
-			con.setRequestProperty("Accept", "application/json");
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
+			String jsonString = PMA.httpGetString(url, "application/json");
 			return jsonString.equals("true") ? true : false;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return false;
 		}
 	}
@@ -720,8 +915,6 @@ public class Core {
 			List<String> rootDirs;
 			if (PMA.isJSONArray(jsonString)) {
 				JSONArray jsonResponse = PMA.getJSONArrayResponse(jsonString);
-				pmaAmountOfDataDownloaded.put(sessionID,
-						pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
 				rootDirs = new ArrayList<>();
 				for (int i = 0; i < jsonResponse.length(); i++) {
 					rootDirs.add(jsonResponse.optString(i));
@@ -729,12 +922,8 @@ public class Core {
 				// return dirs;
 			} else {
 				JSONObject jsonResponse = PMA.getJSONObjectResponse(jsonString);
-				pmaAmountOfDataDownloaded.put(sessionID,
-						pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
 				if (jsonResponse.has("Code")) {
-					if (PMA.logger != null) {
-						PMA.logger.severe("getrootdirectories() failed with error " + jsonResponse.get("Message"));
-					}
+					PmaLog.severe(() -> "getrootdirectories() failed with error " + jsonResponse.get("Message"));
 					// throw new Exception("getrootdirectories() failed with error " +
 					// jsonResponse.get("Message"));
 				}
@@ -742,12 +931,7 @@ public class Core {
 			}
 			return rootDirs;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -784,18 +968,14 @@ public class Core {
 		String booleanOrInteger = "";
 		if (varargs.length > 0) {
 			if (!(varargs[0] instanceof String) && varargs[0] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getDirectories() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getDirectories() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			sessionID = (String) varargs[0];
 		}
 		if (varargs.length > 1) {
 			if ((!(varargs[1] instanceof Integer) && !(varargs[1] instanceof Boolean)) && (varargs[1] != null)) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getDirectories() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getDirectories() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			if (varargs[1] instanceof Boolean) {
@@ -812,78 +992,72 @@ public class Core {
 		// Return a list of sub-directories available to sessionID in the startDir
 		// directory
 		sessionID = sessionId(sessionID);
-		String url = apiUrl(sessionID, false) + "GetDirectories?sessionID=" + PMA.pmaQ(sessionID) + "&path="
-				+ PMA.pmaQ(startDir);
-		if (PMA.debug) {
-			System.out.println(url);
-		}
 		try {
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("GET");
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
-			List<String> dirs;
-			if (PMA.isJSONObject(jsonString)) {
-				JSONObject jsonResponse = PMA.getJSONObjectResponse(jsonString);
-				pmaAmountOfDataDownloaded.put(sessionID,
-						pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
-				if (jsonResponse.has("Code")) {
-					if (PMA.logger != null) {
-						PMA.logger.severe("get_directories to " + startDir + " resulted in: "
-								+ jsonResponse.get("Message") + " (keep in mind that startDir is case sensitive!)");
-					}
-					throw new Exception("get_directories to " + startDir + " resulted in: "
-							+ jsonResponse.get("Message") + " (keep in mind that startDir is case sensitive!)");
-				} else if (jsonResponse.has("d")) {
-					JSONArray array = jsonResponse.getJSONArray("d");
-					dirs = new ArrayList<>();
-					for (int i = 0; i < array.length(); i++) {
-						dirs.add(array.optString(i));
-					}
-					// return dirs;
-				} else {
-					return null;
-				}
-			} else {
-				JSONArray jsonResponse = PMA.getJSONArrayResponse(jsonString);
-				pmaAmountOfDataDownloaded.put(sessionID,
-						pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
-				dirs = new ArrayList<>();
-				for (int i = 0; i < jsonResponse.length(); i++) {
-					dirs.add(jsonResponse.optString(i));
-				}
-				// return dirs;
-			}
-
 			// we test if call is recursive, and if yes to which depth
 			if (recursive) {
-				for (String dir : getDirectories(startDir, sessionID)) {
-					if (booleanOrInteger.equals("boolean")) {
-						dirs.addAll(getDirectories(dir, sessionID, recursive));
-					}
-					if (booleanOrInteger.equals("integer")) {
-						dirs.addAll(getDirectories(dir, sessionID, integerRecursive - 1));
-					}
-				}
+				return getSlideCrawler().getDirectories(startDir, sessionID,
+						booleanOrInteger.equals("integer") ? integerRecursive : SlideCrawler.UNLIMITED_DEPTH);
 			}
-			return dirs;
-
+			return loadDirectories(startDir, sessionID);
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
 
+	/**
+	 * This method is used to retrieve the sub-directories of a single directory
+	 * from PMA.core
+	 * 
+	 * @param startDir  directory
+	 * @param sessionID session's ID
+	 * @return Sub-directories of the directory, null if the response isn't
+	 *         understood
+	 * @throws Exception if PMA.core reports an error
+	 */
+	static List<String> loadDirectories(String startDir, String sessionID) throws Exception {
+		String url = apiUrl(sessionID, false) + "GetDirectories?sessionID=" + PMA.pmaQ(sessionID) + "&path="
+				+ PMA.pmaQ(startDir);
+		PmaLog.debug(url);
+		// the response is decoded straight into a list while it is received
+		Object json = PMA.httpGetJSON(url);
+		if (json instanceof Map) {
+			Map<?, ?> jsonResponse = (Map<?, ?>) json;
+			if (jsonResponse.containsKey("Code")) {
+				PmaLog.severe(() -> "get_directories to " + startDir + " resulted in: " + jsonResponse.get("Message")
+						+ " (keep in mind that startDir is case sensitive!)");
+				throw new PmaCoreException("get_directories to " + startDir + " resulted in: "
+						+ jsonResponse.get("Message") + " (keep in mind that startDir is case sensitive!)",
+						jsonResponse.get("Code"), jsonResponse.get("Message"));
+			} else if (jsonResponse.containsKey("d")) {
+				return PMA.toStringList(jsonResponse.get("d"));
+			} else {
+				return null;
+			}
+		} else {
+			List<?> jsonResponse = (List<?>) json;
+			return PMA.toStringList(jsonResponse);
+		}
+	}
+
+	/**
+	 * This method is used to get the sub-directories available to sessionID in the
+	 * start directory as a lazy stream. It takes the same arguments as
+	 * getDirectories(), but each directory is only requested once the stream
+	 * reaches it
+	 * 
+	 * @param startDir Start directory
+	 * @param varargs  Array of optional arguments, see getDirectories()
+	 * @return Stream of the sub-directories, in the same order as getDirectories()
+	 */
+	public static Stream<String> streamDirectories(String startDir, Object... varargs) {
+		String sessionID = sessionId(argument("streamDirectories", varargs, 0, String.class, null));
+		int depth = depthArgument("streamDirectories", varargs, 1);
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+				new DirectoryIterator(startDir, sessionID, depth, false), Spliterator.ORDERED | Spliterator.NONNULL),
+				false);
+	}
+
 	/**
 	 * This method is used to get the first non empty directory
 	 * 
@@ -909,12 +1083,7 @@ public class Core {
 		try {
 			slides = getSlides(startDir, sessionID);
 		} catch (Exception e) {
-			if (PMA.debug) {
-				System.out.println("Unable to examine " + startDir);
-				if (PMA.logger != null) {
-					PMA.logger.severe("Unable to examine " + startDir);
-				}
-			}
+			PmaLog.debug("Unable to examine {0}", startDir);
 			if (!startDir.equals("/")) {
 				return null;
 			}
@@ -935,11 +1104,7 @@ public class Core {
 				try {
 					dirs = getDirectories(startDir, sessionID);
 				} catch (Exception e) {
-					System.out.println("Unable to examine " + startDir);
-					if (PMA.logger != null) {
-						PMA.logger.severe(
-								"Debug flag enabled. You will receive extra feedback and messages from the Java SDK (like this one)");
-					}
+					PmaLog.debug("Unable to examine {0}", startDir);
 					success = false;
 				}
 				if (success) {
@@ -987,18 +1152,14 @@ public class Core {
 		Integer integerRecursive = 0;
 		if (varargs.length > 0) {
 			if (!(varargs[0] instanceof String) && varargs[0] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getSlides() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getSlides() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			sessionID = (String) varargs[0];
 		}
 		if (varargs.length > 1) {
 			if ((!(varargs[1] instanceof Integer) && !(varargs[1] instanceof Boolean)) && (varargs[1] != null)) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getSlides() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getSlides() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			if (varargs[1] instanceof Boolean) {
@@ -1017,74 +1178,90 @@ public class Core {
 		if (startDir.startsWith("/")) {
 			startDir = startDir.substring(1);
 		}
-		String url = apiUrl(sessionID, false) + "GetFiles?sessionID=" + PMA.pmaQ(sessionID) + "&path="
-				+ PMA.pmaQ(startDir);
 		try {
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("GET");
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
-			List<String> slides;
-			if (PMA.isJSONObject(jsonString)) {
-				JSONObject jsonResponse = PMA.getJSONObjectResponse(jsonString);
-				pmaAmountOfDataDownloaded.put(sessionID,
-						pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
-				if (jsonResponse.has("Code")) {
-					if (PMA.logger != null) {
-						PMA.logger.severe("get_slides from " + startDir + " resulted in: " + jsonResponse.get("Message")
-								+ " (keep in mind that startDir is case sensitive!)");
-					}
-					throw new Exception("get_slides from " + startDir + " resulted in: " + jsonResponse.get("Message")
-							+ " (keep in mind that startDir is case sensitive!)");
-				} else if (jsonResponse.has("d")) {
-					JSONArray array = jsonResponse.getJSONArray("d");
-					slides = new ArrayList<>();
-					for (int i = 0; i < array.length(); i++) {
-						slides.add(array.optString(i));
-					}
-					// return slides;
-				} else {
-					return null;
-				}
-			} else {
-				JSONArray jsonResponse = PMA.getJSONArrayResponse(jsonString);
-				pmaAmountOfDataDownloaded.put(sessionID,
-						pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
-				slides = new ArrayList<>();
-				for (int i = 0; i < jsonResponse.length(); i++) {
-					slides.add(jsonResponse.optString(i));
-				}
-				// return slides;
-			}
-
 			// we test if call is recursive, and if yes to which depth
 			if (recursive) {
-				for (String dir : getDirectories(startDir, sessionID)) {
-					if (booleanOrInteger.equals("boolean")) {
-						slides.addAll(getSlides(dir, sessionID, recursive));
-					}
-					if (booleanOrInteger.equals("integer")) {
-						slides.addAll(getSlides(dir, sessionID, integerRecursive - 1));
-					}
-				}
+				return getSlideCrawler().getSlides(startDir, sessionID,
+						booleanOrInteger.equals("integer") ? integerRecursive : SlideCrawler.UNLIMITED_DEPTH);
 			}
-			return slides;
+			return loadSlides(startDir, sessionID);
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
 
+	/**
+	 * This method is used to retrieve the slides of a single directory from
+	 * PMA.core
+	 * 
+	 * @param startDir  directory
+	 * @param sessionID session's ID
+	 * @return Slides in the directory, null if the response isn't understood
+	 * @throws Exception if PMA.core reports an error
+	 */
+	static List<String> loadSlides(String startDir, String sessionID) throws Exception {
+		if (startDir.startsWith("/")) {
+			startDir = startDir.substring(1);
+		}
+		String url = apiUrl(sessionID, false) + "GetFiles?sessionID=" + PMA.pmaQ(sessionID) + "&path="
+				+ PMA.pmaQ(startDir);
+		// the response is decoded straight into a list while it is received
+		Object json = PMA.httpGetJSON(url);
+		if (json instanceof Map) {
+			Map<?, ?> jsonResponse = (Map<?, ?>) json;
+			if (jsonResponse.containsKey("Code")) {
+				String message = "get_slides from " + startDir + " resulted in: " + jsonResponse.get("Message")
+						+ " (keep in mind that startDir is case sensitive!)";
+				PmaLog.severe(() -> message);
+				throw new PmaCoreException(message,
+						jsonResponse.get("Code"), jsonResponse.get("Message"));
+			} else if (jsonResponse.containsKey("d")) {
+				return PMA.toStringList(jsonResponse.get("d"));
+			} else {
+				return null;
+			}
+		} else {
+			List<?> jsonResponse = (List<?>) json;
+			return PMA.toStringList(jsonResponse);
+		}
+	}
+
+	/**
+	 * This method is used to get the slides in a directory without blocking the
+	 * calling thread. It takes the same arguments as getSlides() and runs on the
+	 * executor returned by getAsyncExecutor()
+	 * 
+	 * @param startDir Directory to start from
+	 * @param varargs  Array of optional arguments, see getSlides()
+	 * @return Future completed with the list of slides
+	 */
+	public static CompletableFuture<List<String>> getSlidesAsync(final String startDir, final Object... varargs) {
+		return async(() -> getSlides(startDir, varargs));
+	}
+
+	/**
+	 * This method is used to get the slides available to sessionID in the start
+	 * directory as a lazy stream. It takes the same arguments as getSlides(), but
+	 * each directory is only requested once the stream reaches it, so the first
+	 * slide is available after a single request and the slides aren't all held in
+	 * memory at once
+	 * 
+	 * @param startDir Start directory
+	 * @param varargs  Array of optional arguments, see getSlides()
+	 * @return Stream of the slides, in the same order as getSlides()
+	 */
+	public static Stream<String> streamSlides(String startDir, Object... varargs) {
+		String sessionID = sessionId(argument("streamSlides", varargs, 0, String.class, null));
+		int depth = depthArgument("streamSlides", varargs, 1);
+		if (startDir.startsWith("/")) {
+			startDir = startDir.substring(1);
+		}
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+				new DirectoryIterator(startDir, sessionID, depth, true), Spliterator.ORDERED | Spliterator.NONNULL),
+				false);
+	}
+
 	/**
 	 * This method is used to determine the file extension for a slide's path
 	 * 
@@ -1127,18 +1304,14 @@ public class Core {
 		sessionID = sessionId(sessionID);
 		if (sessionID.equals(pmaCoreLiteSessionID)) {
 			if (isLite()) {
-				if (PMA.logger != null) {
-					PMA.logger.severe(
-							"PMA.core.lite found running, but doesn't support UID generation. For advanced anonymization, please upgrade to PMA.core.");
-				}
+				PmaLog.severe(
+						() -> "PMA.core.lite found running, but doesn't support UID generation. For advanced anonymization, please upgrade to PMA.core.");
 				throw new Exception(
 						"PMA.core.lite found running, but doesn't support UID generation. For advanced anonymization, please upgrade to PMA.core.");
 
 			} else {
-				if (PMA.logger != null) {
-					PMA.logger.severe(
-							"PMA.core.lite not found, and besides; it doesn't support UID generation. For advanced anonymization, please upgrade to PMA.core.");
-				}
+				PmaLog.severe(
+						() -> "PMA.core.lite not found, and besides; it doesn't support UID generation. For advanced anonymization, please upgrade to PMA.core.");
 				throw new Exception(
 						"PMA.core.lite not found, and besides; it doesn't support UID generation. For advanced anonymization, please upgrade to PMA.core.");
 			}
@@ -1147,13 +1320,10 @@ public class Core {
 				+ PMA.pmaQ(slideRef);
 		try {
 			String jsonString = PMA.httpGet(url, "application/json");
-			pmaAmountOfDataDownloaded.put(sessionID, pmaAmountOfDataDownloaded.get(sessionID) + jsonString.length());
 			if (PMA.isJSONObject(jsonString)) {
 				JSONObject jsonResponse = PMA.getJSONObjectResponse(jsonString);
 				if (jsonResponse.has("Code")) {
-					if (PMA.logger != null) {
-						PMA.logger.severe("getUid() on  " + slideRef + " resulted in: " + jsonResponse.get("Message"));
-					}
+					PmaLog.severe(() -> "getUid() on  " + slideRef + " resulted in: " + jsonResponse.get("Message"));
 					// throw new Exception("getUid() on " + slideRef + " resulted in: " +
 					// jsonResponse.get("Message"));
 				}
@@ -1163,12 +1333,7 @@ public class Core {
 			}
 		} catch (Exception e) {
 			// this happens when NO instance of PMA.core is detected
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -1193,41 +1358,23 @@ public class Core {
 		String url = apiUrl(sessionID, false) + "GetFingerprint?sessionID=" + PMA.pmaQ(sessionID) + "&pathOrUid="
 				+ PMA.pmaQ(slideRef);
 		try {
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("GET");
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
+			String jsonString = PMA.httpGetString(url, null);
 			if (PMA.isJSONObject(jsonString)) {
 				JSONObject jsonResponse = PMA.getJSONObjectResponse(jsonString);
-				pmaAmountOfDataDownloaded.put(sessionID,
-						pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
 				if (jsonResponse.has("Code")) {
-					if (PMA.logger != null) {
-						PMA.logger.severe("get_fingerprint on " + slideRef + " resulted in: "
-								+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)");
-					}
-					throw new Exception("get_fingerprint on " + slideRef + " resulted in: "
+					PmaLog.severe(() -> "get_fingerprint on " + slideRef + " resulted in: "
 							+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)");
+					throw new PmaCoreException("get_fingerprint on " + slideRef + " resulted in: "
+							+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)",
+							jsonResponse.get("Code"), jsonResponse.get("Message"));
 				} else {
 					return jsonResponse.getString("d");
 				}
 			} else {
-				pmaAmountOfDataDownloaded.put(sessionID,
-						pmaAmountOfDataDownloaded.get(sessionID) + jsonString.length());
 				fingerprint = jsonString.replace("\"", "");
 			}
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 		return fingerprint;
@@ -1254,20 +1401,18 @@ public class Core {
 			retval.put("sessionID", pmaCoreLiteSessionID);
 			retval.put("username", null);
 			retval.put("url", pmaCoreLiteURL);
-			retval.put("amountOfDataDownloaded", pmaAmountOfDataDownloaded.get(pmaCoreLiteSessionID).toString());
+			retval.put("amountOfDataDownloaded",
+					Long.toString(getDownloadStats().getWireBytes(pmaCoreLiteSessionID)));
 		} else if (sessionID != null) {
 			retval = new HashMap<>();
 			retval.put("sessionID", sessionID);
-			retval.put("username", pmaUsernames.get(sessionID));
-			retval.put("amountOfDataDownloaded", pmaAmountOfDataDownloaded.get(sessionID).toString());
+			retval.put("username", usernames().get(sessionID));
+			retval.put("amountOfDataDownloaded",
+					Long.toString(getDownloadStats().getWireBytes(sessionID)));
 			try {
 				retval.put("url", pmaUrl(sessionID));
 			} catch (Exception e) {
-				if (PMA.logger != null) {
-					StringWriter sw = new StringWriter();
-					e.printStackTrace(new PrintWriter(sw));
-					PMA.logger.severe(sw.toString());
-				}
+				PmaLog.error(e);
 			}
 		}
 
@@ -1285,20 +1430,18 @@ public class Core {
 	 * @return A list of two items (duplicated) relative to the tile size
 	 *         information for a session's ID
 	 */
-	@SuppressWarnings("unchecked")
 	public static List<Integer> getTileSize(String... varargs) {
 		// setting the default value when arguments' value is omitted
 		String sessionID = varargs.length > 0 ? varargs[0] : null;
 		sessionID = sessionId(sessionID);
 		Map<String, Object> info;
-		if (((Map<String, Object>) pmaSlideInfos.get(sessionID)).size() < 1) {
+		List<Map<String, Object>> infos = slideInfoCache().values(sessionID);
+		if (infos.size() < 1) {
 			String dir = getFirstNonEmptyDirectory(sessionID);
 			List<String> slides = getSlides(dir, sessionID);
 			info = getSlideInfo(slides.get(0), sessionID);
 		} else {
-			int getLength = ((Map<String, Object>) pmaSlideInfos.get(sessionID)).values().toArray().length;
-			info = (Map<String, Object>) ((Map<String, Object>) pmaSlideInfos.get(sessionID)).values()
-					.toArray()[new Random().nextInt(getLength)];
+			info = infos.get(new Random().nextInt(infos.size()));
 		}
 		List<Integer> result = new ArrayList<>();
 		result.add(Integer.parseInt(info.get("TileSize").toString()));
@@ -1317,7 +1460,6 @@ public class Core {
 	 *                 </p>
 	 * @return Nested maps forming a raw image
 	 */
-	@SuppressWarnings("unchecked")
 	public static Map<String, Object> getSlideInfo(String slideRef, String... varargs) {
 		// setting the default value when arguments' value is omitted
 		String sessionID = varargs.length > 0 ? varargs[0] : null;
@@ -1326,73 +1468,86 @@ public class Core {
 		if (slideRef.startsWith("/")) {
 			slideRef = slideRef.substring(1);
 		}
-		if (!((Map<String, Object>) pmaSlideInfos.get(sessionID)).containsKey(slideRef)) {
-			try {
-				String url = apiUrl(sessionID, false) + "GetImageInfo?SessionID=" + PMA.pmaQ(sessionID) + "&pathOrUid="
-						+ PMA.pmaQ(slideRef);
-				if (PMA.debug) {
-					System.out.println(url);
-				}
-				URL urlResource = new URL(url);
-				HttpURLConnection con;
-				if (url.startsWith("https")) {
-					con = (HttpsURLConnection) urlResource.openConnection();
-				} else {
-					con = (HttpURLConnection) urlResource.openConnection();
-				}
-				con.setRequestMethod("GET");
-				String jsonString = PMA.getJSONAsStringBuffer(con).toString();
-				if (PMA.isJSONObject(jsonString)) {
-					JSONObject jsonResponse = PMA.getJSONObjectResponse(jsonString);
-					pmaAmountOfDataDownloaded.put(sessionID,
-							pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
-					if (jsonResponse.has("Code")) {
-						if (PMA.logger != null) {
-							PMA.logger.severe("ImageInfo to " + slideRef + " resulted in: "
-									+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)");
-						}
-						throw new Exception("ImageInfo to " + slideRef + " resulted in: " + jsonResponse.get("Message")
-								+ " (keep in mind that slideRef is case sensitive!)");
-					} else if (jsonResponse.has("d")) {
-						// we convert the Json object to a Map<String, Object>
-						Map<String, Object> jsonMap = objectMapper.readerFor(new TypeReference<Map<String, Object>>() {
-						}).with(DeserializationFeature.USE_LONG_FOR_INTS).readValue(jsonResponse.get("d").toString());
-						// we store the map created for both the slide name & the UID
-						((Map<String, Object>) pmaSlideInfos.get(sessionID))
-								.put(jsonResponse.getJSONObject("d").optString("Filename"), jsonMap);
-						// ((Map<String, Object>) pmaSlideInfos.get(sessionID))
-						// .put(jsonResponse.getJSONObject("d").optString("UID"), jsonMap);
-					} else {
-						// we convert the Json object to a Map<String, Object>
-						Map<String, Object> jsonMap = objectMapper.readerFor(new TypeReference<Map<String, Object>>() {
-						}).with(DeserializationFeature.USE_LONG_FOR_INTS).readValue(jsonResponse.toString());
-						// we store the map created for both the slide name & the UID
-						((Map<String, Object>) pmaSlideInfos.get(sessionID)).put(jsonResponse.getString("Filename"),
-								jsonMap);
-						if (!sessionID.equals(pmaCoreLiteSessionID)) {
-							((Map<String, Object>) pmaSlideInfos.get(sessionID)).put(jsonResponse.getString("UID"),
-									jsonMap);
-						}
-					}
-				} else {
-					// JSONArray jsonResponse = getJSONArrayResponse(jsonString);
-					// pmaAmountOfDataDownloaded.put(sessionID,
-					// pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
-					// ((Map<String, Object>) pmaSlideInfos.get(sessionID)).put(slideRef,
-					// jsonResponse);
-					return null;
-				}
-			} catch (Exception e) {
-				e.printStackTrace();
-				if (PMA.logger != null) {
-					StringWriter sw = new StringWriter();
-					e.printStackTrace(new PrintWriter(sw));
-					PMA.logger.severe(sw.toString());
-				}
-				return null;
+		final String varSessionID = sessionID;
+		final String varSlideRef = slideRef;
+		try {
+			// concurrent calls for the same slide share a single request, and
+			// concurrent calls for different slides are batched into one
+			return slideInfoCache().get(sessionID, slideRef,
+					() -> getSlideInfoBatcher().load(varSlideRef, varSessionID));
+		} catch (Exception e) {
+			PmaLog.error(e);
+			return null;
+		}
+	}
+
+	/**
+	 * This method is used to get a raw image in the form of nested maps, telling
+	 * apart a slide PMA.core doesn't know from a request that failed (where
+	 * getSlideInfo() returns null in both cases)
+	 * 
+	 * @param slideRef slide's path or UID
+	 * @param varargs  Array of optional arguments
+	 *                 <p>
+	 *                 sessionID : First optional argument(String), default
+	 *                 value(null), session's ID
+	 *                 </p>
+	 * @return Result holding the nested maps forming a raw image
+	 */
+	public static PmaResult<Map<String, Object>> getSlideInfoResult(String slideRef, String... varargs) {
+		String sessionID = sessionId(varargs.length > 0 ? varargs[0] : null);
+		final String varSlideRef = slideRef.startsWith("/") ? slideRef.substring(1) : slideRef;
+		return PmaResult.of(() -> slideInfoCache().get(sessionID, varSlideRef,
+				() -> getSlideInfoBatcher().load(varSlideRef, sessionID)));
+	}
+
+	/**
+	 * This method is used to retrieve a raw image in the form of nested maps from
+	 * PMA.core, bypassing the slide information cache
+	 * 
+	 * @param slideRef  slide's path or UID
+	 * @param sessionID session's ID
+	 * @return Nested maps forming a raw image, null if the response isn't a json
+	 *         object
+	 * @throws Exception if PMA.core reports an error
+	 */
+	@SuppressWarnings("unchecked")
+	static Map<String, Object> loadSlideInfo(String slideRef, String sessionID) throws Exception {
+		String url = apiUrl(sessionID, false) + "GetImageInfo?SessionID=" + PMA.pmaQ(sessionID) + "&pathOrUid="
+				+ PMA.pmaQ(slideRef);
+		PmaLog.debug(url);
+		// the response is decoded straight into nested maps while it is received
+		Object json = PMA.httpGetJSON(url);
+		if (json instanceof Map) {
+			Map<String, Object> jsonResponse = (Map<String, Object>) json;
+			if (jsonResponse.containsKey("Code")) {
+				PmaLog.severe(() -> "ImageInfo to " + slideRef + " resulted in: " + jsonResponse.get("Message")
+						+ " (keep in mind that slideRef is case sensitive!)");
+				throw new PmaCoreException("ImageInfo to " + slideRef + " resulted in: " + jsonResponse.get("Message")
+						+ " (keep in mind that slideRef is case sensitive!)",
+						jsonResponse.get("Code"), jsonResponse.get("Message"));
+			} else if (jsonResponse.containsKey("d")) {
+				return (Map<String, Object>) jsonResponse.get("d");
+			} else {
+				return jsonResponse;
 			}
+		} else {
+			return null;
 		}
-		return (Map<String, Object>) ((Map<String, Object>) pmaSlideInfos.get(sessionID)).get(slideRef);
+	}
+
+	/**
+	 * This method is used to get information about a slide without blocking the
+	 * calling thread. It takes the same arguments as getSlideInfo() and runs on the
+	 * executor returned by getAsyncExecutor()
+	 * 
+	 * @param slideRef slide's path or UID
+	 * @param varargs  Array of optional arguments, see getSlideInfo()
+	 * @return Future completed with the slide's information
+	 */
+	public static CompletableFuture<Map<String, Object>> getSlideInfoAsync(final String slideRef,
+			final String... varargs) {
+		return async(() -> getSlideInfo(slideRef, varargs));
 	}
 
 	/**
@@ -1417,100 +1572,79 @@ public class Core {
 			if (slideRef.startsWith("/")) {
 				slideRef = slideRef.substring(1);
 			}
-			if (!((Map<String, Object>) pmaSlideInfos.get(sessionID)).containsKey(slideRef)) {
+			if (!slideInfoCache().contains(sessionID, slideRef)) {
 				slideRefsNew.add(slideRef);
 			}
 		}
 		if (slideRefsNew.size() > 0) {
 			try {
-				String url = apiUrl(sessionID, false) + "GetImagesInfo";
-				URL urlResource = new URL(url);
-				HttpURLConnection con;
-				if (url.startsWith("https")) {
-					con = (HttpsURLConnection) urlResource.openConnection();
-				} else {
-					con = (HttpURLConnection) urlResource.openConnection();
+				List<Map<String, Object>> infos = loadSlidesInfo(slideRefsNew, sessionID);
+				if (infos == null) {
+					return null;
 				}
-				con.setRequestMethod("POST");
-				con.setRequestProperty("Content-Type", "application/json");
-				con.setUseCaches(true);
-				con.setDoOutput(true);
-				// we convert the list of slide to a string of this fashion :
-				// ["slide1","slide2"....]
-				String slideRefsNewForJson = slideRefsNew.stream().map(n -> ("\"" + n + "\""))
-						.collect(Collectors.joining(",", "[", "]"));
-				String input = "{ \"sessionID\": \"" + sessionID + "\", \"pathOrUids\": " + slideRefsNewForJson + "}";
-				OutputStream os = con.getOutputStream();
-				os.write(input.getBytes("UTF-8"));
-				os.close();
-				String jsonString = PMA.getJSONAsStringBuffer(con).toString();
-				if (PMA.isJSONObject(jsonString)) {
-					JSONObject jsonResponse = PMA.getJSONObjectResponse(jsonString);
-					pmaAmountOfDataDownloaded.put(sessionID,
-							pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
-					if (jsonResponse.has("Code")) {
-						if (PMA.logger != null) {
-							PMA.logger.severe("ImageInfos to " + slideRefs.toString() + " resulted in: "
-									+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)");
-						}
-						throw new Exception("ImageInfos to " + slideRefs.toString() + " resulted in: "
-								+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)");
-					} else if (jsonResponse.has("d")) {
-						JSONArray jsonArrayResponse = jsonResponse.getJSONArray("d");
-						for (int i = 0; i < jsonArrayResponse.length(); i++) {
-							// we convert the Json object to a Map<String, Object>
-							Map<String, Object> jsonMap = objectMapper
-									.readerFor(new TypeReference<Map<String, Object>>() {
-									}).with(DeserializationFeature.USE_LONG_FOR_INTS)
-									.readValue(jsonArrayResponse.getJSONObject(i).toString());
-							// we store the map created for both the slide name & the UID
-							((Map<String, Object>) pmaSlideInfos.get(sessionID))
-									.put(jsonArrayResponse.getJSONObject(i).getString("Filename"), jsonMap);
-							// ((Map<String, Object>) pmaSlideInfos.get(sessionID))
-							// .put(jsonArrayResponse.getJSONObject(i).getString("UID"), jsonMap);
-						}
-					} else {
-						return null;
-					}
-				} else {
-					JSONArray jsonArrayResponse = PMA.getJSONArrayResponse(jsonString);
-					pmaAmountOfDataDownloaded.put(sessionID,
-							pmaAmountOfDataDownloaded.get(sessionID) + jsonArrayResponse.length());
-					for (int i = 0; i < jsonArrayResponse.length(); i++) {
-						// we convert the Json object to a Map<String, Object>
-						Map<String, Object> jsonMap = objectMapper.readerFor(new TypeReference<Map<String, Object>>() {
-						}).with(DeserializationFeature.USE_LONG_FOR_INTS)
-								.readValue(jsonArrayResponse.getJSONObject(i).toString());
-						// we store the map created for both the slide name & the UID
-						((Map<String, Object>) pmaSlideInfos.get(sessionID))
-								.put(jsonArrayResponse.getJSONObject(i).getString("Filename"), jsonMap);
-						if (!sessionID.equals(pmaCoreLiteSessionID)) {
-							((Map<String, Object>) pmaSlideInfos.get(sessionID))
-									.put(jsonArrayResponse.getJSONObject(i).getString("UID"), jsonMap);
-						}
-					}
+				for (Map<String, Object> info : infos) {
+					// the cache stores the map once for both the slide name & the UID
+					slideInfoCache().put(sessionID, null, info);
 				}
 				Map<String, Map<String, Object>> results = new HashMap<String, Map<String, Object>>();
 				for (String slide : slideRefs) {
-					results.put(slide,
-							(Map<String, Object>) ((Map<String, Object>) pmaSlideInfos.get(sessionID)).get(slide));
+					results.put(slide, slideInfoCache().get(sessionID, slide));
 				}
 				return results;
 			} catch (Exception e) {
-				e.printStackTrace();
-				if (PMA.logger != null) {
-					StringWriter sw = new StringWriter();
-					e.printStackTrace(new PrintWriter(sw));
-					PMA.logger.severe(sw.toString());
-				}
+				PmaLog.error(e);
 				return null;
 			}
 		}
 		// if for all the slides, the image info data has been already stored on
-		// pmaSlideInfos
+		// the slide information cache
 		Map<String, Map<String, Object>> results = new HashMap<String, Map<String, Object>>();
 		for (String slide : slideRefs) {
-			results.put(slide, (Map<String, Object>) ((Map<String, Object>) pmaSlideInfos.get(sessionID)).get(slide));
+			results.put(slide, slideInfoCache().get(sessionID, slide));
+		}
+		return results;
+	}
+
+	/**
+	 * This method is used to retrieve raw images in the form of nested maps from
+	 * PMA.core in a single request, bypassing the slide information cache
+	 * 
+	 * @param slideRefs List of slides' path or UID
+	 * @param sessionID session's ID
+	 * @return Nested maps forming raw images, in no particular order; null if the
+	 *         response isn't understood
+	 * @throws Exception if PMA.core reports an error
+	 */
+	@SuppressWarnings("unchecked")
+	static List<Map<String, Object>> loadSlidesInfo(List<String> slideRefs, String sessionID) throws Exception {
+		String url = apiUrl(sessionID, false) + "GetImagesInfo";
+		// paths may contain backslashes or quotes, which Jackson escapes
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("sessionID", sessionID);
+		body.put("pathOrUids", slideRefs);
+		String input = jsonWriter.writeValueAsString(body);
+		// the response is decoded straight into nested maps while it is received
+		Object json = PMA.httpPostJSON(url, input, sessionID);
+		List<Object> infos;
+		if (json instanceof Map) {
+			Map<String, Object> jsonResponse = (Map<String, Object>) json;
+			if (jsonResponse.containsKey("Code")) {
+				PmaLog.severe(() -> "ImageInfos to " + slideRefs.toString() + " resulted in: "
+						+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)");
+				throw new PmaCoreException("ImageInfos to " + slideRefs.toString() + " resulted in: "
+						+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)",
+						jsonResponse.get("Code"), jsonResponse.get("Message"), slideRefs.size() > 1);
+			} else if (jsonResponse.containsKey("d")) {
+				infos = (List<Object>) jsonResponse.get("d");
+			} else {
+				return null;
+			}
+		} else {
+			infos = (List<Object>) json;
+		}
+		List<Map<String, Object>> results = new ArrayList<>();
+		for (Object info : infos) {
+			results.add((Map<String, Object>) info);
 		}
 		return results;
 	}
@@ -1534,38 +1668,22 @@ public class Core {
 		// magnification
 		Map<String, Object> info = getSlideInfo(slideRef, sessionID);
 		if (info == null) {
-			System.out.print("Unable to get information for " + slideRef + " from " + sessionID);
+			PmaLog.debug("Unable to get information for {0} from {1}", slideRef, sessionID);
 			return 0;
 		} else if (info.containsKey("MaxZoomLevel")) {
 			try {
 				return Integer.parseInt(info.get("MaxZoomLevel").toString());
 			} catch (Exception e) {
-				System.out.print("Something went wrong consulting the MaxZoomLevel key in info Map; value ="
-						+ info.get("MaxZoomLevel").toString());
-				e.printStackTrace();
-				if (PMA.logger != null) {
-					StringWriter sw = new StringWriter();
-					e.printStackTrace(new PrintWriter(sw));
-					PMA.logger.severe(sw.toString());
-					PMA.logger.severe("Something went wrong consulting the MaxZoomLevel key in info Map; value ="
-							+ info.get("MaxZoomLevel").toString());
-				}
+				PmaLog.error(() -> "Something went wrong consulting the MaxZoomLevel key in info Map; value ="
+						+ info.get("MaxZoomLevel"), e);
 				return 0;
 			}
 		} else {
 			try {
 				return Integer.parseInt(info.get("NumberOfZoomLevels").toString());
 			} catch (Exception e) {
-				System.out.print("Something went wrong consulting the NumberOfZoomLevels key in info Map; value ="
-						+ info.get("NumberOfZoomLevels").toString());
-				e.printStackTrace();
-				if (PMA.logger != null) {
-					StringWriter sw = new StringWriter();
-					e.printStackTrace(new PrintWriter(sw));
-					PMA.logger.severe(sw.toString());
-					PMA.logger.severe("Something went wrong consulting the NumberOfZoomLevels key in info Map; value ="
-							+ info.get("NumberOfZoomLevels").toString());
-				}
+				PmaLog.error(() -> "Something went wrong consulting the NumberOfZoomLevels key in info Map; value ="
+						+ info.get("NumberOfZoomLevels"), e);
 				return 0;
 			}
 		}
@@ -1595,18 +1713,14 @@ public class Core {
 		Integer minNumberOfTiles = 0;
 		if (varargs.length > 0) {
 			if (!(varargs[0] instanceof String) && varargs[0] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getZoomLevelsList() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getZoomLevelsList() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			sessionID = (String) varargs[0];
 		}
 		if (varargs.length > 1) {
 			if (!(varargs[1] instanceof Integer) && varargs[1] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getZoomLevelsList() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getZoomLevelsList() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			minNumberOfTiles = (Integer) varargs[1];
@@ -1647,18 +1761,14 @@ public class Core {
 		Integer minNumberOfTiles = 0;
 		if (varargs.length > 0) {
 			if (!(varargs[0] instanceof String) && varargs[0] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getZoomLevelsDict() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getZoomLevelsDict() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			sessionID = (String) varargs[0];
 		}
 		if (varargs.length > 1) {
 			if (!(varargs[1] instanceof Integer) && varargs[1] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getZoomLevelsDict() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getZoomLevelsDict() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			minNumberOfTiles = (Integer) varargs[1];
@@ -1712,18 +1822,14 @@ public class Core {
 		String sessionID = null;
 		if (varargs.length > 0) {
 			if (!(varargs[0] instanceof Integer) && varargs[0] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getZoomLevelsDict() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getZoomLevelsDict() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			zoomLevel = (Integer) varargs[0];
 		}
 		if (varargs.length > 1) {
 			if (!(varargs[1] instanceof String) && varargs[1] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getZoomLevelsDict() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getZoomLevelsDict() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			sessionID = (String) varargs[1];
@@ -1773,18 +1879,14 @@ public class Core {
 		String sessionID = null;
 		if (varargs.length > 0) {
 			if (!(varargs[0] instanceof Integer) && varargs[0] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getPixelDimensions() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getPixelDimensions() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			zoomLevel = (Integer) varargs[0];
 		}
 		if (varargs.length > 1) {
 			if (!(varargs[1] instanceof String) && varargs[1] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getPixelDimensions() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getPixelDimensions() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			sessionID = (String) varargs[1];
@@ -1828,18 +1930,14 @@ public class Core {
 		String sessionID = null;
 		if (varargs.length > 0) {
 			if (!(varargs[0] instanceof Integer) && varargs[0] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getNumberOfTiles() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getNumberOfTiles() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			zoomLevel = (Integer) varargs[0];
 		}
 		if (varargs.length > 1) {
 			if (!(varargs[1] instanceof String) && varargs[1] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getNumberOfTiles() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getNumberOfTiles() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			sessionID = (String) varargs[1];
@@ -2051,27 +2149,21 @@ public class Core {
 		String sessionID = null;
 		if (varargs.length > 0) {
 			if (!(varargs[0] instanceof Integer) && varargs[0] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getMagnification() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getMagnification() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			zoomLevel = (Integer) varargs[0];
 		}
 		if (varargs.length > 1) {
 			if (!(varargs[1] instanceof Boolean) && varargs[1] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getMagnification() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getMagnification() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			exact = (Boolean) varargs[1];
 		}
 		if (varargs.length > 2) {
 			if (!(varargs[2] instanceof String) && varargs[2] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getMagnification() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getMagnification() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			sessionID = (String) varargs[2];
@@ -2149,12 +2241,7 @@ public class Core {
 					+ PMA.pmaQ(slideRef);
 			return url;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 
@@ -2180,23 +2267,64 @@ public class Core {
 			slideRef = slideRef.substring(1);
 		}
 		try {
-			URL urlResource = new URL(getBarcodeUrl(slideRef, sessionID));
-			URLConnection con = urlResource.openConnection();
-			Image img = ImageIO.read(con.getInputStream());
-			pmaAmountOfDataDownloaded.put(sessionID,
-					pmaAmountOfDataDownloaded.get(sessionID) + con.getInputStream().toString().length());
-			return img;
+			byte[] data = PMA.httpGetBytes(getBarcodeUrl(slideRef, sessionID));
+			return ImageIO.read(new ByteArrayInputStream(data));
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
+			return null;
+		}
+	}
+
+	/**
+	 * This method is used to get the barcode image for a slide as PMA.core
+	 * encoded it (e.g. jpeg bytes), without decoding it into an Image. It takes
+	 * the same arguments as getBarcodeImage()
+	 * 
+	 * @param slideRef slide's path or UID
+	 * @param varargs  Array of optional arguments, see getBarcodeImage()
+	 * @return Encoded barcode image, null if it can't be retrieved
+	 */
+	public static byte[] getBarcodeBytes(String slideRef, String... varargs) {
+		String url = getBarcodeUrl(slideRef, varargs);
+		try {
+			return PMA.httpGetBytes(url);
+		} catch (Exception e) {
+			PmaLog.error(e);
 			return null;
 		}
 	}
 
+	/**
+	 * This method is used to write the barcode image for a slide, as PMA.core
+	 * encoded it, to an output stream, without buffering or decoding it. It takes
+	 * the same arguments as getBarcodeImage()
+	 * 
+	 * @param slideRef slide's path or UID
+	 * @param out      stream to write to; it is flushed but not closed
+	 * @param varargs  Array of optional arguments, see getBarcodeImage()
+	 * @return Number of bytes written
+	 * @throws Exception if the barcode image can't be retrieved or written
+	 */
+	public static long writeBarcode(String slideRef, OutputStream out, String... varargs) throws Exception {
+		return PMA.httpCopy(getBarcodeUrl(slideRef, varargs), out);
+	}
+
+	/**
+	 * This method is used to write the barcode image for a slide, as PMA.core
+	 * encoded it, to a channel (e.g. a FileChannel or a SocketChannel), without
+	 * buffering or decoding it. It takes the same arguments as getBarcodeImage()
+	 * 
+	 * @param slideRef slide's path or UID
+	 * @param channel  channel to write to; it is not closed
+	 * @param varargs  Array of optional arguments, see getBarcodeImage()
+	 * @return Number of bytes written
+	 * @throws Exception if the barcode image can't be retrieved or written
+	 */
+	public static long writeBarcode(String slideRef, WritableByteChannel channel, String... varargs)
+			throws Exception {
+		return writeBarcode(slideRef, Channels.newOutputStream(channel), varargs);
+	}
+
 	/**
 	 * This method is used to get the text encoded by the barcode
 	 * 
@@ -2221,41 +2349,22 @@ public class Core {
 		String url = apiUrl(sessionID, false) + "GetBarcodeText?sessionID=" + PMA.pmaQ(sessionID) + "&pathOrUid="
 				+ PMA.pmaQ(slideRef);
 		try {
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("GET");
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
+			String jsonString = PMA.httpGetString(url, null);
 			if (PMA.isJSONObject(jsonString)) {
 				JSONObject jsonResponse = PMA.getJSONObjectResponse(jsonString);
-				pmaAmountOfDataDownloaded.put(sessionID,
-						pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
 				if (jsonResponse.has("Code")) {
-					if (PMA.logger != null) {
-						PMA.logger.severe("get_barcode_text on " + slideRef + " resulted in: "
-								+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)");
-					}
-					throw new Exception("get_barcode_text on " + slideRef + " resulted in: "
-							+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)");
+					String message = "get_barcode_text on " + slideRef + " resulted in: "
+							+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)";
+					PmaLog.severe(() -> message);
+					throw new Exception(message);
 				} else {
 					return jsonResponse.getString("d").equals("null") ? null : jsonResponse.getString("d");
 				}
 			} else {
-				pmaAmountOfDataDownloaded.put(sessionID,
-						pmaAmountOfDataDownloaded.get(sessionID) + jsonString.length());
 				barcode = jsonString.replace("\"", "");
 			}
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 		return barcode;
@@ -2299,23 +2408,64 @@ public class Core {
 			slideRef = slideRef.substring(1);
 		}
 		try {
-			URL urlResource = new URL(getLabelUrl(slideRef, sessionID));
-			URLConnection con = urlResource.openConnection();
-			Image img = ImageIO.read(con.getInputStream());
-			pmaAmountOfDataDownloaded.put(sessionID,
-					pmaAmountOfDataDownloaded.get(sessionID) + con.getInputStream().toString().length());
-			return img;
+			byte[] data = PMA.httpGetBytes(getLabelUrl(slideRef, sessionID));
+			return ImageIO.read(new ByteArrayInputStream(data));
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
+			return null;
+		}
+	}
+
+	/**
+	 * This method is used to get the label image for a slide as PMA.core
+	 * encoded it (e.g. jpeg bytes), without decoding it into an Image. It takes
+	 * the same arguments as getLabelImage()
+	 * 
+	 * @param slideRef slide's path or UID
+	 * @param varargs  Array of optional arguments, see getLabelImage()
+	 * @return Encoded label image, null if it can't be retrieved
+	 */
+	public static byte[] getLabelBytes(String slideRef, String... varargs) {
+		String url = getLabelUrl(slideRef, varargs);
+		try {
+			return PMA.httpGetBytes(url);
+		} catch (Exception e) {
+			PmaLog.error(e);
 			return null;
 		}
 	}
 
+	/**
+	 * This method is used to write the label image for a slide, as PMA.core
+	 * encoded it, to an output stream, without buffering or decoding it. It takes
+	 * the same arguments as getLabelImage()
+	 * 
+	 * @param slideRef slide's path or UID
+	 * @param out      stream to write to; it is flushed but not closed
+	 * @param varargs  Array of optional arguments, see getLabelImage()
+	 * @return Number of bytes written
+	 * @throws Exception if the label image can't be retrieved or written
+	 */
+	public static long writeLabel(String slideRef, OutputStream out, String... varargs) throws Exception {
+		return PMA.httpCopy(getLabelUrl(slideRef, varargs), out);
+	}
+
+	/**
+	 * This method is used to write the label image for a slide, as PMA.core
+	 * encoded it, to a channel (e.g. a FileChannel or a SocketChannel), without
+	 * buffering or decoding it. It takes the same arguments as getLabelImage()
+	 * 
+	 * @param slideRef slide's path or UID
+	 * @param channel  channel to write to; it is not closed
+	 * @param varargs  Array of optional arguments, see getLabelImage()
+	 * @return Number of bytes written
+	 * @throws Exception if the label image can't be retrieved or written
+	 */
+	public static long writeLabel(String slideRef, WritableByteChannel channel, String... varargs)
+			throws Exception {
+		return writeLabel(slideRef, Channels.newOutputStream(channel), varargs);
+	}
+
 	/**
 	 * This method is used to get the URL that points to the thumbnail for a slide
 	 * 
@@ -2344,27 +2494,21 @@ public class Core {
 		Integer width = 0;
 		if (varargs.length > 0) {
 			if (!(varargs[0] instanceof String) && varargs[0] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getThumbnailUrl() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getThumbnailUrl() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			sessionID = (String) varargs[0];
 		}
 		if (varargs.length > 1) {
 			if (!(varargs[1] instanceof Integer) && varargs[1] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getThumbnailUrl() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getThumbnailUrl() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			height = (Integer) varargs[1];
 		}
 		if (varargs.length > 2) {
 			if (!(varargs[2] instanceof Integer) && varargs[2] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getThumbnailUrl() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getThumbnailUrl() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			width = (Integer) varargs[2];
@@ -2381,12 +2525,7 @@ public class Core {
 					+ ((width > 0) ? "&w=" + width.toString() : "");
 			return url;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -2419,27 +2558,21 @@ public class Core {
 		Integer width = 0;
 		if (varargs.length > 0) {
 			if (!(varargs[0] instanceof String) && varargs[0] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getThumbnailImage() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getThumbnailImage() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			sessionID = (String) varargs[0];
 		}
 		if (varargs.length > 1) {
 			if (!(varargs[1] instanceof Integer) && varargs[1] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getThumbnailImage() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getThumbnailImage() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			height = (Integer) varargs[1];
 		}
 		if (varargs.length > 2) {
 			if (!(varargs[2] instanceof Integer) && varargs[2] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getThumbnailImage() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getThumbnailImage() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			width = (Integer) varargs[2];
@@ -2451,23 +2584,64 @@ public class Core {
 		}
 		try {
 			String url = getThumbnailUrl(slideRef, sessionID, height, width);
-			URL urlResource = new URL(url);
-			URLConnection con = urlResource.openConnection();
-			Image img = ImageIO.read(con.getInputStream());
-			pmaAmountOfDataDownloaded.put(sessionID,
-					pmaAmountOfDataDownloaded.get(sessionID) + con.getInputStream().toString().length());
-			return img;
+			byte[] data = PMA.httpGetBytes(url);
+			return ImageIO.read(new ByteArrayInputStream(data));
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
 
+	/**
+	 * This method is used to get the thumbnail image for a slide as PMA.core
+	 * encoded it (e.g. jpeg bytes), without decoding it into an Image. It takes
+	 * the same arguments as getThumbnailImage()
+	 * 
+	 * @param slideRef slide's path or UID
+	 * @param varargs  Array of optional arguments, see getThumbnailImage()
+	 * @return Encoded thumbnail image, null if it can't be retrieved
+	 */
+	public static byte[] getThumbnailBytes(String slideRef, Object... varargs) {
+		String url = getThumbnailUrl(slideRef, varargs);
+		try {
+			return PMA.httpGetBytes(url);
+		} catch (Exception e) {
+			PmaLog.error(e);
+			return null;
+		}
+	}
+
+	/**
+	 * This method is used to write the thumbnail image for a slide, as PMA.core
+	 * encoded it, to an output stream, without buffering or decoding it. It takes
+	 * the same arguments as getThumbnailImage()
+	 * 
+	 * @param slideRef slide's path or UID
+	 * @param out      stream to write to; it is flushed but not closed
+	 * @param varargs  Array of optional arguments, see getThumbnailImage()
+	 * @return Number of bytes written
+	 * @throws Exception if the thumbnail image can't be retrieved or written
+	 */
+	public static long writeThumbnail(String slideRef, OutputStream out, Object... varargs) throws Exception {
+		return PMA.httpCopy(getThumbnailUrl(slideRef, varargs), out);
+	}
+
+	/**
+	 * This method is used to write the thumbnail image for a slide, as PMA.core
+	 * encoded it, to a channel (e.g. a FileChannel or a SocketChannel), without
+	 * buffering or decoding it. It takes the same arguments as getThumbnailImage()
+	 * 
+	 * @param slideRef slide's path or UID
+	 * @param channel  channel to write to; it is not closed
+	 * @param varargs  Array of optional arguments, see getThumbnailImage()
+	 * @return Number of bytes written
+	 * @throws Exception if the thumbnail image can't be retrieved or written
+	 */
+	public static long writeThumbnail(String slideRef, WritableByteChannel channel, Object... varargs)
+			throws Exception {
+		return writeThumbnail(slideRef, Channels.newOutputStream(channel), varargs);
+	}
+
 	/**
 	 * This method is used to create the url to retrieve a single tile at position
 	 * (x, y)
@@ -2517,63 +2691,49 @@ public class Core {
 		Integer quality = 100;
 		if (varargs.length > 0) {
 			if (!(varargs[0] instanceof Integer) && varargs[0] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTile() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTile() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			x = (Integer) varargs[0];
 		}
 		if (varargs.length > 1) {
 			if (!(varargs[1] instanceof Integer) && varargs[1] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTile() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTile() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			y = (Integer) varargs[1];
 		}
 		if (varargs.length > 2) {
 			if (!(varargs[2] instanceof Integer) && varargs[2] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTile() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTile() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			zoomLevel = (Integer) varargs[2];
 		}
 		if (varargs.length > 3) {
 			if (!(varargs[3] instanceof Integer) && varargs[3] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTile() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTile() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			zStack = (Integer) varargs[3];
 		}
 		if (varargs.length > 4) {
 			if (!(varargs[4] instanceof String) && varargs[4] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTile() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTile() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			sessionID = (String) varargs[4];
 		}
 		if (varargs.length > 5) {
 			if (!(varargs[5] instanceof String) && varargs[5] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTile() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTile() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			format = (String) varargs[5];
 		}
 		if (varargs.length > 6) {
 			if (!(varargs[6] instanceof Integer) && varargs[6] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTile() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTile() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			quality = (Integer) varargs[6];
@@ -2593,10 +2753,9 @@ public class Core {
 		String url;
 		url = pmaUrl(sessionID);
 		if (url == null) {
-			if (PMA.logger != null) {
-				PMA.logger.severe("Unable to determine the PMA.core instance belonging to " + sessionID);
-			}
-			throw new Exception("Unable to determine the PMA.core instance belonging to " + sessionID);
+			String message = "Unable to determine the PMA.core instance belonging to " + sessionID;
+			PmaLog.severe(() -> message);
+			throw new Exception(message);
 		}
 		try {
 			url += "tile" + "?SessionID=" + PMA.pmaQ(sessionID) + "&channels=" + PMA.pmaQ("0") + "&layer="
@@ -2606,12 +2765,7 @@ public class Core {
 					+ pmaUseCacheWhenRetrievingTiles.toString().toLowerCase();
 			return url;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -2664,63 +2818,49 @@ public class Core {
 		Integer quality = 100;
 		if (varargs.length > 0) {
 			if (!(varargs[0] instanceof Integer) && varargs[0] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTile() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTile() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			x = (Integer) varargs[0];
 		}
 		if (varargs.length > 1) {
 			if (!(varargs[1] instanceof Integer) && varargs[1] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTile() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTile() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			y = (Integer) varargs[1];
 		}
 		if (varargs.length > 2) {
 			if (!(varargs[2] instanceof Integer) && varargs[2] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTile() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTile() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			zoomLevel = (Integer) varargs[2];
 		}
 		if (varargs.length > 3) {
 			if (!(varargs[3] instanceof Integer) && varargs[3] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTile() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTile() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			zStack = (Integer) varargs[3];
 		}
 		if (varargs.length > 4) {
 			if (!(varargs[4] instanceof String) && varargs[4] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTile() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTile() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			sessionID = (String) varargs[4];
 		}
 		if (varargs.length > 5) {
 			if (!(varargs[5] instanceof String) && varargs[5] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTile() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTile() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			format = (String) varargs[5];
 		}
 		if (varargs.length > 6) {
 			if (!(varargs[6] instanceof Integer) && varargs[6] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTile() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTile() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			quality = (Integer) varargs[6];
@@ -2739,23 +2879,133 @@ public class Core {
 		}
 		try {
 			String url = getTileUrl(slideRef, x, y, zoomLevel, zStack, sessionID, format, quality);
-			URL urlResource = new URL(url);
-			URLConnection con = urlResource.openConnection();
-			Image img = ImageIO.read(con.getInputStream());
-			pmaAmountOfDataDownloaded.put(sessionID,
-					pmaAmountOfDataDownloaded.get(sessionID) + con.getInputStream().toString().length());
-			return img;
+			byte[] data = tileBytes(url, slideRef, x, y, zoomLevel, zStack, sessionID, format, quality);
+			return ImageIO.read(new ByteArrayInputStream(data));
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
+			return null;
+		}
+	}
+
+	/**
+	 * This method is used to get a single tile at position (x, y) without blocking
+	 * the calling thread. It takes the same arguments as getTile() and runs on the
+	 * executor returned by getAsyncExecutor()
+	 * 
+	 * @param slideRef slide's path or UID
+	 * @param varargs  Array of optional arguments, see getTile()
+	 * @return Future completed with the tile, or exceptionally when getTile()
+	 *         throws
+	 */
+	public static CompletableFuture<Image> getTileAsync(final String slideRef, final Object... varargs) {
+		return async(() -> getTile(slideRef, varargs));
+	}
+
+	/**
+	 * This method is used to get the encoded tile as returned by PMA.core,
+	 * without decoding it into an Image. It takes the same arguments as
+	 * getTile()
+	 * 
+	 * @param slideRef slide's path or UID
+	 * @param varargs  Array of optional arguments, see getTile()
+	 * @return Encoded tile (e.g. jpeg bytes), null if it can't be retrieved
+	 * @throws Exception if unable to determine the PMA.core instance the session ID
+	 *                   belongs to
+	 */
+	public static byte[] getTileBytes(String slideRef, Object... varargs) throws Exception {
+		int x = argument("getTileBytes", varargs, 0, Integer.class, 0);
+		int y = argument("getTileBytes", varargs, 1, Integer.class, 0);
+		int zoomLevel = argument("getTileBytes", varargs, 2, Integer.class, 0);
+		int zStack = argument("getTileBytes", varargs, 3, Integer.class, 0);
+		String sessionID = sessionIdArgument("getTileBytes", varargs, 4);
+		String format = argument("getTileBytes", varargs, 5, String.class, "jpg");
+		Integer quality = argument("getTileBytes", varargs, 6, Integer.class, 100);
+		if (slideRef.startsWith("/")) {
+			slideRef = slideRef.substring(1);
+		}
+		String url = getTileUrl(slideRef, x, y, zoomLevel, zStack, sessionID, format, quality);
+		try {
+			return tileBytes(url, slideRef, x, y, zoomLevel, zStack, sessionID, format, quality);
+		} catch (Exception e) {
+			PmaLog.error(e);
 			return null;
 		}
 	}
 
+	/**
+	 * This method is used to get the encoded tile as returned by PMA.core, telling
+	 * apart a tile that doesn't exist from a request that failed (where
+	 * getTileBytes() returns null in both cases). It takes the same arguments as
+	 * getTile()
+	 * 
+	 * @param slideRef slide's path or UID
+	 * @param varargs  Array of optional arguments, see getTile()
+	 * @return Result holding the encoded tile (e.g. jpeg bytes)
+	 */
+	public static PmaResult<byte[]> getTileBytesResult(String slideRef, Object... varargs) {
+		return PmaResult.of(() -> {
+			int x = argument("getTileBytesResult", varargs, 0, Integer.class, 0);
+			int y = argument("getTileBytesResult", varargs, 1, Integer.class, 0);
+			int zoomLevel = argument("getTileBytesResult", varargs, 2, Integer.class, 0);
+			int zStack = argument("getTileBytesResult", varargs, 3, Integer.class, 0);
+			String sessionID = sessionIdArgument("getTileBytesResult", varargs, 4);
+			String format = argument("getTileBytesResult", varargs, 5, String.class, "jpg");
+			Integer quality = argument("getTileBytesResult", varargs, 6, Integer.class, 100);
+			String path = slideRef.startsWith("/") ? slideRef.substring(1) : slideRef;
+			String url = getTileUrl(path, x, y, zoomLevel, zStack, sessionID, format, quality);
+			return tileBytes(url, path, x, y, zoomLevel, zStack, sessionID, format, quality);
+		});
+	}
+
+	/**
+	 * This method is used to stream the encoded tile as returned by PMA.core to
+	 * an output stream, without buffering or decoding it. It takes the same
+	 * arguments as getTile()
+	 * 
+	 * @param slideRef slide's path or UID
+	 * @param out      stream to write to; it is flushed but not closed
+	 * @param varargs  Array of optional arguments, see getTile()
+	 * @return Number of bytes written
+	 * @throws Exception if the tile can't be retrieved or written
+	 */
+	public static long writeTile(String slideRef, OutputStream out, Object... varargs) throws Exception {
+		if (getDiskTileCache() == null) {
+			return PMA.httpCopy(getTileUrl(slideRef, varargs), out);
+		}
+		// the local tile cache needs the whole tile anyway
+		String sessionID = sessionIdArgument("writeTile", varargs, 4);
+		int x = argument("writeTile", varargs, 0, Integer.class, 0);
+		int y = argument("writeTile", varargs, 1, Integer.class, 0);
+		int zoomLevel = argument("writeTile", varargs, 2, Integer.class, 0);
+		int zStack = argument("writeTile", varargs, 3, Integer.class, 0);
+		String format = argument("writeTile", varargs, 5, String.class, "jpg");
+		Integer quality = argument("writeTile", varargs, 6, Integer.class, 100);
+		if (slideRef.startsWith("/")) {
+			slideRef = slideRef.substring(1);
+		}
+		String url = getTileUrl(slideRef, x, y, zoomLevel, zStack, sessionID, format, quality);
+		byte[] data = tileBytes(url, slideRef, x, y, zoomLevel, zStack, sessionID, format, quality);
+		out.write(data);
+		out.flush();
+		return data.length;
+	}
+
+	/**
+	 * This method is used to stream the encoded tile as returned by PMA.core to
+	 * a channel (e.g. a FileChannel or a SocketChannel), without buffering or
+	 * decoding it. It takes the same arguments as getTile()
+	 * 
+	 * @param slideRef slide's path or UID
+	 * @param channel  channel to write to; it is not closed
+	 * @param varargs  Array of optional arguments, see getTile()
+	 * @return Number of bytes written
+	 * @throws Exception if the tile can't be retrieved or written
+	 */
+	public static long writeTile(String slideRef, WritableByteChannel channel, Object... varargs)
+			throws Exception {
+		return writeTile(slideRef, Channels.newOutputStream(channel), varargs);
+	}
+
 	/**
 	 * Gets a region of the slide at the specified scale Format can be 'jpg' or
 	 * 'png' Quality is an integer value and varies from 0 (as much compression as
@@ -2856,9 +3106,7 @@ public class Core {
 		String sessionID = null;
 		if (varargs.length > 5) {
 			if (!(varargs[5] instanceof String) && varargs[5] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getRegion() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getRegion() : Invalid argument");
 				throw new IllegalArgumentException("Invalid sessionID");
 			}
 			sessionID = (String) varargs[5];
@@ -2871,23 +3119,79 @@ public class Core {
 
 		try {
 			String url = getRegionUrl(slideRef, varargs);
-			URL urlResource = new URL(url);
-			URLConnection con = urlResource.openConnection();
-			Image img = ImageIO.read(con.getInputStream());
-			pmaAmountOfDataDownloaded.put(sessionID,
-					pmaAmountOfDataDownloaded.get(sessionID) + con.getInputStream().toString().length());
-			return img;
+			byte[] data = PMA.httpGetBytes(url);
+			return ImageIO.read(new ByteArrayInputStream(data));
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
+			return null;
+		}
+	}
+
+	/**
+	 * This method is used to get a region of the slide without blocking the calling
+	 * thread. It takes the same arguments as getRegion() and runs on the executor
+	 * returned by getAsyncExecutor()
+	 * 
+	 * @param slideRef slide's path or UID
+	 * @param varargs  Array of optional arguments, see getRegion()
+	 * @return Future completed with the region
+	 */
+	public static CompletableFuture<Image> getRegionAsync(final String slideRef, final Object... varargs) {
+		return async(() -> getRegion(slideRef, varargs));
+	}
+
+	/**
+	 * This method is used to get the encoded region as returned by PMA.core,
+	 * without decoding it into an Image. It takes the same arguments as
+	 * getRegion()
+	 * 
+	 * @param slideRef slide's path or UID
+	 * @param varargs  Array of optional arguments, see getRegion()
+	 * @return Encoded region (e.g. jpeg bytes), null if it can't be retrieved
+	 * @throws Exception if unable to determine the PMA.core instance the session ID
+	 *                   belongs to
+	 */
+	public static byte[] getRegionBytes(String slideRef, Object... varargs) throws Exception {
+		String url = getRegionUrl(slideRef, varargs);
+		try {
+			return PMA.httpGetBytes(url);
+		} catch (Exception e) {
+			PmaLog.error(e);
 			return null;
 		}
 	}
 
+	/**
+	 * This method is used to stream the encoded region as returned by PMA.core to
+	 * an output stream, without buffering or decoding it. It takes the same
+	 * arguments as getRegion()
+	 * 
+	 * @param slideRef slide's path or UID
+	 * @param out      stream to write to; it is flushed but not closed
+	 * @param varargs  Array of optional arguments, see getRegion()
+	 * @return Number of bytes written
+	 * @throws Exception if the region can't be retrieved or written
+	 */
+	public static long writeRegion(String slideRef, OutputStream out, Object... varargs) throws Exception {
+		return PMA.httpCopy(getRegionUrl(slideRef, varargs), out);
+	}
+
+	/**
+	 * This method is used to stream the encoded region as returned by PMA.core to
+	 * a channel (e.g. a FileChannel or a SocketChannel), without buffering or
+	 * decoding it. It takes the same arguments as getRegion()
+	 * 
+	 * @param slideRef slide's path or UID
+	 * @param channel  channel to write to; it is not closed
+	 * @param varargs  Array of optional arguments, see getRegion()
+	 * @return Number of bytes written
+	 * @throws Exception if the region can't be retrieved or written
+	 */
+	public static long writeRegion(String slideRef, WritableByteChannel channel, Object... varargs)
+			throws Exception {
+		return writeRegion(slideRef, Channels.newOutputStream(channel), varargs);
+	}
+
 	/**
 	 * This method is used to create the url to retrieve a region of the slide at
 	 * the specified scale (x,y,width,height)
@@ -3011,180 +3315,140 @@ public class Core {
 
 		if (varargs.length > 0) {
 			if (!(varargs[0] instanceof Integer) && varargs[0] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getRegion(): Invalid argument, X is required");
-				}
+				PmaLog.severe(() -> "getRegion(): Invalid argument, X is required");
 				throw new IllegalArgumentException("X is required");
 			}
 			x = (Integer) varargs[0];
 		}
 		if (varargs.length > 1) {
 			if (!(varargs[1] instanceof Integer) && varargs[1] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getRegion():  Invalid argument, Y is required");
-				}
+				PmaLog.severe(() -> "getRegion():  Invalid argument, Y is required");
 				throw new IllegalArgumentException("Y is required");
 			}
 			y = (Integer) varargs[1];
 		}
 		if (varargs.length > 2) {
 			if (!(varargs[2] instanceof Integer) && varargs[2] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getRegion(): Invalid argument, width is required");
-				}
+				PmaLog.severe(() -> "getRegion(): Invalid argument, width is required");
 				throw new IllegalArgumentException("Width is required");
 			}
 			width = (Integer) varargs[2];
 		}
 		if (varargs.length > 3) {
 			if (!(varargs[3] instanceof Integer) && varargs[3] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getRegion(): Invalid argument, height is required");
-				}
+				PmaLog.severe(() -> "getRegion(): Invalid argument, height is required");
 				throw new IllegalArgumentException("Height is required");
 			}
 			height = (Integer) varargs[3];
 		}
 		if (varargs.length > 4) {
 			if (!(varargs[4] instanceof Integer) && varargs[4] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getRegion(): Invalid argument, zStack is required");
-				}
+				PmaLog.severe(() -> "getRegion(): Invalid argument, zStack is required");
 				throw new IllegalArgumentException("ZStack is required");
 			}
 			zStack = (Integer) varargs[4];
 		}
 		if (varargs.length > 5) {
 			if (!(varargs[5] instanceof String) && varargs[5] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getRegion(): Invalid argument, invalid sessionId");
-				}
+				PmaLog.severe(() -> "getRegion(): Invalid argument, invalid sessionId");
 				throw new IllegalArgumentException("Invalid session id");
 			}
 			sessionID = (String) varargs[5];
 		}
 		if (varargs.length > 6) {
 			if (!(varargs[6] instanceof String) && varargs[6] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getRegion(): Invalid argument, invalid format parameter");
-				}
+				PmaLog.severe(() -> "getRegion(): Invalid argument, invalid format parameter");
 				throw new IllegalArgumentException("Invalid format parameter");
 			}
 			format = (String) varargs[6];
 		}
 		if (varargs.length > 7) {
 			if (!(varargs[7] instanceof Integer) && varargs[7] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getRegion(): Invalid argument, invalid quality parameter");
-				}
+				PmaLog.severe(() -> "getRegion(): Invalid argument, invalid quality parameter");
 				throw new IllegalArgumentException("Invalid quality parameter");
 			}
 			quality = (Integer) varargs[7];
 		}
 		if (varargs.length > 8) {
 			if (!(varargs[8] instanceof Integer) && varargs[8] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getRegion(): Invalid argument, invalid rotation parameter");
-				}
+				PmaLog.severe(() -> "getRegion(): Invalid argument, invalid rotation parameter");
 				throw new IllegalArgumentException("Invalid rotation parameter");
 			}
 			rotation = (Integer) varargs[8];
 		}
 		if (varargs.length > 9) {
 			if (!(varargs[9] instanceof Integer) && varargs[9] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getRegion(): Invalid argument constrast");
-				}
+				PmaLog.severe(() -> "getRegion(): Invalid argument constrast");
 				throw new IllegalArgumentException("Invalid contrast parameter");
 			}
 			contrast = (Integer) varargs[9];
 		}
 		if (varargs.length > 10) {
 			if (!(varargs[10] instanceof Integer) && varargs[10] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getRegion(): Invalid argument brightness");
-				}
+				PmaLog.severe(() -> "getRegion(): Invalid argument brightness");
 				throw new IllegalArgumentException("Invalid brightness parameter");
 			}
 			brightness = (Integer) varargs[10];
 		}
 		if (varargs.length > 11) {
 			if (!(varargs[11] instanceof Integer) && varargs[11] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getRegion(): Invalid argument postGamma");
-				}
+				PmaLog.severe(() -> "getRegion(): Invalid argument postGamma");
 				throw new IllegalArgumentException("Invalid post gamma parameter.");
 			}
 			postGamma = (Integer) varargs[11];
 		}
 		if (varargs.length > 12) {
 			if (!(varargs[12] instanceof Integer) && varargs[12] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getRegion(): Invalid argument dpi");
-				}
+				PmaLog.severe(() -> "getRegion(): Invalid argument dpi");
 				throw new IllegalArgumentException("Invalid dpi parameter");
 			}
 			dpi = (Integer) varargs[12];
 		}
 		if (varargs.length > 13) {
 			if (!(varargs[13] instanceof Boolean) && varargs[13] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getRegion(): Invalid argument flipVertical");
-				}
+				PmaLog.severe(() -> "getRegion(): Invalid argument flipVertical");
 				throw new IllegalArgumentException(" Invalid paramter flipVertical");
 			}
 			flipVertical = (Boolean) varargs[13];
 		}
 		if (varargs.length > 14) {
 			if (!(varargs[14] instanceof Boolean) && varargs[14] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getRegion(): Invalid argument flipHorizontal");
-				}
+				PmaLog.severe(() -> "getRegion(): Invalid argument flipHorizontal");
 				throw new IllegalArgumentException("Invalid argument flipHorizontal");
 			}
 			flipHorizontal = (Boolean) varargs[14];
 		}
 		if (varargs.length > 15) {
 			if (!(varargs[15] instanceof String) && varargs[15] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getRegion(): Invalid argument annotationsLayerType");
-				}
+				PmaLog.severe(() -> "getRegion(): Invalid argument annotationsLayerType");
 				throw new IllegalArgumentException("Invalid argument annotationsLayerType");
 			}
 			annotationsLayerType = (String) varargs[15];
 		}
 		if (varargs.length > 16) {
 			if (!(varargs[16] instanceof Integer) && varargs[16] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getRegion(): Invalid argument drawFilename");
-				}
+				PmaLog.severe(() -> "getRegion(): Invalid argument drawFilename");
 				throw new IllegalArgumentException("Invalid argument drawFilename");
 			}
 			drawFilename = (Integer) varargs[16];
 		}
 		if (varargs.length > 17) {
 			if (!(varargs[17] instanceof Boolean) && varargs[17] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getRegion(): Invalid argument downloadInsteadOfDisplay");
-				}
+				PmaLog.severe(() -> "getRegion(): Invalid argument downloadInsteadOfDisplay");
 				throw new IllegalArgumentException("Invalid argument downloadInsteadOfDisplay");
 			}
 			downloadInsteadOfDisplay = (Boolean) varargs[17];
 		}
 		if (varargs.length > 18) {
 			if (!(varargs[18] instanceof Boolean) && varargs[18] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getRegion(): Invalid argument drawScaleBar");
-				}
+				PmaLog.severe(() -> "getRegion(): Invalid argument drawScaleBar");
 				throw new IllegalArgumentException("Invalid argument drawScaleBar");
 			}
 			drawScaleBar = (Boolean) varargs[18];
 		}
 		if (varargs.length > 19) {
 			if (!(varargs[19] instanceof ArrayList) && varargs[19] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getRegion(): Invalid argument gamma");
-				}
+				PmaLog.severe(() -> "getRegion(): Invalid argument gamma");
 				throw new IllegalArgumentException("Invalid argument gamma");
 			}
 
@@ -3192,9 +3456,7 @@ public class Core {
 		}
 		if (varargs.length > 20) {
 			if (!(varargs[20] instanceof ArrayList) && varargs[20] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getRegion(): Invalid argument channelClipping");
-				}
+				PmaLog.severe(() -> "getRegion(): Invalid argument channelClipping");
 				throw new IllegalArgumentException("Invalid argument channelClipping");
 			}
 			channelClipping = String.join(",", (List<String>) varargs[19]);
@@ -3208,10 +3470,9 @@ public class Core {
 		String url;
 		url = pmaUrl(sessionID);
 		if (url == null) {
-			if (PMA.logger != null) {
-				PMA.logger.severe("Unable to determine the PMA.core instance belonging to " + sessionID);
-			}
-			throw new Exception("Unable to determine the PMA.core instance belonging to " + sessionID);
+			String message = "Unable to determine the PMA.core instance belonging to " + sessionID;
+			PmaLog.severe(() -> message);
+			throw new Exception(message);
 		}
 		try {
 			url += "region" + "?SessionID=" + PMA.pmaQ(sessionID) + "&channels=" + PMA.pmaQ("0") + "&layer="
@@ -3228,12 +3489,7 @@ public class Core {
 					+ PMA.pmaQ(channelClipping) + "&cache=" + pmaUseCacheWhenRetrievingTiles.toString().toLowerCase();
 			return url;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -3280,10 +3536,11 @@ public class Core {
 	 *                 quality : Ninth optional argument(Integer), default
 	 *                 value(100), quality
 	 *                 </p>
-	 * @return All tiles with a (fromX, fromY, toX, toY) rectangle
+	 * @return All tiles with a (fromX, fromY, toX, toY) rectangle; a tile that
+	 *         couldn't be retrieved, or wasn't requested because the thread's
+	 *         Deadline expired, is null
 	 */
-	@SuppressWarnings({ "unchecked", "rawtypes" })
-	public static Stream getTiles(String slideRef, Object... varargs) {
+	public static Stream<Image> getTiles(String slideRef, Object... varargs) {
 		// setting the default values when arguments' values are omitted
 		Integer fromX = 0;
 		Integer fromY = 0;
@@ -3296,81 +3553,63 @@ public class Core {
 		Integer quality = 100;
 		if (varargs.length > 0) {
 			if (!(varargs[0] instanceof Integer) && varargs[0] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTiles() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTiles() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			fromX = (Integer) varargs[0];
 		}
 		if (varargs.length > 1) {
 			if (!(varargs[1] instanceof Integer) && varargs[1] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTiles() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTiles() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			fromY = (Integer) varargs[1];
 		}
 		if (varargs.length > 2) {
 			if (!(varargs[2] instanceof Integer) && varargs[2] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTiles() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTiles() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			toX = (Integer) varargs[2];
 		}
 		if (varargs.length > 3) {
 			if (!(varargs[3] instanceof Integer) && varargs[3] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTiles() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTiles() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			toY = (Integer) varargs[3];
 		}
 		if (varargs.length > 4) {
 			if (!(varargs[4] instanceof Integer) && varargs[4] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTiles() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTiles() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			zoomLevel = (Integer) varargs[4];
 		}
 		if (varargs.length > 5) {
 			if (!(varargs[5] instanceof Integer) && varargs[5] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTiles() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTiles() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			zStack = (Integer) varargs[5];
 		}
 		if (varargs.length > 6) {
 			if (!(varargs[6] instanceof String) && varargs[6] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTiles() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTiles() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			sessionID = (String) varargs[6];
 		}
 		if (varargs.length > 7) {
 			if (!(varargs[7] instanceof String) && varargs[7] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTiles() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTiles() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			format = (String) varargs[7];
 		}
 		if (varargs.length > 8) {
 			if (!(varargs[8] instanceof Integer) && varargs[8] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("getTiles() : Invalid argument");
-				}
+				PmaLog.severe(() -> "getTiles() : Invalid argument");
 				throw new IllegalArgumentException("...");
 			}
 			quality = (Integer) varargs[8];
@@ -3394,46 +3633,17 @@ public class Core {
 		if (toY == null) {
 			toY = getNumberOfTiles(slideRef, zoomLevel, sessionID).get((1));
 		}
-		// we declare final variable to use them in the enclosing scope for new
-		// Supplier()
-		final int varFromX = fromX;
-		final int varToX = toX;
-		final int varFromY = fromY;
-		final int varToY = toY;
-		final int varZoomLevel = zoomLevel;
-		final int varZStack = zStack;
-		final String varSessionID = sessionID;
-		final String varSlideRef = slideRef;
-		final String varFormat = format;
-		final Integer varQualty = quality;
-		// we use Stream to simulate the behavior of "yield" in Python
-		return Stream.generate(new Supplier() {
-			int x = varFromX;
-			int y = varFromY - 1;
-
-			@Override
-			public Image get() {
-				if (x <= varToX) {
-					if (y < varToY) {
-						y++;
-					} else {
-						y = varFromY - 1;
-						x++;
+		// the spliterator splits the rectangle in halves, so the stream can safely
+		// be turned into a parallel one
+		return StreamSupport
+				.stream(new TileSpliterator(slideRef, fromX, fromY, toX, toY, zoomLevel, zStack, sessionID, format,
+						quality), false)
+				.map(tile -> {
+					if (tile.getError() != null) {
+						PmaLog.error(tile.getError());
 					}
-				}
-				try {
-					return getTile(varSlideRef, x, y, varZoomLevel, varZStack, varSessionID, varFormat, varQualty);
-				} catch (Exception e) {
-					e.printStackTrace();
-					if (PMA.logger != null) {
-						StringWriter sw = new StringWriter();
-						e.printStackTrace(new PrintWriter(sw));
-						PMA.logger.severe(sw.toString());
-					}
-					return null;
-				}
-			}
-		}).limit((varToX - varFromX + 1) * (varToY - varFromY + 1));
+					return tile.getImage();
+				});
 	}
 
 	/**
@@ -3461,34 +3671,20 @@ public class Core {
 		Map<String, String> forms = new HashMap<>();
 		Map<String, String> allForms = getAvailableForms(slideRef, sessionID);
 		try {
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("GET");
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
+			String jsonString = PMA.httpGetString(url, null);
 			if (jsonString != null && jsonString.length() > 0) {
 				if (PMA.isJSONObject(jsonString)) {
 					JSONObject jsonResponse = PMA.getJSONObjectResponse(jsonString);
-					pmaAmountOfDataDownloaded.put(sessionID,
-							pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
 					if (jsonResponse.has("Code")) {
-						if (PMA.logger != null) {
-							PMA.logger.severe("getSubmittedForms on  " + slideRef + " resulted in: "
-									+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)");
-						}
-						throw new Exception("getSubmittedForms on  " + slideRef + " resulted in: "
-								+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)");
+						String message = "getSubmittedForms on  " + slideRef + " resulted in: "
+								+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)";
+						PmaLog.severe(() -> message);
+						throw new Exception(message);
 					} else {
 						forms = null;
 					}
 				} else {
 					JSONArray jsonResponse = PMA.getJSONArrayResponse(jsonString);
-					pmaAmountOfDataDownloaded.put(sessionID,
-							pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
 					for (int i = 0; i < jsonResponse.length(); i++) {
 						if (!forms.containsKey(jsonResponse.optJSONObject(i).get("FormID").toString())
 								&& allForms != null) {
@@ -3504,12 +3700,7 @@ public class Core {
 				forms = null;
 			}
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 		return forms;
@@ -3538,34 +3729,20 @@ public class Core {
 		String url = apiUrl(sessionID, false) + "GetFormSubmissions?sessionID=" + PMA.pmaQ(sessionID) + "&pathOrUids="
 				+ PMA.pmaQ(slideRef);
 		try {
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("GET");
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
+			String jsonString = PMA.httpGetString(url, null);
 			if (jsonString != null && jsonString.length() > 0) {
 				if (PMA.isJSONObject(jsonString)) {
 					JSONObject jsonResponse = PMA.getJSONObjectResponse(jsonString);
-					pmaAmountOfDataDownloaded.put(sessionID,
-							pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
 					if (jsonResponse.has("Code")) {
-						if (PMA.logger != null) {
-							PMA.logger.severe("getSubmittedFormData on  " + slideRef + " resulted in: "
-									+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)");
-						}
-						throw new Exception("getSubmittedFormData on  " + slideRef + " resulted in: "
-								+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)");
+						String message = "getSubmittedFormData on  " + slideRef + " resulted in: "
+								+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)";
+						PmaLog.severe(() -> message);
+						throw new Exception(message);
 					} else {
 						data = null;
 					}
 				} else {
 					JSONArray jsonResponse = PMA.getJSONArrayResponse(jsonString);
-					pmaAmountOfDataDownloaded.put(sessionID,
-							pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
 					data = jsonResponse;
 				}
 				// should probably do some post-processing here, but unsure what that would
@@ -3574,12 +3751,7 @@ public class Core {
 				data = null;
 			}
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 		return data;
@@ -3610,32 +3782,18 @@ public class Core {
 		Map<String, String> formDef = new HashMap<>();
 		String url = apiUrl(sessionID, false) + "GetFormDefinitions?sessionID=" + PMA.pmaQ(sessionID);
 		try {
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("GET");
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
+			String jsonString = PMA.httpGetString(url, null);
 			if (jsonString != null && jsonString.length() > 0) {
 				if (PMA.isJSONObject(jsonString)) {
 					JSONObject jsonResponse = PMA.getJSONObjectResponse(jsonString);
-					pmaAmountOfDataDownloaded.put(sessionID,
-							pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
 					if (jsonResponse.has("Code")) {
-						if (PMA.logger != null) {
-							PMA.logger.severe("" + jsonResponse.get("Message") + "");
-						}
+						PmaLog.severe(() -> "" + jsonResponse.get("Message") + "");
 						throw new Exception("" + jsonResponse.get("Message") + "");
 					} else {
 						formDef = null;
 					}
 				} else {
 					JSONArray jsonResponse = PMA.getJSONArrayResponse(jsonString);
-					pmaAmountOfDataDownloaded.put(sessionID,
-							pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
 					for (int i = 0; i < jsonResponse.length(); i++) {
 						if ((jsonResponse.optJSONObject(i).get("FormID").toString().equals(formID))
 								|| (jsonResponse.optJSONObject(i).get("FormName").toString().equals(formID))) {
@@ -3652,12 +3810,7 @@ public class Core {
 				formDef = null;
 			}
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 		return formDef;
@@ -3699,34 +3852,20 @@ public class Core {
 			url = apiUrl(sessionID, false) + "GetForms?sessionID=" + PMA.pmaQ(sessionID);
 		}
 		try {
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("GET");
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
+			String jsonString = PMA.httpGetString(url, null);
 			if (jsonString != null && jsonString.length() > 0) {
 				if (PMA.isJSONObject(jsonString)) {
 					JSONObject jsonResponse = PMA.getJSONObjectResponse(jsonString);
-					pmaAmountOfDataDownloaded.put(sessionID,
-							pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
 					if (jsonResponse.has("Code")) {
-						if (PMA.logger != null) {
-							PMA.logger.severe("getAvailableForms on  " + slideRef + " resulted in: "
-									+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)");
-						}
-						throw new Exception("getAvailableForms on  " + slideRef + " resulted in: "
-								+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)");
+						String message = "getAvailableForms on  " + slideRef + " resulted in: "
+								+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)";
+						PmaLog.severe(() -> message);
+						throw new Exception(message);
 					} else {
 						forms = null;
 					}
 				} else {
 					JSONArray jsonResponse = PMA.getJSONArrayResponse(jsonString);
-					pmaAmountOfDataDownloaded.put(sessionID,
-							pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
 					for (int i = 0; i < jsonResponse.length(); i++) {
 						forms.put(jsonResponse.optJSONObject(i).get("Key").toString(),
 								jsonResponse.optJSONObject(i).getString("Value"));
@@ -3736,12 +3875,7 @@ public class Core {
 				forms = null;
 			}
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 		return forms;
@@ -3792,51 +3926,45 @@ public class Core {
 		String url = apiUrl(sessionID, false) + "GetAnnotations?sessionID=" + PMA.pmaQ(sessionID) + "&pathOrUid="
 				+ PMA.pmaQ(slideRef);
 		try {
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("GET");
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
+			String jsonString = PMA.httpGetString(url, null);
 			if (jsonString != null && jsonString.length() > 0) {
 				if (PMA.isJSONObject(jsonString)) {
 					JSONObject jsonResponse = PMA.getJSONObjectResponse(jsonString);
-					pmaAmountOfDataDownloaded.put(sessionID,
-							pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
 					if (jsonResponse.has("Code")) {
-						if (PMA.logger != null) {
-							PMA.logger.severe("getAnnotations() on  " + slideRef + " resulted in: "
-									+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)");
-						}
-						throw new Exception("getAnnotations() on  " + slideRef + " resulted in: "
-								+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)");
+						String message = "getAnnotations() on  " + slideRef + " resulted in: "
+								+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)";
+						PmaLog.severe(() -> message);
+						throw new Exception(message);
 					} else {
 						data = null;
 					}
 				} else {
 					JSONArray jsonResponse = PMA.getJSONArrayResponse(jsonString);
-					pmaAmountOfDataDownloaded.put(sessionID,
-							pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
 					data = jsonResponse;
 				}
 			} else {
 				data = null;
 			}
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 		return data;
 	}
 
+	/**
+	 * This method is used to retrieve the annotations for slide slideRef without
+	 * blocking the calling thread. It takes the same arguments as getAnnotations()
+	 * and runs on the executor returned by getAsyncExecutor()
+	 * 
+	 * @param slideRef slide's path
+	 * @param varargs  Array of optional arguments, see getAnnotations()
+	 * @return Future completed with the annotations in a json Array format
+	 */
+	public static CompletableFuture<JSONArray> getAnnotationsAsync(final String slideRef, final String... varargs) {
+		return async(() -> getAnnotations(slideRef, varargs));
+	}
+
 	/**
 	 * This method is used to launch the default web browser and load a web-based
 	 * viewer for the slide
@@ -3870,10 +3998,9 @@ public class Core {
 		} else {
 			url = pmaUrl(sessionID);
 			if (url == null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("Unable to determine the PMA.core instance belonging to " + sessionID);
-				}
-				throw new Exception("Unable to determine the PMA.core instance belonging to " + sessionID);
+				String message = "Unable to determine the PMA.core instance belonging to " + sessionID;
+				PmaLog.severe(() -> message);
+				throw new Exception(message);
 			}
 			url = "viewer/index.htm" + "?sessionID=" + PMA.pmaQ(sessionID) + "^&pathOrUid=" + PMA.pmaQ(slideRef); // note
 																													// the
@@ -3881,19 +4008,12 @@ public class Core {
 			// to escape
 			// a regular
 			// &
-			if (PMA.debug) {
-				System.out.println(url);
-			}
+			PmaLog.debug(url);
 		}
 		try {
 			Runtime.getRuntime().exec(osCmd + url);
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 		}
 	}
 
@@ -3928,27 +4048,15 @@ public class Core {
 					+ PMA.pmaQ(slideRef);
 		}
 		try {
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("GET");
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
+			String jsonString = PMA.httpGetString(url, null);
 			JSONArray resultsArray;
 			if (PMA.isJSONObject(jsonString)) {
 				JSONObject jsonResponse = PMA.getJSONObjectResponse(jsonString);
-				pmaAmountOfDataDownloaded.put(sessionID,
-						pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
 				if (jsonResponse.has("Code")) {
-					if (PMA.logger != null) {
-						PMA.logger.severe("getFilesForSlide on " + slideRef + " resulted in: "
-								+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)");
-					}
-					throw new Exception("getFilesForSlide on " + slideRef + " resulted in: "
-							+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)");
+					String message = "getFilesForSlide on " + slideRef + " resulted in: "
+							+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)";
+					PmaLog.severe(() -> message);
+					throw new Exception(message);
 				} else if (jsonResponse.has("d")) {
 					resultsArray = jsonResponse.getJSONArray("d");
 				} else {
@@ -3956,8 +4064,6 @@ public class Core {
 				}
 			} else {
 				resultsArray = PMA.getJSONArrayResponse(jsonString);
-				pmaAmountOfDataDownloaded.put(sessionID,
-						pmaAmountOfDataDownloaded.get(sessionID) + resultsArray.length());
 			}
 			Map<String, Map<String, String>> result = new HashMap<>();
 			for (int i = 0; i < resultsArray.length(); i++) {
@@ -3980,12 +4086,7 @@ public class Core {
 			}
 			return result;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -4015,26 +4116,14 @@ public class Core {
 		String url = apiUrl(sessionID, false) + "EnumerateAllFilesForSlide?sessionID=" + PMA.pmaQ(sessionID)
 				+ "&pathOrUid=" + PMA.pmaQ(slideRef);
 		try {
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("GET");
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
+			String jsonString = PMA.httpGetString(url, null);
 			if (PMA.isJSONObject(jsonString)) {
 				JSONObject jsonResponse = PMA.getJSONObjectResponse(jsonString);
-				pmaAmountOfDataDownloaded.put(sessionID,
-						pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
 				if (jsonResponse.has("Code")) {
-					if (PMA.logger != null) {
-						PMA.logger.severe("enumerateFilesForSlide on " + slideRef + " resulted in: "
-								+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)");
-					}
-					throw new Exception("enumerateFilesForSlide on " + slideRef + " resulted in: "
-							+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)");
+					String message = "enumerateFilesForSlide on " + slideRef + " resulted in: "
+							+ jsonResponse.get("Message") + " (keep in mind that slideRef is case sensitive!)";
+					PmaLog.severe(() -> message);
+					throw new Exception(message);
 				} else if (jsonResponse.has("d")) {
 					JSONArray array = jsonResponse.getJSONArray("d");
 					List<String> files = new ArrayList<>();
@@ -4047,8 +4136,6 @@ public class Core {
 				}
 			} else {
 				JSONArray jsonResponse = PMA.getJSONArrayResponse(jsonString);
-				pmaAmountOfDataDownloaded.put(sessionID,
-						pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
 				List<String> files = new ArrayList<>();
 				for (int i = 0; i < jsonResponse.length(); i++) {
 					files.add(jsonResponse.optString(i));
@@ -4057,12 +4144,7 @@ public class Core {
 			}
 
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -4092,19 +4174,9 @@ public class Core {
 		String url = apiUrl(sessionID, false) + "GetFilenames?sessionID=" + PMA.pmaQ(sessionID) + "&pathOrUid="
 				+ PMA.pmaQ(slideRef);
 		try {
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("GET");
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
+			String jsonString = PMA.httpGetString(url, null);
 			if (PMA.isJSONArray(jsonString)) {
 				JSONArray jsonResponse = PMA.getJSONArrayResponse(jsonString);
-				pmaAmountOfDataDownloaded.put(sessionID,
-						pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
 				List<Map<String, String>> result = new ArrayList<>();
 				for (int i = 0; i < jsonResponse.length(); i++) {
 					final int finalI = i;
@@ -4118,19 +4190,12 @@ public class Core {
 				}
 				return result;
 			} else {
-				if (PMA.logger != null) {
-					PMA.logger.severe("enumerateFilesForSlidePMACore() : Failure to get related files");
-				}
+				PmaLog.severe(() -> "enumerateFilesForSlidePMACore() : Failure to get related files");
 				return null;
 			}
 
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -4146,13 +4211,21 @@ public class Core {
 	 *                 sessionID : First optional argument(String), default
 	 *                 value(null), session's ID
 	 *                 </p>
-	 * @return List of slides in a directory that satisfy a certain search pattern
-	 * @throws Exception If called on PMA.start
+	 * @return List of slides in a directory that satisfy a certain search
+	 *         pattern; answered from the local slide path index without
+	 *         contacting PMA.core when one is set through setSlidePathIndex()
+	 *         and it covers the session's server and the start directory
+	 * @throws Exception If called on PMA.start without a local slide path index
 	 */
 	public static List<String> searchSlides(String startDir, String pattern, String... varargs) throws Exception {
 		// setting the default value when argument's value is omitted
 		String sessionID = varargs.length > 0 ? varargs[0] : null;
 		sessionID = sessionId(sessionID);
+		SlidePathIndex index = getSlidePathIndex();
+		// without a session only an index bound to no server can answer
+		if (index != null && index.covers(sessionID != null ? pmaUrl(sessionID) : null, startDir)) {
+			return index.search(startDir, pattern);
+		}
 		if (sessionID.equals(pmaCoreLiteSessionID)) {
 			if (isLite()) {
 				throw new Exception("PMA.core.lite found running, but doesn't support searching.");
@@ -4166,31 +4239,17 @@ public class Core {
 		}
 		String url = queryUrl(sessionID) + "Filename?sessionID=" + PMA.pmaQ(sessionID) + "&path=" + PMA.pmaQ(startDir)
 				+ "&pattern=" + PMA.pmaQ(pattern);
-		if (PMA.debug) {
-			System.out.println("url = " + url);
-		}
+		PmaLog.debug("url = {0}", url);
 		try {
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("GET");
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
+			String jsonString = PMA.httpGetString(url, null);
 			List<String> files = null;
 			if (PMA.isJSONObject(jsonString)) {
 				JSONObject jsonResponse = PMA.getJSONObjectResponse(jsonString);
-				pmaAmountOfDataDownloaded.put(sessionID,
-						pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
 				if (jsonResponse.has("Code")) {
-					if (PMA.logger != null) {
-						PMA.logger.severe("searchSlides on " + pattern + " in " + startDir + "resulted in: "
-								+ jsonResponse.get("Message") + " (keep in mind that startDir is case sensitive!)");
-					}
-					throw new Exception("searchSlides on " + pattern + " in " + startDir + "resulted in: "
-							+ jsonResponse.get("Message") + " (keep in mind that startDir is case sensitive!)");
+					String message = "searchSlides on " + pattern + " in " + startDir + "resulted in: "
+							+ jsonResponse.get("Message") + " (keep in mind that startDir is case sensitive!)";
+					PmaLog.severe(() -> message);
+					throw new Exception(message);
 				} else if (jsonResponse.has("d")) {
 					JSONArray array = jsonResponse.getJSONArray("d");
 					files = new ArrayList<>();
@@ -4202,8 +4261,6 @@ public class Core {
 				}
 			} else {
 				JSONArray jsonResponse = PMA.getJSONArrayResponse(jsonString);
-				pmaAmountOfDataDownloaded.put(sessionID,
-						pmaAmountOfDataDownloaded.get(sessionID) + jsonResponse.length());
 				files = new ArrayList<>();
 				for (int i = 0; i < jsonResponse.length(); i++) {
 					files.add(jsonResponse.optString(i));
@@ -4211,12 +4268,7 @@ public class Core {
 			}
 			return files;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -1,16 +1,8 @@
 package com.pathomation;
 
-import java.io.OutputStream;
-import java.io.PrintWriter;
-import java.io.StringWriter;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.util.HashMap;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import javax.net.ssl.HttpsURLConnection;
-
 import org.json.JSONArray;
 import org.json.JSONObject;
 
@@ -32,14 +24,6 @@ public class CoreAdmin {
 	 */
 	public static void setDebugFlag(boolean flag) {
 		PMA.setDebugFlag(flag);
-		if (flag) {
-			System.out.println(
-					"Debug flag enabled. You will receive extra feedback and messages from the Java SDK (like this one)");
-			if (PMA.logger != null) {
-				PMA.logger.severe(
-						"Debug flag enabled. You will receive extra feedback and messages from the Java SDK (like this one)");
-			}
-		}
 	}
 
 	/**
@@ -64,18 +48,14 @@ public class CoreAdmin {
 		Boolean xml = false;
 		if (varargs.length > 0) {
 			if (!(varargs[0] instanceof String) && varargs[0] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("adminUrl() : Illegal argument");
-				}
+				PmaLog.severe(() -> "adminUrl() : Illegal argument");
 				throw new IllegalArgumentException("...");
 			}
 			sessionID = (String) varargs[0];
 		}
 		if (varargs.length > 1) {
 			if (!(varargs[1] instanceof Boolean) && varargs[1] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("adminUrl() : Illegal argument");
-				}
+				PmaLog.severe(() -> "adminUrl() : Illegal argument");
 				throw new IllegalArgumentException("...");
 			}
 			xml = (Boolean) varargs[1];
@@ -85,12 +65,7 @@ public class CoreAdmin {
 		try {
 			url = Core.pmaUrl(sessionID);
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			url = null;
 		}
 		if (url == null) {
@@ -129,21 +104,15 @@ public class CoreAdmin {
 		String url = varargs.length > 1 ? varargs[1] : null;
 		String session = varargs.length > 2 ? varargs[2] : null;
 		if (Core.getPmaCoreLiteSessionID().equals(session)) {
-			if (PMA.logger != null) {
-				PMA.logger.severe("PMA.start doesn't support " + method);
-			}
+			PmaLog.severe(() -> "PMA.start doesn't support " + method);
 			throw new Exception("PMA.start doesn't support " + method);
 		} else if (url.equals(Core.getPmaCoreLiteSessionID())) {
 			if (Core.isLite()) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("PMA.core.lite found running, but doesn't support an administrative back-end");
-				}
+				PmaLog.severe(() -> "PMA.core.lite found running, but doesn't support an administrative back-end");
 				throw new Exception("PMA.core.lite found running, but doesn't support an administrative back-end");
 			} else {
-				if (PMA.logger != null) {
-					PMA.logger.severe(
-							"PMA.core.lite not found, and besides; it doesn't support an administrative back-end anyway");
-				}
+				PmaLog.severe(
+						() -> "PMA.core.lite not found, and besides; it doesn't support an administrative back-end anyway");
 				throw new Exception(
 						"PMA.core.lite not found, and besides; it doesn't support an administrative back-end anyway");
 			}
@@ -158,40 +127,31 @@ public class CoreAdmin {
 	 * @return Data returned following a request to a specific URL
 	 */
 	public static String httpPost(String url, String data) {
-		if (PMA.debug) {
-			System.out.println("Posting to " + url);
-			System.out.println("with paylod " + data);
-		}
+		return httpPost(url, data, null);
+	}
+
+	/**
+	 * This method is used to cache results from requested URLs (POST method) made
+	 * on behalf of a session
+	 * 
+	 * @param url       URL to request
+	 * @param data      JSON input
+	 * @param sessionID session the data is posted for, counted in the download
+	 *                  statistics
+	 * @return Data returned following a request to a specific URL
+	 */
+	public static String httpPost(String url, String data, String sessionID) {
+		PmaLog.debug("Posting to {0} with payload {1}", url, data);
 		try {
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("POST");
-			con.setRequestProperty("Content-Type", "application/json");
-			con.setRequestProperty("Accept", "application/json");
-			con.setUseCaches(true);
-			con.setDoOutput(true);
-			OutputStream os = con.getOutputStream();
-			os.write(data.getBytes("UTF-8"));
-			os.close();
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
+			String jsonString = PMA.httpPostString(url, data, "application/json", sessionID);
 			if (PMA.debug && jsonString.contains("Code")) {
-				System.out.println(jsonString);
+				PmaLog.debug(jsonString);
 			} else {
 				PMA.clearURLCache();
 			}
 			return jsonString;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -235,9 +195,7 @@ public class CoreAdmin {
 		if (!pmaCoreAdmPassword.equals("")) {
 			url = url.concat("&password=").concat(PMA.pmaQ(pmaCoreAdmPassword));
 		}
-		if (PMA.debug) {
-			System.out.println(url);
-		}
+		PmaLog.debug(url);
 		try {
 			String jsonString = PMA.httpGet(url, "application/json");
 			String admSessionID;
@@ -247,10 +205,6 @@ public class CoreAdmin {
 					admSessionID = loginResult.getString("SessionId");
 					Core.getPmaSessions().put(admSessionID, pmaCoreURL);
 					Core.getPmaUsernames().put(admSessionID, pmaCoreAdmUsername);
-					if (!Core.getPmaSlideInfos().containsKey(admSessionID)) {
-						Core.getPmaSlideInfos().put(admSessionID, new HashMap<String, Object>());
-					}
-					Core.getPmaAmountOfDataDownloaded().put(admSessionID, loginResult.length());
 				} else {
 					admSessionID = null;
 				}
@@ -259,12 +213,7 @@ public class CoreAdmin {
 			}
 			return admSessionID;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -306,15 +255,10 @@ public class CoreAdmin {
 			String url = adminUrl(admSessionID, false) + "EmailPassword";
 			String reminderParams = "{\"username\": \"" + login + "\", \"subject\": \"" + subject
 					+ "\",\"messageTemplate\": \"\"" + "}";
-			String reminderResponse = httpPost(url, reminderParams);
+			String reminderResponse = httpPost(url, reminderParams, admSessionID);
 			return reminderResponse;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -352,7 +296,7 @@ public class CoreAdmin {
 		Boolean canAnnotate = varargs.length > 0 ? varargs[0] : false;
 		Boolean isAdmin = varargs.length > 1 ? varargs[1] : false;
 		Boolean isSuspended = varargs.length > 2 ? varargs[2] : false;
-		System.out.println("Using credentials from " + admSessionID);
+		PmaLog.debug("Using credentials from {0}", admSessionID);
 
 		try {
 			String url = adminUrl(admSessionID, false) + "CreateUser";
@@ -362,21 +306,14 @@ public class CoreAdmin {
 					+ isAdmin + "," + "\"isSuspended\": " + isSuspended + "," + "\"CanAnnotate\": " + canAnnotate + "}"
 					+ "}";
 
-			String jsonString = httpPost(url, input);
+			String jsonString = httpPost(url, input, admSessionID);
 			if (PMA.isJSONObject(jsonString) && PMA.getJSONObjectResponse(jsonString).has("Code")) {
-				if (PMA.debug) {
-					System.out.println(jsonString);
-				}
+				PmaLog.debug(jsonString);
 				return false;
 			}
 			return true;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return false;
 		}
 	}
@@ -405,12 +342,7 @@ public class CoreAdmin {
 				return false;
 			}
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return false;
 		}
 	}
@@ -429,19 +361,12 @@ public class CoreAdmin {
 		try {
 			String jsonString = PMA.httpGet(url, "application/json");
 			if (PMA.isJSONObject(jsonString) && PMA.getJSONObjectResponse(jsonString).has("Code")) {
-				if (PMA.debug) {
-					System.out.println(jsonString);
-				}
+				PmaLog.debug(jsonString);
 				return false;
 			}
 			return true;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return false;
 		}
 	}
@@ -461,21 +386,14 @@ public class CoreAdmin {
 			} else if (Core.getSlides(path, admSessionID) == null) {
 				String url = adminUrl(admSessionID, false) + "CreateDirectory";
 				String input = "{ \"sessionID\": \"" + admSessionID + "\", \"path\": \"" + path + "\" }";
-				String jsonString = httpPost(url, input);
+				String jsonString = httpPost(url, input, admSessionID);
 				return jsonString.equals("true") ? true : false;
 			} else {
-				if (PMA.debug) {
-					System.out.println("Directory already exists");
-				}
+				PmaLog.debug("Directory already exists");
 				return false;
 			}
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return false;
 		}
 	}
@@ -497,11 +415,9 @@ public class CoreAdmin {
 			String url = adminUrl(admSessionID, false) + "RenameDirectory";
 			String payload = "{ \"sessionID\": \"" + admSessionID + "\", \"path\": \"" + originalPath
 					+ "\", \"newName\":\"" + newName + "\" }";
-			String jsonString = httpPost(url, payload);
+			String jsonString = httpPost(url, payload, admSessionID);
 			if (PMA.isJSONObject(jsonString) && PMA.getJSONObjectResponse(jsonString).has("Code")) {
-				if (PMA.debug) {
-					System.out.println(jsonString);
-				}
+				PmaLog.debug(jsonString);
 				return false;
 			}
 			// Sanity check : no slides should be found anymore in the original directory
@@ -512,12 +428,7 @@ public class CoreAdmin {
 				return false;
 			}
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return false;
 		}
 	}
@@ -537,12 +448,10 @@ public class CoreAdmin {
 			}
 			String url = adminUrl(admSessionID, false) + "DeleteDirectory";
 			String payload = "{ \"sessionID\": \"" + admSessionID + "\", \"path\": \"" + path + "\" }";
-			httpPost(url, payload);
-			String jsonString = httpPost(url, payload);
+			httpPost(url, payload, admSessionID);
+			String jsonString = httpPost(url, payload, admSessionID);
 			if (PMA.isJSONObject(jsonString) && PMA.getJSONObjectResponse(jsonString).has("Code")) {
-				if (PMA.debug) {
-					System.out.println(jsonString);
-				}
+				PmaLog.debug(jsonString);
 				return false;
 			}
 			// Sanity check : no slides should be found anymore in the original directory
@@ -553,12 +462,7 @@ public class CoreAdmin {
 				return false;
 			}
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return false;
 		}
 	}
@@ -585,26 +489,17 @@ public class CoreAdmin {
 			String url = adminUrl(admSessionID, false) + "ReverseLookupUID?sessionID=" + PMA.pmaQ(admSessionID) + "&uid="
 					+ PMA.pmaQ(slideRefUid);
 			String path;
-			if (PMA.debug) {
-				System.out.print(url);
-			}
+			PmaLog.debug(url);
 			String jsonString = PMA.httpGet(url, "application/json");
 			if (PMA.isJSONObject(jsonString) && PMA.getJSONObjectResponse(jsonString).has("Code")) {
-				if (PMA.debug) {
-					System.out.println(jsonString);
-				}
+				PmaLog.debug(jsonString);
 				throw new Exception("reverseUID() on  " + slideRefUid + " resulted in: " + PMA.getJSONObjectResponse(jsonString).getString("Message"));
 			} else {
 				path = jsonString;
 			}
 			return path;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -631,26 +526,17 @@ public class CoreAdmin {
 			String url = adminUrl(admSessionID) + "ReverseLookupRootDirectory?sessionID=" + PMA.pmaQ(admSessionID) + "&alias="
 					+ PMA.pmaQ(alias);
 			String path;
-			if (PMA.debug) {
-				System.out.print(url);
-			}
+			PmaLog.debug(url);
 			String jsonString = PMA.httpGet(url, "application/json");
 			if (PMA.isJSONObject(jsonString) && PMA.getJSONObjectResponse(jsonString).has("Code")) {
-				if (PMA.debug) {
-					System.out.println(jsonString);
-				}
+				PmaLog.debug(jsonString);
 				throw new Exception("reverseRootDirectory() on  " + alias + " resulted in: " + PMA.getJSONObjectResponse(jsonString).getString("Message"));
 			} else {
 				path = jsonString;
 			}
 			return path;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -672,11 +558,9 @@ public class CoreAdmin {
 			String url = adminUrl(admSessionID, false) + "RenameSlide";
 			String payload = "{ \"sessionID\": \"" + admSessionID + "\", \"path\": \"" + originalPath
 					+ "\", \"newName\":\"" + newName + "\" }";
-			String jsonString = httpPost(url, payload);
+			String jsonString = httpPost(url, payload, admSessionID);
 			if (PMA.isJSONObject(jsonString) && PMA.getJSONObjectResponse(jsonString).has("Code")) {
-				if (PMA.debug) {
-					System.out.println(jsonString);
-				}
+				PmaLog.debug(jsonString);
 				return false;
 			} else if (jsonString.equals("true")) {
 				return true;
@@ -684,12 +568,7 @@ public class CoreAdmin {
 				return false;
 			}
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return false;
 		}
 	}
@@ -709,21 +588,14 @@ public class CoreAdmin {
 			}
 			String url = adminUrl(admSessionID, false) + "DeleteSlide";
 			String payload = "{ \"sessionID\": \"" + admSessionID + "\", \"path\": \"" + path + "\" }";
-			String jsonString = httpPost(url, payload);
+			String jsonString = httpPost(url, payload, admSessionID);
 			if (PMA.isJSONObject(jsonString) && PMA.getJSONObjectResponse(jsonString).has("Code")) {
-				if (PMA.debug) {
-					System.out.println(jsonString);
-				}
+				PmaLog.debug(jsonString);
 				return false;
 			}
 			return true;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return false;
 		}
 	}
@@ -754,18 +626,14 @@ public class CoreAdmin {
 		String serviceUrl = null;
 		if (varargs.length > 0) {
 			if (!(varargs[0] instanceof Integer) && varargs[0] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("createAmazons3MountingPoint() : Illegal argument");
-				}
+				PmaLog.severe(() -> "createAmazons3MountingPoint() : Illegal argument");
 				throw new IllegalArgumentException("...");
 			}
 			chunkSize = (Integer) varargs[0];
 		}
 		if (varargs.length > 1) {
 			if (!(varargs[1] instanceof String) && varargs[1] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("createAmazons3MountingPoint() : Illegal argument");
-				}
+				PmaLog.severe(() -> "createAmazons3MountingPoint() : Illegal argument");
 				throw new IllegalArgumentException("...");
 			}
 			serviceUrl = (String) varargs[1];
@@ -838,63 +706,42 @@ public class CoreAdmin {
 		Boolean isOffline = false;
 		if (varargs.length > 0) {
 			if (!(varargs[0] instanceof List<?>) && varargs[0] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("createRootDirectory() : Illegal argument");
-				}
+				PmaLog.severe(() -> "createRootDirectory() : Illegal argument");
 				throw new IllegalArgumentException("...");
 			}
 			amazonS3MountingPoints = (List<String>) varargs[0];
 		}
 		if (varargs.length > 1) {
 			if (!(varargs[1] instanceof List<?>) && varargs[1] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("createRootDirectory() : Illegal argument");
-				}
+				PmaLog.severe(() -> "createRootDirectory() : Illegal argument");
 				throw new IllegalArgumentException("...");
 			}
 			fileSystemMountingPoints = (List<String>) varargs[1];
 		}
 		if (varargs.length > 2) {
 			if (!(varargs[2] instanceof String) && varargs[2] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("createRootDirectory() : Illegal argument");
-				}
+				PmaLog.severe(() -> "createRootDirectory() : Illegal argument");
 				throw new IllegalArgumentException("...");
 			}
 			description = (String) varargs[2];
 		}
 		if (varargs.length > 3) {
 			if (!(varargs[3] instanceof Boolean) && varargs[3] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("createRootDirectory() : Illegal argument");
-				}
+				PmaLog.severe(() -> "createRootDirectory() : Illegal argument");
 				throw new IllegalArgumentException("...");
 			}
 			isPublic = (Boolean) varargs[3];
 		}
 		if (varargs.length > 4) {
 			if (!(varargs[4] instanceof Boolean) && varargs[4] != null) {
-				if (PMA.logger != null) {
-					PMA.logger.severe("createRootDirectory() : Illegal argument");
-				}
+				PmaLog.severe(() -> "createRootDirectory() : Illegal argument");
 				throw new IllegalArgumentException("...");
 			}
 			isOffline = (Boolean) varargs[4];
 		}
 		try {
 			String url = adminUrl(admSessionID, false) + "CreateRootDirectory";
-			System.out.println(url);
-			URL urlResource = new URL(url);
-			HttpURLConnection con;
-			if (url.startsWith("https")) {
-				con = (HttpsURLConnection) urlResource.openConnection();
-			} else {
-				con = (HttpURLConnection) urlResource.openConnection();
-			}
-			con.setRequestMethod("POST");
-			con.setRequestProperty("Content-Type", "application/json");
-			con.setUseCaches(true);
-			con.setDoOutput(true);
+			PmaLog.debug(url);
 			String input = "{" + "\"sessionID\": \"" + admSessionID + "\"," + "\"rootDirectory\": {" + "\"Alias\": \""
 					+ alias + "\"," + "\"Description\": \"" + description + "\"," + "\"Offline\": " + isOffline + ","
 					+ "\"Public\": " + isPublic;
@@ -910,18 +757,10 @@ public class CoreAdmin {
 				input += ", \"FileSystemMountingPoints\" :" + fileSystemMountingPointsForJson;
 			}
 			input += "}" + "}";
-			OutputStream os = con.getOutputStream();
-			os.write(input.getBytes("UTF-8"));
-			os.close();
-			String jsonString = PMA.getJSONAsStringBuffer(con).toString();
+			String jsonString = PMA.httpPostString(url, input, null, admSessionID);
 			return jsonString;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
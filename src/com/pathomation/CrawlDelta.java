@@ -0,0 +1,92 @@
+package com.pathomation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Slides added, removed and changed between two crawls of the same directory
+ * tree. A slide counts as changed when its fingerprint or its last
+ * modification time differs.
+ */
+public class CrawlDelta {
+
+	private final List<String> added;
+	private final List<String> removed;
+	private final List<String> changed;
+
+	private CrawlDelta(List<String> added, List<String> removed, List<String> changed) {
+		this.added = Collections.unmodifiableList(added);
+		this.removed = Collections.unmodifiableList(removed);
+		this.changed = Collections.unmodifiableList(changed);
+	}
+
+	/**
+	 * This method is used to compare two snapshots
+	 *
+	 * @param previous earlier snapshot, null to report every slide as added
+	 * @param current  later snapshot
+	 * @return Differences between the snapshots, each list sorted by path
+	 */
+	public static CrawlDelta between(CrawlSnapshot previous, CrawlSnapshot current) {
+		List<String> added = new ArrayList<>();
+		List<String> removed = new ArrayList<>();
+		List<String> changed = new ArrayList<>();
+		for (String slide : current.getSlides()) {
+			CrawlSnapshot.SlideState before = previous != null ? previous.getSlideState(slide) : null;
+			if (before == null) {
+				added.add(slide);
+			} else {
+				CrawlSnapshot.SlideState after = current.getSlideState(slide);
+				if (!Objects.equals(before.getFingerprint(), after.getFingerprint())
+						|| !Objects.equals(before.getLastModified(), after.getLastModified())) {
+					changed.add(slide);
+				}
+			}
+		}
+		if (previous != null) {
+			for (String slide : previous.getSlides()) {
+				if (current.getSlideState(slide) == null) {
+					removed.add(slide);
+				}
+			}
+		}
+		return new CrawlDelta(added, removed, changed);
+	}
+
+	/**
+	 * @return the slides found by the later crawl only
+	 */
+	public List<String> getAdded() {
+		return added;
+	}
+
+	/**
+	 * @return the slides found by the earlier crawl only
+	 */
+	public List<String> getRemoved() {
+		return removed;
+	}
+
+	/**
+	 * @return the slides found by both crawls whose fingerprint or modification
+	 *         time changed
+	 */
+	public List<String> getChanged() {
+		return changed;
+	}
+
+	/**
+	 * @return true if nothing changed
+	 */
+	public boolean isEmpty() {
+		return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "CrawlDelta [added=" + added.size() + ", removed=" + removed.size() + ", changed=" + changed.size()
+				+ "]";
+	}
+}
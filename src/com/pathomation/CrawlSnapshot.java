@@ -0,0 +1,325 @@
+package com.pathomation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * State of a directory tree of a PMA.core server at the time it was crawled.
+ * <p>
+ * A snapshot records the sub-directories of every directory and, for every
+ * slide, its fingerprint, last modification time and slide information. It can
+ * be saved to and loaded from a local json file. Crawling again with the
+ * previous snapshot at hand only requests the fingerprint of each slide; the
+ * slide information is only requested for slides that are new or whose
+ * fingerprint changed, all other slides keep their previous information. A
+ * slide whose information couldn't be retrieved keeps its previous state, or
+ * has no information when it is new; either way it is asked again on the next
+ * crawl.
+ * {@link CrawlDelta#between(CrawlSnapshot, CrawlSnapshot)} reports what changed
+ * between two snapshots.
+ * </p>
+ */
+public class CrawlSnapshot {
+
+	private static final int VERSION = 1;
+	// integers are read as Long, like PMA does, so loaded slide information has
+	// the same shape as freshly retrieved one
+	private static final ObjectMapper objectMapper = new ObjectMapper()
+			.enable(DeserializationFeature.USE_LONG_FOR_INTS);
+
+	/**
+	 * What a snapshot knows about a slide
+	 */
+	public static class SlideState {
+		private final String fingerprint;
+		private final Long lastModified;
+		private final Map<String, Object> info;
+
+		SlideState(String fingerprint, Long lastModified, Map<String, Object> info) {
+			this.fingerprint = fingerprint;
+			this.lastModified = lastModified;
+			this.info = info;
+		}
+
+		/**
+		 * @return the fingerprint, null if it couldn't be retrieved
+		 */
+		public String getFingerprint() {
+			return fingerprint;
+		}
+
+		/**
+		 * @return the last modification time in milliseconds since the epoch, null if
+		 *         unknown
+		 */
+		public Long getLastModified() {
+			return lastModified;
+		}
+
+		/**
+		 * @return the slide information as returned by Core.getSlideInfo(), null if it
+		 *         couldn't be retrieved
+		 */
+		public Map<String, Object> getInfo() {
+			return info;
+		}
+	}
+
+	private final String server;
+	private final String startDir;
+	private final long createdAt;
+	// sorted, so saved snapshots can be compared with a plain diff
+	private final Map<String, List<String>> directories = new TreeMap<>();
+	private final Map<String, SlideState> slides = new TreeMap<>();
+
+	private CrawlSnapshot(String server, String startDir, long createdAt) {
+		this.server = server;
+		this.startDir = startDir;
+		this.createdAt = createdAt;
+	}
+
+	/**
+	 * This method is used to crawl a directory tree from scratch
+	 *
+	 * @param startDir  start directory
+	 * @param sessionID session's ID, null for the default session
+	 * @return Snapshot of the tree
+	 * @throws Exception if a directory can't be read
+	 */
+	public static CrawlSnapshot crawl(String startDir, String sessionID) throws Exception {
+		return crawl(startDir, sessionID, null);
+	}
+
+	/**
+	 * This method is used to crawl a directory tree, reusing the slide information
+	 * of a previous snapshot for the slides whose fingerprint didn't change
+	 *
+	 * @param startDir  start directory
+	 * @param sessionID session's ID, null for the default session
+	 * @param previous  previous snapshot of the same tree, may be null
+	 * @return Snapshot of the tree
+	 * @throws Exception if a directory can't be read
+	 */
+	public static CrawlSnapshot crawl(String startDir, String sessionID, CrawlSnapshot previous) throws Exception {
+		sessionID = Core.sessionId(sessionID);
+		if (startDir.startsWith("/")) {
+			startDir = startDir.substring(1);
+		}
+		final String server = Core.pmaUrl(sessionID);
+		final CrawlSnapshot snapshot = new CrawlSnapshot(server, startDir, System.currentTimeMillis());
+		final List<String> found = new ArrayList<>();
+		// a directory that can't be read fails the whole crawl rather than showing
+		// up as removed slides
+		Core.getSlideCrawler().walkTree(startDir, sessionID, (directory, directories, slides) -> {
+			snapshot.directories.put(directory, new ArrayList<>(directories));
+			found.addAll(slides);
+		});
+		if (previous != null && (!server.equals(previous.server) || !startDir.equals(previous.startDir))) {
+			previous = null;
+		}
+
+		Map<String, String> fingerprints = fingerprints(found, sessionID);
+		List<String> stale = new ArrayList<>();
+		for (String slide : found) {
+			String fingerprint = fingerprints.get(slide);
+			SlideState before = previous != null ? previous.slides.get(slide) : null;
+			// a slide whose information couldn't be retrieved last time is asked again
+			if (before != null && before.info != null
+					&& (fingerprint == null || fingerprint.equals(before.fingerprint))) {
+				snapshot.slides.put(slide, before);
+			} else {
+				stale.add(slide);
+			}
+		}
+
+		// only new and changed slides need their information (again)
+		int batchSize = Core.getSlideInfoBatcher().getMaxBatchSize();
+		for (int i = 0; i < stale.size(); i += batchSize) {
+			List<String> batch = stale.subList(i, Math.min(stale.size(), i + batchSize));
+			for (String slide : batch) {
+				Core.getSlideInfoCache().invalidate(sessionID, slide);
+			}
+			Map<String, Map<String, Object>> infos = Core.getSlidesInfo(batch, sessionID);
+			for (String slide : batch) {
+				Map<String, Object> info = infos != null ? infos.get(slide) : null;
+				SlideState before = previous != null ? previous.slides.get(slide) : null;
+				if (info == null && before != null && before.info != null) {
+					// keep what was known, with the old fingerprint so the next crawl
+					// asks again
+					snapshot.slides.put(slide, before);
+				} else {
+					snapshot.slides.put(slide, new SlideState(fingerprints.get(slide), lastModified(info), info));
+				}
+			}
+		}
+		return snapshot;
+	}
+
+	/**
+	 * This method is used to load a snapshot saved with save()
+	 *
+	 * @param file snapshot file
+	 * @return Snapshot
+	 * @throws IOException if the file can't be read or isn't a snapshot
+	 */
+	@SuppressWarnings("unchecked")
+	public static CrawlSnapshot load(Path file) throws IOException {
+		Map<String, Object> json;
+		try (InputStream in = Files.newInputStream(file)) {
+			json = objectMapper.readValue(in, Map.class);
+		}
+		if (!(json.get("version") instanceof Number) || ((Number) json.get("version")).intValue() != VERSION) {
+			throw new IOException(file + " is not a crawl snapshot (version " + json.get("version") + ")");
+		}
+		CrawlSnapshot snapshot = new CrawlSnapshot((String) json.get("server"), (String) json.get("startDir"),
+				((Number) json.get("createdAt")).longValue());
+		Map<String, List<String>> directories = (Map<String, List<String>>) json.get("directories");
+		snapshot.directories.putAll(directories);
+		Map<String, Map<String, Object>> slides = (Map<String, Map<String, Object>>) json.get("slides");
+		for (Map.Entry<String, Map<String, Object>> entry : slides.entrySet()) {
+			Map<String, Object> state = entry.getValue();
+			Number lastModified = (Number) state.get("lastModified");
+			snapshot.slides.put(entry.getKey(), new SlideState((String) state.get("fingerprint"),
+					lastModified != null ? lastModified.longValue() : null, (Map<String, Object>) state.get("info")));
+		}
+		return snapshot;
+	}
+
+	/**
+	 * This method is used to save the snapshot to a json file; the file is
+	 * replaced atomically, so a crash never leaves a partial snapshot behind
+	 *
+	 * @param file snapshot file
+	 * @throws IOException if the file can't be written
+	 */
+	public void save(Path file) throws IOException {
+		Map<String, Object> json = new TreeMap<>();
+		json.put("version", VERSION);
+		json.put("server", server);
+		json.put("startDir", startDir);
+		json.put("createdAt", createdAt);
+		json.put("directories", directories);
+		Map<String, Object> slideStates = new TreeMap<>();
+		for (Map.Entry<String, SlideState> entry : slides.entrySet()) {
+			Map<String, Object> state = new TreeMap<>();
+			state.put("fingerprint", entry.getValue().fingerprint);
+			state.put("lastModified", entry.getValue().lastModified);
+			state.put("info", entry.getValue().info);
+			slideStates.put(entry.getKey(), state);
+		}
+		json.put("slides", slideStates);
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (OutputStream out = Files.newOutputStream(temp)) {
+			objectMapper.writeValue(out, json);
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * @return the PMA.core URL the tree was crawled from
+	 */
+	public String getServer() {
+		return server;
+	}
+
+	/**
+	 * @return the start directory
+	 */
+	public String getStartDir() {
+		return startDir;
+	}
+
+	/**
+	 * @return the time of the crawl in milliseconds since the epoch
+	 */
+	public long getCreatedAt() {
+		return createdAt;
+	}
+
+	/**
+	 * @return the sub-directories of every directory crawled
+	 */
+	public Map<String, List<String>> getDirectories() {
+		return Collections.unmodifiableMap(directories);
+	}
+
+	/**
+	 * @return the paths of all slides found
+	 */
+	public Set<String> getSlides() {
+		return Collections.unmodifiableSet(slides.keySet());
+	}
+
+	/**
+	 * This method is used to get what the snapshot knows about a slide
+	 *
+	 * @param slide slide's path
+	 * @return State of the slide, null if it wasn't found
+	 */
+	public SlideState getSlideState(String slide) {
+		return slides.get(slide);
+	}
+
+	@Override
+	public String toString() {
+		return "CrawlSnapshot [server=" + server + ", startDir=" + startDir + ", createdAt=" + createdAt
+				+ ", directories=" + directories.size() + ", slides=" + slides.size() + "]";
+	}
+
+	/**
+	 * This method is used to get the fingerprints of slides, keeping as many
+	 * requests in flight as the slide crawler does
+	 */
+	private static Map<String, String> fingerprints(List<String> slides, final String sessionID)
+			throws InterruptedException {
+		final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+		final Semaphore permits = new Semaphore(Core.getSlideCrawler().getMaxConcurrentRequests());
+		List<CompletableFuture<String>> futures = new ArrayList<>();
+		for (final String slide : slides) {
+			permits.acquire();
+			CompletableFuture<String> future = Core.async(Core.getAsyncExecutor(), () -> {
+				String fingerprint = Core.getFingerPrint(slide, sessionID);
+				if (fingerprint != null) {
+					fingerprints.put(slide, fingerprint);
+				}
+				return fingerprint;
+			});
+			future.whenComplete((fingerprint, throwable) -> permits.release());
+			futures.add(future);
+		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).exceptionally(throwable -> null)
+				.join();
+		return fingerprints;
+	}
+
+	/**
+	 * PMA.core reports the modification time as "/Date(milliseconds)/"
+	 */
+	private static Long lastModified(Map<String, Object> info) {
+		if (info == null || info.get("LastModified") == null) {
+			return null;
+		}
+		String date = info.get("LastModified").toString();
+		try {
+			return Long.parseLong(date.substring(6, date.length() - 2));
+		} catch (RuntimeException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,174 @@
+package com.pathomation;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point in time by which a call, including everything it does on other threads,
+ * must be done.
+ * <p>
+ * The deadline is set per thread through {@link #callWithin(long, TimeUnit,
+ * Callable)}. Every request sent by the thread while the deadline is set has its
+ * connect and read timeouts shortened to the time left, and fails immediately
+ * with an {@link ExceededException} once the deadline has passed. Composite
+ * operations (recursive getSlides() and getDirectories(), getTiles(), the tile
+ * engine, crawls, Core's asynchronous methods...) carry the deadline of the
+ * thread that started them over to the threads doing the work, and stop
+ * starting new work when it expires.
+ * </p>
+ */
+public final class Deadline {
+
+	/**
+	 * Thrown when a request can't be completed before the deadline
+	 */
+	public static class ExceededException extends IOException {
+
+		private static final long serialVersionUID = 1L;
+
+		ExceededException(String message) {
+			super(message);
+		}
+
+		ExceededException(String message, Throwable cause) {
+			super(message, cause);
+		}
+	}
+
+	private static final ThreadLocal<Deadline> current = new ThreadLocal<>();
+
+	private final long deadlineNanos;
+
+	private Deadline(long deadlineNanos) {
+		this.deadlineNanos = deadlineNanos;
+	}
+
+	/**
+	 * This method is used to create a deadline relative to now
+	 *
+	 * @param timeout time left
+	 * @param unit    unit of timeout
+	 * @return Deadline
+	 */
+	public static Deadline after(long timeout, TimeUnit unit) {
+		return new Deadline(System.nanoTime() + unit.toNanos(timeout));
+	}
+
+	/**
+	 * This method is used to get the deadline of the current thread
+	 *
+	 * @return Deadline, null if none is set
+	 */
+	public static Deadline current() {
+		return current.get();
+	}
+
+	/**
+	 * This method is used to set the deadline of the current thread
+	 *
+	 * @param deadline deadline, null to remove it
+	 * @return Previous deadline, to be restored when done
+	 */
+	public static Deadline setCurrent(Deadline deadline) {
+		Deadline previous = current.get();
+		if (deadline == null) {
+			current.remove();
+		} else {
+			current.set(deadline);
+		}
+		return previous;
+	}
+
+	/**
+	 * This method is used to run a task that must complete within a given time.
+	 * When the current thread already has an earlier deadline, that one is kept
+	 *
+	 * @param <T>     Type of the task's result
+	 * @param timeout time the task may take
+	 * @param unit    unit of timeout
+	 * @param task    task to run on the current thread
+	 * @return Task's result
+	 * @throws Exception if the task throws
+	 */
+	public static <T> T callWithin(long timeout, TimeUnit unit, Callable<T> task) throws Exception {
+		Deadline deadline = after(timeout, unit);
+		Deadline previous = current.get();
+		if (previous != null && previous.deadlineNanos - deadline.deadlineNanos < 0) {
+			deadline = previous;
+		}
+		return callWith(deadline, task);
+	}
+
+	/**
+	 * This method is used to run a task under a given deadline, e.g. on another
+	 * thread than the one the deadline was set on
+	 *
+	 * @param <T>      Type of the task's result
+	 * @param deadline deadline, null for none
+	 * @param task     task to run on the current thread
+	 * @return Task's result
+	 * @throws Exception if the task throws
+	 */
+	public static <T> T callWith(Deadline deadline, Callable<T> task) throws Exception {
+		Deadline previous = setCurrent(deadline);
+		try {
+			return task.call();
+		} finally {
+			setCurrent(previous);
+		}
+	}
+
+	/**
+	 * @return the time left in nanoseconds, negative once the deadline has passed
+	 */
+	public long remainingNanos() {
+		return deadlineNanos - System.nanoTime();
+	}
+
+	/**
+	 * @return the time left in milliseconds, 0 once the deadline has passed
+	 */
+	public long remainingMillis() {
+		return Math.max(0, TimeUnit.NANOSECONDS.toMillis(remainingNanos()));
+	}
+
+	/**
+	 * @return true once the deadline has passed
+	 */
+	public boolean isExpired() {
+		return remainingNanos() <= 0;
+	}
+
+	/**
+	 * This method is used to fail once the deadline has passed
+	 *
+	 * @param what description of the work that can't be started anymore
+	 * @throws ExceededException if the deadline has passed
+	 */
+	public void check(String what) throws ExceededException {
+		if (isExpired()) {
+			throw new ExceededException("Deadline exceeded before " + what);
+		}
+	}
+
+	/**
+	 * This method is used to shorten a timeout to the time left
+	 *
+	 * @param timeoutMillis timeout, 0 for none
+	 * @return Timeout in milliseconds, at least 1 (0 meaning no timeout for
+	 *         HttpURLConnection)
+	 */
+	int cap(int timeoutMillis) {
+		long remaining = Math.max(1, remainingMillis());
+		if (timeoutMillis > 0 && timeoutMillis < remaining) {
+			return timeoutMillis;
+		}
+		return (int) Math.min(Integer.MAX_VALUE, remaining);
+	}
+
+	@Override
+	public String toString() {
+		return "Deadline [remainingMillis=" + remainingMillis() + "]";
+	}
+}
@@ -0,0 +1,108 @@
+package com.pathomation;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazy, depth-first iterator over the slides or sub-directories below a start
+ * directory.
+ * <p>
+ * A directory is only requested from PMA.core once the consumer has used up
+ * everything before it, so the first result is available after a single
+ * request. Only the current directory's entries and the directories still to
+ * visit are held in memory. The results come in the same order as
+ * Core.getSlides() and Core.getDirectories() return them. Directories that
+ * can't be read are logged and skipped. Directories are requested through the
+ * client that was current when the iterator was created, whenever it is
+ * consumed.
+ * </p>
+ */
+public class DirectoryIterator implements Iterator<String> {
+
+	private static class Pending {
+		final String path;
+		final int depth;
+
+		Pending(String path, int depth) {
+			this.path = path;
+			this.depth = depth;
+		}
+	}
+
+	private final PmaClient client = PmaClient.current();
+	private final String sessionID;
+	private final int maxDepth;
+	private final boolean slides;
+	// directories still to visit, the next one on top
+	private final ArrayDeque<Pending> stack = new ArrayDeque<>();
+	// entries of the current directory not returned yet
+	private Iterator<String> current = null;
+
+	/**
+	 * Constructor
+	 *
+	 * @param startDir  start directory
+	 * @param sessionID session's ID
+	 * @param maxDepth  how many levels of sub-directories to descend into, 0 for
+	 *                  the start directory only, SlideCrawler.UNLIMITED_DEPTH for
+	 *                  the whole tree
+	 * @param slides    true to iterate over slides, false over sub-directories
+	 */
+	public DirectoryIterator(String startDir, String sessionID, int maxDepth, boolean slides) {
+		this.sessionID = sessionID;
+		this.maxDepth = maxDepth;
+		this.slides = slides;
+		stack.push(new Pending(startDir, 0));
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (current == null || !current.hasNext()) {
+			if (stack.isEmpty()) {
+				return false;
+			}
+			visit(stack.pop());
+		}
+		return true;
+	}
+
+	@Override
+	public String next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return current.next();
+	}
+
+	/**
+	 * This method is used to request a directory and queue its sub-directories
+	 * ahead of the ones already waiting
+	 */
+	private void visit(Pending directory) {
+		boolean descend = maxDepth == SlideCrawler.UNLIMITED_DEPTH || directory.depth < maxDepth;
+		PmaClient previous = PmaClient.setCurrent(client);
+		try {
+			List<String> directories = null;
+			if (descend || !slides) {
+				directories = Core.loadDirectories(directory.path, sessionID);
+			}
+			current = slides ? iterator(Core.loadSlides(directory.path, sessionID)) : iterator(directories);
+			if (descend && directories != null) {
+				for (int i = directories.size() - 1; i >= 0; i--) {
+					stack.push(new Pending(directories.get(i), directory.depth + 1));
+				}
+			}
+		} catch (Exception e) {
+			current = null;
+			PmaLog.error(() -> "Unable to list " + directory.path, e);
+		} finally {
+			PmaClient.setCurrent(previous);
+		}
+	}
+
+	private static Iterator<String> iterator(List<String> list) {
+		return list != null ? list.iterator() : null;
+	}
+}
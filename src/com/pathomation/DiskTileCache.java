@@ -0,0 +1,676 @@
+package com.pathomation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Persistent client-side tile cache.
+ * <p>
+ * Tiles are appended to pack files ("tiles-&lt;n&gt;.pack") in a directory.
+ * Every record holds its key and the encoded tile, so the cache can always be
+ * rebuilt from the packs alone. Full packs are sealed and read through a
+ * read-only memory mapping; the pack being appended to is read with positional
+ * reads. The location of every tile is kept in an in-memory index that is
+ * saved next to the packs on flush() and close(), and is reloaded on the next
+ * start when it still matches the packs (otherwise the packs are scanned).
+ * </p>
+ * <p>
+ * The total size of the packs is capped; when a new tile would exceed the cap,
+ * the oldest pack is deleted as a whole together with the tiles it contains.
+ * A pack file that can't be deleted right away (Windows refuses to delete a
+ * file that is still memory mapped) is marked with a ".delete" file and
+ * deleted later: on the next eviction, flush or open. Its size counts towards
+ * the cap until then.
+ * </p>
+ * <p>
+ * Keys are built through {@link #key(String, String, int, int, int, int, String, Integer)}
+ * from the server, the slide's fingerprint and the tile's coordinates and
+ * encoding, so a slide that changes on the server gets new keys once its
+ * fingerprint is looked up again (at most 5 minutes later).
+ * </p>
+ */
+public class DiskTileCache implements Closeable {
+
+	/**
+	 * Default cap on the total size of the pack files (1 GB)
+	 */
+	public static final long DEFAULT_MAX_BYTES = 1024L * 1024 * 1024;
+
+	/**
+	 * Default size at which a pack file is sealed and a new one started (64 MB)
+	 */
+	public static final long DEFAULT_PACK_SIZE = 64L * 1024 * 1024;
+
+	private static final String PACK_PREFIX = "tiles-";
+	private static final String PACK_SUFFIX = ".pack";
+	private static final String DELETE_SUFFIX = ".delete";
+	private static final String INDEX_FILE = "tiles.index";
+	private static final int INDEX_MAGIC = 0x504d4154;
+	private static final int INDEX_VERSION = 1;
+
+	private static class Pack {
+		final long id;
+		final Path path;
+		final FileChannel channel;
+		long size;
+		// only set once the pack is sealed
+		MappedByteBuffer mapped;
+
+		Pack(long id, Path path, FileChannel channel, long size) {
+			this.id = id;
+			this.path = path;
+			this.channel = channel;
+			this.size = size;
+		}
+	}
+
+	private static class Location {
+		final Pack pack;
+		final long offset;
+		final int length;
+
+		Location(Pack pack, long offset, int length) {
+			this.pack = pack;
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+
+	private final Path directory;
+	private final long maxBytes;
+	private final long packSize;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	// oldest first; the last one is the pack being appended to
+	private final ArrayDeque<Pack> packs = new ArrayDeque<>();
+	private final Map<String, Location> index = new HashMap<>();
+	// evicted packs whose file couldn't be deleted yet
+	private final List<Pack> doomed = new ArrayList<>();
+	private long totalBytes = 0;
+	private boolean dirty = false;
+	private boolean closed = false;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Constructor, opens (or creates) a cache with the default size cap
+	 *
+	 * @param directory directory holding the pack files
+	 * @throws IOException if the directory or its packs can't be read
+	 */
+	public DiskTileCache(Path directory) throws IOException {
+		this(directory, DEFAULT_MAX_BYTES);
+	}
+
+	/**
+	 * Constructor, opens (or creates) a cache
+	 *
+	 * @param directory directory holding the pack files
+	 * @param maxBytes  cap on the total size of the pack files
+	 * @throws IOException if the directory or its packs can't be read
+	 */
+	public DiskTileCache(Path directory, long maxBytes) throws IOException {
+		// at least a few packs fit within the cap, so evicting one never empties
+		// the cache entirely
+		this(directory, maxBytes, Math.max(1024 * 1024, Math.min(DEFAULT_PACK_SIZE, maxBytes / 4)));
+	}
+
+	/**
+	 * Constructor, opens (or creates) a cache
+	 *
+	 * @param directory directory holding the pack files
+	 * @param maxBytes  cap on the total size of the pack files
+	 * @param packSize  size at which a pack file is sealed (at most 2 GB)
+	 * @throws IOException if the directory or its packs can't be read
+	 */
+	public DiskTileCache(Path directory, long maxBytes, long packSize) throws IOException {
+		if (maxBytes < 1 || packSize < 1 || packSize > Integer.MAX_VALUE) {
+			PmaLog.severe(() -> "DiskTileCache() : Invalid argument");
+			throw new IllegalArgumentException("maxBytes and packSize must be positive, packSize at most 2 GB");
+		}
+		this.directory = directory;
+		this.maxBytes = maxBytes;
+		this.packSize = packSize;
+		Files.createDirectories(directory);
+		open();
+	}
+
+	/**
+	 * This method is used to build the cache key of a tile
+	 *
+	 * @param server      PMA.core URL
+	 * @param fingerprint slide's fingerprint
+	 * @param x           x position
+	 * @param y           y position
+	 * @param zoomLevel   zoom level
+	 * @param zStack      z stack
+	 * @param format      image format
+	 * @param quality     quality
+	 * @return Cache key
+	 */
+	public static String key(String server, String fingerprint, int x, int y, int zoomLevel, int zStack,
+			String format, Integer quality) {
+		return server + "|" + fingerprint + "|" + x + "|" + y + "|" + zoomLevel + "|" + zStack + "|" + format + "|"
+				+ quality;
+	}
+
+	/**
+	 * This method is used to get a cached tile
+	 *
+	 * @param key cache key
+	 * @return Encoded tile, null if it isn't cached
+	 * @throws IOException if the pack file can't be read
+	 */
+	public byte[] get(String key) throws IOException {
+		lock.readLock().lock();
+		try {
+			Location location = index.get(key);
+			if (location == null) {
+				misses.increment();
+				PmaEvents.cacheLookup("diskTile", key, false);
+				return null;
+			}
+			byte[] data = new byte[location.length];
+			MappedByteBuffer mapped = location.pack.mapped;
+			if (mapped != null) {
+				ByteBuffer buffer = mapped.duplicate();
+				buffer.position((int) location.offset);
+				buffer.get(data);
+			} else {
+				ByteBuffer buffer = ByteBuffer.wrap(data);
+				long position = location.offset;
+				while (buffer.hasRemaining()) {
+					int n = location.pack.channel.read(buffer, position);
+					if (n < 0) {
+						throw new IOException("Unexpected end of " + location.pack.path);
+					}
+					position += n;
+				}
+			}
+			hits.increment();
+			PmaEvents.cacheLookup("diskTile", key, true);
+			return data;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to check whether a tile is cached
+	 *
+	 * @param key cache key
+	 * @return True if the tile is cached
+	 */
+	public boolean contains(String key) {
+		lock.readLock().lock();
+		try {
+			return index.containsKey(key);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to add a tile to the cache. Tiles that are already
+	 * cached are left alone
+	 *
+	 * @param key  cache key
+	 * @param data encoded tile
+	 * @throws IOException if the pack file can't be written
+	 */
+	public void put(String key, byte[] data) throws IOException {
+		byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+		int recordSize = 8 + keyBytes.length + data.length;
+		if (recordSize > packSize) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			if (closed) {
+				throw new IOException("DiskTileCache is closed");
+			}
+			if (index.containsKey(key)) {
+				return;
+			}
+			Pack pack = packs.peekLast();
+			if (pack == null || pack.size + recordSize > packSize) {
+				if (pack != null) {
+					seal(pack);
+				}
+				pack = createPack(pack == null ? 0 : pack.id + 1);
+			}
+			while (totalBytes + recordSize > maxBytes && packs.size() > 1) {
+				evictOldest();
+			}
+			ByteBuffer record = ByteBuffer.allocate(recordSize);
+			record.putInt(keyBytes.length).put(keyBytes).putInt(data.length).put(data);
+			record.flip();
+			long offset = pack.size;
+			long position = offset;
+			while (record.hasRemaining()) {
+				position += pack.channel.write(record, position);
+			}
+			pack.size += recordSize;
+			totalBytes += recordSize;
+			index.put(key, new Location(pack, offset + 8 + keyBytes.length, data.length));
+			dirty = true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to remove all cached tiles and delete the pack files.
+	 * Pack files that can't be deleted yet are marked for deletion
+	 *
+	 * @throws IOException if the index file can't be deleted
+	 */
+	public void clear() throws IOException {
+		lock.writeLock().lock();
+		try {
+			while (!packs.isEmpty()) {
+				deletePack(packs.pollFirst());
+			}
+			index.clear();
+			Files.deleteIfExists(directory.resolve(INDEX_FILE));
+			dirty = false;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to write pending tiles to disk and save the index, so
+	 * the next start doesn't need to scan the pack files
+	 *
+	 * @throws IOException if the index can't be written
+	 */
+	public void flush() throws IOException {
+		lock.writeLock().lock();
+		try {
+			if (closed) {
+				return;
+			}
+			retryDeletes();
+			if (!dirty) {
+				return;
+			}
+			for (Pack pack : packs) {
+				pack.channel.force(false);
+			}
+			writeIndex();
+			dirty = false;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to flush the cache and release its files
+	 *
+	 * @throws IOException if the index can't be written
+	 */
+	@Override
+	public void close() throws IOException {
+		lock.writeLock().lock();
+		try {
+			if (closed) {
+				return;
+			}
+			flush();
+			closed = true;
+			for (Pack pack : packs) {
+				pack.mapped = null;
+				pack.channel.close();
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the number of cached tiles
+	 */
+	public int count() {
+		lock.readLock().lock();
+		try {
+			return index.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the total size of the pack files in bytes
+	 */
+	public long size() {
+		lock.readLock().lock();
+		try {
+			return totalBytes;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the cap on the total size of the pack files
+	 */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * @return the directory holding the pack files
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * @return the number of lookups that found the tile cached
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of lookups that didn't find the tile cached
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return the number of pack files deleted to stay within the size cap
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "DiskTileCache [directory=" + directory + ", count=" + count() + ", size=" + size() + ", maxBytes="
+				+ maxBytes + ", hits=" + getHitCount() + ", misses=" + getMissCount() + ", evictions="
+				+ getEvictionCount() + "]";
+	}
+
+	/**
+	 * This method is used to open the existing packs and load (or rebuild) the
+	 * index
+	 */
+	private void open() throws IOException {
+		try (DirectoryStream<Path> stream = Files
+				.newDirectoryStream(directory, PACK_PREFIX + "*" + PACK_SUFFIX + DELETE_SUFFIX)) {
+			for (Path marker : stream) {
+				String name = marker.getFileName().toString();
+				try {
+					long id = Long.parseLong(name.substring(PACK_PREFIX.length(),
+							name.length() - PACK_SUFFIX.length() - DELETE_SUFFIX.length()));
+					Path path = packPath(id);
+					doomed.add(new Pack(id, path, null, Files.exists(path) ? Files.size(path) : 0));
+				} catch (NumberFormatException e) {
+					// not one of ours
+				}
+			}
+		}
+		for (Pack pack : doomed) {
+			totalBytes += pack.size;
+		}
+		retryDeletes();
+		List<Long> ids = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PACK_PREFIX + "*" + PACK_SUFFIX)) {
+			for (Path path : stream) {
+				String name = path.getFileName().toString();
+				try {
+					ids.add(Long.parseLong(name.substring(PACK_PREFIX.length(), name.length() - PACK_SUFFIX.length())));
+				} catch (NumberFormatException e) {
+					// not one of ours
+				}
+			}
+		}
+		for (Pack pack : doomed) {
+			ids.remove(Long.valueOf(pack.id));
+		}
+		Collections.sort(ids);
+		for (long id : ids) {
+			Path path = packPath(id);
+			FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			Pack pack = new Pack(id, path, channel, channel.size());
+			packs.addLast(pack);
+			totalBytes += pack.size;
+		}
+		if (!readIndex()) {
+			index.clear();
+			for (Pack pack : packs) {
+				scan(pack);
+			}
+			dirty = true;
+		}
+		for (Pack pack : packs) {
+			if (pack != packs.peekLast()) {
+				seal(pack);
+			}
+		}
+		while (totalBytes > maxBytes && packs.size() > 1) {
+			evictOldest();
+		}
+	}
+
+	/**
+	 * This method is used to rebuild the index entries of a pack from its records,
+	 * cutting off a record that was only partially written
+	 */
+	private void scan(Pack pack) throws IOException {
+		if (pack.size == 0) {
+			return;
+		}
+		MappedByteBuffer buffer = pack.channel.map(FileChannel.MapMode.READ_ONLY, 0, pack.size);
+		int position = 0;
+		while (position + 8 <= pack.size) {
+			int keyLength = buffer.getInt(position);
+			if (keyLength < 0 || position + 4L + keyLength + 4 > pack.size) {
+				break;
+			}
+			int dataLength = buffer.getInt(position + 4 + keyLength);
+			long end = position + 8L + keyLength + dataLength;
+			if (dataLength < 0 || end > pack.size) {
+				break;
+			}
+			byte[] keyBytes = new byte[keyLength];
+			ByteBuffer keyBuffer = buffer.duplicate();
+			keyBuffer.position(position + 4);
+			keyBuffer.get(keyBytes);
+			index.put(new String(keyBytes, StandardCharsets.UTF_8),
+					new Location(pack, position + 8L + keyLength, dataLength));
+			position = (int) end;
+		}
+		if (position < pack.size) {
+			totalBytes -= pack.size - position;
+			pack.channel.truncate(position);
+			pack.size = position;
+		}
+	}
+
+	/**
+	 * This method is used to load the saved index, provided it was written for the
+	 * packs as they are on disk now
+	 *
+	 * @return True if the index was loaded
+	 */
+	private boolean readIndex() {
+		Path indexPath = directory.resolve(INDEX_FILE);
+		if (!Files.exists(indexPath)) {
+			return false;
+		}
+		Map<Long, Pack> byId = new HashMap<>();
+		for (Pack pack : packs) {
+			byId.put(pack.id, pack);
+		}
+		try (InputStream in = Files.newInputStream(indexPath);
+				DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+			if (data.readInt() != INDEX_MAGIC || data.readInt() != INDEX_VERSION) {
+				return false;
+			}
+			int packCount = data.readInt();
+			if (packCount != packs.size()) {
+				return false;
+			}
+			for (int i = 0; i < packCount; i++) {
+				Pack pack = byId.get(data.readLong());
+				if (pack == null || pack.size != data.readLong()) {
+					return false;
+				}
+			}
+			int entryCount = data.readInt();
+			for (int i = 0; i < entryCount; i++) {
+				String key = data.readUTF();
+				Pack pack = byId.get(data.readLong());
+				long offset = data.readLong();
+				int length = data.readInt();
+				if (pack == null || offset + length > pack.size) {
+					return false;
+				}
+				index.put(key, new Location(pack, offset, length));
+			}
+			return true;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * This method is used to save the index; it is written to a temporary file
+	 * first so a crash never leaves a truncated index behind
+	 */
+	private void writeIndex() throws IOException {
+		Path indexPath = directory.resolve(INDEX_FILE);
+		Path tempPath = directory.resolve(INDEX_FILE + ".tmp");
+		try (OutputStream out = Files.newOutputStream(tempPath);
+				DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out))) {
+			data.writeInt(INDEX_MAGIC);
+			data.writeInt(INDEX_VERSION);
+			data.writeInt(packs.size());
+			for (Pack pack : packs) {
+				data.writeLong(pack.id);
+				data.writeLong(pack.size);
+			}
+			data.writeInt(index.size());
+			for (Map.Entry<String, Location> entry : index.entrySet()) {
+				data.writeUTF(entry.getKey());
+				data.writeLong(entry.getValue().pack.id);
+				data.writeLong(entry.getValue().offset);
+				data.writeInt(entry.getValue().length);
+			}
+		}
+		Files.move(tempPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private Pack createPack(long id) throws IOException {
+		Path path = packPath(id);
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		Pack pack = new Pack(id, path, channel, channel.size());
+		packs.addLast(pack);
+		totalBytes += pack.size;
+		return pack;
+	}
+
+	private void seal(Pack pack) throws IOException {
+		if (pack.mapped == null && pack.size > 0) {
+			pack.mapped = pack.channel.map(FileChannel.MapMode.READ_ONLY, 0, pack.size);
+		}
+	}
+
+	private void evictOldest() {
+		retryDeletes();
+		Pack oldest = packs.pollFirst();
+		Iterator<Location> iterator = index.values().iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next().pack == oldest) {
+				iterator.remove();
+			}
+		}
+		deletePack(oldest);
+		evictions.increment();
+		dirty = true;
+	}
+
+	/**
+	 * This method is used to delete a pack that was removed from the packs and
+	 * the index. Its size is only taken off the total once its file is gone; if
+	 * the file can't be deleted yet, it is marked for deletion and retried later
+	 */
+	private void deletePack(Pack pack) {
+		// dropping the mapping lets it be unmapped once it is garbage collected,
+		// after which Windows allows the file to be deleted
+		pack.mapped = null;
+		try {
+			pack.channel.close();
+		} catch (IOException e) {
+			// the pack isn't used anymore
+		}
+		if (!delete(pack)) {
+			doomed.add(pack);
+			try {
+				Files.createFile(deleteMarkerPath(pack.id));
+			} catch (FileAlreadyExistsException e) {
+				// marked before
+			} catch (IOException e) {
+				PmaLog.error(() -> "Unable to mark " + pack.path + " for deletion", e);
+			}
+		}
+	}
+
+	private boolean delete(Pack pack) {
+		try {
+			Files.deleteIfExists(pack.path);
+		} catch (IOException e) {
+			return false;
+		}
+		totalBytes -= pack.size;
+		try {
+			Files.deleteIfExists(deleteMarkerPath(pack.id));
+		} catch (IOException e) {
+			// a marker without pack is cleaned up on the next open
+		}
+		return true;
+	}
+
+	private void retryDeletes() {
+		doomed.removeIf(this::delete);
+	}
+
+	private Path packPath(long id) {
+		return directory.resolve(PACK_PREFIX + id + PACK_SUFFIX);
+	}
+
+	private Path deleteMarkerPath(long id) {
+		return directory.resolve(PACK_PREFIX + id + PACK_SUFFIX + DELETE_SUFFIX);
+	}
+}
@@ -0,0 +1,232 @@
+package com.pathomation;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Amount of data a client downloaded, in total, per session and per endpoint.
+ * <p>
+ * Every response body that goes through the {@link HttpTransport} is counted
+ * twice: the bytes as they came over the wire (compressed, if the server
+ * compressed them) and the bytes after decompression. Headers aren't counted.
+ * The session is the one the request was made for, which posts pass to the
+ * transport since their session ID is in the body, and otherwise the sessionID
+ * parameter of the request's URL; the endpoint is the last alphabetic segment
+ * of its path (GetImageInfo, tile, thumbnail...).
+ * Requests without a session ID (authentication, version checks...) are only
+ * counted in the total and per endpoint.
+ * </p>
+ * <p>
+ * The counters are built on LongAdder, so they don't lose updates however many
+ * threads download at once, and have a 64-bit range.
+ * </p>
+ */
+public class DownloadStats {
+
+	/**
+	 * Counters of one session, endpoint or of the total
+	 */
+	public static final class Counter {
+
+		private final LongAdder requests = new LongAdder();
+		private final LongAdder wireBytes = new LongAdder();
+		private final LongAdder decodedBytes = new LongAdder();
+
+		void add(long wire, long decoded) {
+			requests.increment();
+			wireBytes.add(wire);
+			decodedBytes.add(decoded);
+		}
+
+		/**
+		 * @return the number of responses received
+		 */
+		public long getRequestCount() {
+			return requests.sum();
+		}
+
+		/**
+		 * @return the number of body bytes received over the wire
+		 */
+		public long getWireBytes() {
+			return wireBytes.sum();
+		}
+
+		/**
+		 * @return the number of body bytes after decompression
+		 */
+		public long getDecodedBytes() {
+			return decodedBytes.sum();
+		}
+
+		@Override
+		public String toString() {
+			return "Counter [requests=" + requests.sum() + ", wireBytes=" + wireBytes.sum() + ", decodedBytes="
+					+ decodedBytes.sum() + "]";
+		}
+	}
+
+	private final Counter total = new Counter();
+	private final Map<String, Counter> sessions = new ConcurrentHashMap<>();
+	private final Map<String, Counter> endpoints = new ConcurrentHashMap<>();
+
+	/**
+	 * This method is used to count a response
+	 *
+	 * @param url       URL requested
+	 * @param sessionID session the request was made for, null to take the
+	 *                  sessionID parameter of the URL
+	 * @param wire      number of body bytes received over the wire
+	 * @param decoded   number of body bytes after decompression
+	 */
+	void record(String url, String sessionID, long wire, long decoded) {
+		total.add(wire, decoded);
+		endpoints.computeIfAbsent(endpointOf(url), k -> new Counter()).add(wire, decoded);
+		if (sessionID == null) {
+			sessionID = sessionOf(url);
+		}
+		if (sessionID != null) {
+			sessions.computeIfAbsent(sessionID, k -> new Counter()).add(wire, decoded);
+		}
+	}
+
+	/**
+	 * @return the counters of all responses
+	 */
+	public Counter getTotal() {
+		return total;
+	}
+
+	/**
+	 * This method is used to get the counters of a session
+	 *
+	 * @param sessionID session's ID
+	 * @return Counters, null if nothing was downloaded for the session
+	 */
+	public Counter getSession(String sessionID) {
+		return sessionID != null ? sessions.get(sessionID) : null;
+	}
+
+	/**
+	 * @return the counters per session's ID
+	 */
+	public Map<String, Counter> getSessions() {
+		return Collections.unmodifiableMap(sessions);
+	}
+
+	/**
+	 * @return the counters per endpoint
+	 */
+	public Map<String, Counter> getEndpoints() {
+		return Collections.unmodifiableMap(endpoints);
+	}
+
+	/**
+	 * This method is used to get the number of body bytes received over the wire
+	 * for a session
+	 *
+	 * @param sessionID session's ID
+	 * @return Number of bytes, 0 if nothing was downloaded for the session
+	 */
+	public long getWireBytes(String sessionID) {
+		Counter counter = getSession(sessionID);
+		return counter != null ? counter.getWireBytes() : 0;
+	}
+
+	/**
+	 * This method is used to forget the counters of a session
+	 *
+	 * @param sessionID session's ID
+	 */
+	public void removeSession(String sessionID) {
+		if (sessionID != null) {
+			sessions.remove(sessionID);
+		}
+	}
+
+	/**
+	 * This method is used to get the session ID a URL is requested for
+	 *
+	 * @param url URL
+	 * @return Value of its sessionID parameter (case insensitive), null if none
+	 */
+	static String sessionOf(String url) {
+		return parameter(url, "sessionID");
+	}
+
+	/**
+	 * This method is used to get a parameter of a URL's query
+	 *
+	 * @param url  URL
+	 * @param name parameter's name (case insensitive)
+	 * @return Decoded value of the first non empty occurrence, null if none
+	 */
+	static String parameter(String url, String name) {
+		int query = url.indexOf('?');
+		if (query < 0) {
+			return null;
+		}
+		int end = url.indexOf('#', query);
+		for (String param : url.substring(query + 1, end < 0 ? url.length() : end).split("&")) {
+			int eq = param.indexOf('=');
+			if (eq > 0 && param.substring(0, eq).equalsIgnoreCase(name) && eq < param.length() - 1) {
+				try {
+					return URLDecoder.decode(param.substring(eq + 1), "UTF-8");
+				} catch (UnsupportedEncodingException | IllegalArgumentException e) {
+					return param.substring(eq + 1);
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * This method is used to get the endpoint a URL is requested from. IDs and
+	 * file names in the path are skipped, so they don't each get a counter
+	 *
+	 * @param url URL
+	 * @return Last alphabetic segment of its path, "/" if none
+	 */
+	static String endpointOf(String url) {
+		int start = url.indexOf("://");
+		start = url.indexOf('/', start < 0 ? 0 : start + 3);
+		if (start < 0) {
+			return "/";
+		}
+		int end = url.length();
+		for (char c : new char[] { '?', '#' }) {
+			int i = url.indexOf(c, start);
+			if (i >= 0 && i < end) {
+				end = i;
+			}
+		}
+		String[] segments = url.substring(start, end).split("/");
+		for (int i = segments.length - 1; i >= 0; i--) {
+			String segment = segments[i];
+			if (!segment.isEmpty() && segment.length() <= 64 && isAlphabetic(segment)) {
+				return segment;
+			}
+		}
+		return "/";
+	}
+
+	private static boolean isAlphabetic(String segment) {
+		for (int i = 0; i < segment.length(); i++) {
+			char c = segment.charAt(i);
+			if ((c < 'A' || c > 'Z') && (c < 'a' || c > 'z')) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "DownloadStats [sessions=" + sessions.size() + ", endpoints=" + endpoints.size() + ", total=" + total
+				+ "]";
+	}
+}
@@ -0,0 +1,48 @@
+package com.pathomation;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a server answers a request with an HTTP status code the caller
+ * can't use
+ */
+public class HttpStatusException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int status;
+	private final String url;
+
+	/**
+	 * Constructor
+	 *
+	 * @param status HTTP status code
+	 * @param url    requested URL
+	 */
+	public HttpStatusException(int status, String url) {
+		super("Server returned HTTP response code: " + status + " for URL: " + url);
+		this.status = status;
+		this.url = url;
+	}
+
+	/**
+	 * @return the HTTP status code
+	 */
+	public int getStatus() {
+		return status;
+	}
+
+	/**
+	 * @return the requested URL
+	 */
+	public String getUrl() {
+		return url;
+	}
+
+	/**
+	 * @return true if the status means the resource doesn't exist (404 or 410)
+	 */
+	public boolean isNotFound() {
+		return status == 404 || status == 410;
+	}
+}
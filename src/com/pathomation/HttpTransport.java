@@ -0,0 +1,1003 @@
+package com.pathomation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * HTTP transport used by Core, Control and CoreAdmin to talk to PMA.core (and
+ * PMA.start / PMA.control) instances, through the current {@link PmaClient}.
+ * <p>
+ * Connections are handed back to the JDK keep-alive cache by always draining
+ * and closing the response streams, so consecutive requests against the same
+ * host reuse the same socket (and TLS session) instead of performing a new
+ * handshake every time. The number of simultaneous connections per host is
+ * bounded by a {@link ConcurrencyLimiter}, which adapts the bound between 1 and
+ * the maximum number of connections per host to how the server copes, and lets
+ * interactive requests go ahead of batch ones.
+ * </p>
+ * <p>
+ * The JDK keep-alive cache itself is global: how many idle connections it
+ * keeps per host and for how long is set once for the whole JVM, through
+ * {@link #configureKeepAlive(int, int)}, not per transport.
+ * </p>
+ * <p>
+ * Failed GET requests are retried according to the {@link RetryPolicy}, and
+ * every server has a {@link CircuitBreaker} that makes requests fail fast once
+ * the server stopped answering. Other methods are sent once, as they may not
+ * be idempotent.
+ * </p>
+ * <p>
+ * Identical GET requests made at the same time through getString(), getBytes()
+ * or getJSON() share a single request and its result (see {@link SingleFlight}),
+ * so many users opening the same slide at once don't send the same requests
+ * over and over. Byte arrays are copied for every caller; other shared results
+ * (strings, decoded json) are the same object for all callers and must not be
+ * modified.
+ * </p>
+ * <p>
+ * Every request has a connect and a read timeout, shortened to the time left
+ * when the calling thread has a {@link Deadline}.
+ * </p>
+ * <p>
+ * Text and JSON requests accept gzip and deflate compressed responses, which
+ * are decompressed while they are read, so handlers always see the plain body.
+ * Binary content (tiles, thumbnails...) is requested as is: it is already
+ * compressed, and copy() hands it over untouched.
+ * </p>
+ * <p>
+ * A custom transport can be plugged in through {@link #setDefault(HttpTransport)}
+ * </p>
+ */
+public class HttpTransport {
+
+	/**
+	 * Callback used to consume a response body while the connection (and its
+	 * permit) is still held by the transport
+	 *
+	 * @param <T> Type of the value produced from the response
+	 */
+	public interface ResponseHandler<T> {
+		/**
+		 * This method is used to turn a response into a value
+		 *
+		 * @param con connection the response was received on
+		 * @param in  response body (the error stream for non 2xx responses), may
+		 *            be null when the server didn't send a body
+		 * @return Value produced from the response
+		 * @throws IOException if reading the response fails
+		 */
+		T handle(HttpURLConnection con, InputStream in) throws IOException;
+	}
+
+	/**
+	 * Default maximum number of simultaneous connections per host
+	 */
+	public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 16;
+	/**
+	 * Default number of seconds an idle connection is kept alive by the JDK
+	 * keep-alive cache
+	 */
+	public static final int DEFAULT_KEEP_ALIVE_SECONDS = 30;
+	/**
+	 * Default number of cached TLS sessions
+	 */
+	public static final int DEFAULT_TLS_SESSION_CACHE_SIZE = 256;
+	/**
+	 * Default lifetime (in seconds) of a cached TLS session
+	 */
+	public static final int DEFAULT_TLS_SESSION_TIMEOUT_SECONDS = 3600;
+	/**
+	 * Default number of milliseconds to wait for a connection to be established
+	 */
+	public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 10000;
+	/**
+	 * Default number of milliseconds to wait for data on an established
+	 * connection
+	 */
+	public static final int DEFAULT_READ_TIMEOUT_MILLIS = 60000;
+
+	private static volatile HttpTransport defaultTransport;
+
+	private final int maxConnectionsPerHost;
+	private final SSLSocketFactory sslSocketFactory;
+	private final Map<String, ConcurrencyLimiter> hostLimiters = new ConcurrentHashMap<>();
+	private final Map<String, CircuitBreaker> hostBreakers = new ConcurrentHashMap<>();
+	private volatile RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+	private final LongAdder retries = new LongAdder();
+	private final SingleFlight singleFlight = new SingleFlight();
+	private volatile boolean coalescing = true;
+	private volatile int connectTimeoutMillis = DEFAULT_CONNECT_TIMEOUT_MILLIS;
+	private volatile int readTimeoutMillis = DEFAULT_READ_TIMEOUT_MILLIS;
+
+	/**
+	 * Signals a failed attempt that may be retried
+	 */
+	private static class RetryableException extends IOException {
+		private static final long serialVersionUID = 1L;
+		private final long retryAfterMillis;
+
+		RetryableException(IOException cause, long retryAfterMillis) {
+			super(cause.getMessage(), cause);
+			this.retryAfterMillis = retryAfterMillis;
+		}
+	}
+
+	/**
+	 * Creates a transport using the default settings
+	 */
+	public HttpTransport() {
+		this(DEFAULT_MAX_CONNECTIONS_PER_HOST, DEFAULT_TLS_SESSION_CACHE_SIZE, DEFAULT_TLS_SESSION_TIMEOUT_SECONDS);
+	}
+
+	/**
+	 * Creates a transport
+	 *
+	 * @param maxConnectionsPerHost    maximum number of simultaneous connections
+	 *                                 to a single host
+	 * @param tlsSessionCacheSize      number of TLS sessions kept for resumption
+	 * @param tlsSessionTimeoutSeconds lifetime of a cached TLS session
+	 */
+	public HttpTransport(int maxConnectionsPerHost, int tlsSessionCacheSize, int tlsSessionTimeoutSeconds) {
+		this(maxConnectionsPerHost, defaultSSLContext(tlsSessionCacheSize, tlsSessionTimeoutSeconds));
+	}
+
+	/**
+	 * Creates a transport using a custom SSL context
+	 *
+	 * @param maxConnectionsPerHost maximum number of simultaneous connections to a
+	 *                              single host
+	 * @param sslContext            SSL context used for https connections, null
+	 *                              to use the JVM defaults
+	 */
+	public HttpTransport(int maxConnectionsPerHost, SSLContext sslContext) {
+		if (maxConnectionsPerHost < 1) {
+			throw new IllegalArgumentException("maxConnectionsPerHost must be at least 1");
+		}
+		this.maxConnectionsPerHost = maxConnectionsPerHost;
+		// a single socket factory per transport, otherwise the JDK keep-alive cache
+		// can't match https connections to each other
+		this.sslSocketFactory = sslContext != null ? sslContext.getSocketFactory() : null;
+	}
+
+	/**
+	 * This method is used to get the transport shared by the clients created
+	 * without a transport of their own, including the default client. Creating it
+	 * configures the JDK keep-alive cache with the default settings, unless the
+	 * application configured it first
+	 *
+	 * @return Shared transport
+	 */
+	public static HttpTransport getDefault() {
+		HttpTransport transport = defaultTransport;
+		if (transport == null) {
+			synchronized (HttpTransport.class) {
+				if (defaultTransport == null) {
+					configureKeepAlive(DEFAULT_MAX_CONNECTIONS_PER_HOST, DEFAULT_KEEP_ALIVE_SECONDS);
+					defaultTransport = new HttpTransport();
+				}
+				transport = defaultTransport;
+			}
+		}
+		return transport;
+	}
+
+	/**
+	 * This method is used to replace the transport shared by the clients created
+	 * without a transport of their own
+	 *
+	 * @param transport New transport
+	 */
+	public static void setDefault(HttpTransport transport) {
+		if (transport == null) {
+			throw new IllegalArgumentException("transport can't be null");
+		}
+		defaultTransport = transport;
+	}
+
+	/**
+	 * @return the maximum number of simultaneous connections per host
+	 */
+	public int getMaxConnectionsPerHost() {
+		return maxConnectionsPerHost;
+	}
+
+	/**
+	 * This method is used to get the limiter of the server a URL belongs to, e.g.
+	 * to monitor its current limit, requests in flight and queue depth
+	 *
+	 * @param url any URL of the server, such as Core.pmaUrl()
+	 * @return Limiter shared by all requests to the server's host and port
+	 * @throws IOException if the URL is malformed
+	 */
+	public ConcurrencyLimiter getLimiter(String url) throws IOException {
+		return hostLimiters.computeIfAbsent(hostKey(new URL(url)), this::newLimiter);
+	}
+
+	/**
+	 * This method is used to get the circuit breaker of the server a URL belongs
+	 * to, e.g. to monitor or tune it
+	 *
+	 * @param url any URL of the server, such as Core.pmaUrl()
+	 * @return Circuit breaker shared by all requests to the server's host and port
+	 * @throws IOException if the URL is malformed
+	 */
+	public CircuitBreaker getCircuitBreaker(String url) throws IOException {
+		return hostBreakers.computeIfAbsent(hostKey(new URL(url)), CircuitBreaker::new);
+	}
+
+	/**
+	 * @return the limiter of every server a request was sent to, per server
+	 *         (protocol://host:port)
+	 */
+	public Map<String, ConcurrencyLimiter> getLimiters() {
+		return Collections.unmodifiableMap(hostLimiters);
+	}
+
+	/**
+	 * @return the circuit breaker of every server a request was sent to, per
+	 *         server (protocol://host:port)
+	 */
+	public Map<String, CircuitBreaker> getCircuitBreakers() {
+		return Collections.unmodifiableMap(hostBreakers);
+	}
+
+	/**
+	 * @return the policy used to retry failed GET requests
+	 */
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	/**
+	 * @param retryPolicy the policy used to retry failed GET requests,
+	 *                    RetryPolicy.NONE to disable retries
+	 */
+	public void setRetryPolicy(RetryPolicy retryPolicy) {
+		if (retryPolicy == null) {
+			throw new IllegalArgumentException("retryPolicy can't be null");
+		}
+		this.retryPolicy = retryPolicy;
+	}
+
+	/**
+	 * @return the number of requests sent again after a transient failure
+	 */
+	public long getRetryCount() {
+		return retries.sum();
+	}
+
+	/**
+	 * @return the number of milliseconds to wait for a connection to be
+	 *         established
+	 */
+	public int getConnectTimeoutMillis() {
+		return connectTimeoutMillis;
+	}
+
+	/**
+	 * @param connectTimeoutMillis the number of milliseconds to wait for a
+	 *                             connection to be established, 0 to wait
+	 *                             forever
+	 */
+	public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+		if (connectTimeoutMillis < 0) {
+			throw new IllegalArgumentException("connectTimeoutMillis must not be negative");
+		}
+		this.connectTimeoutMillis = connectTimeoutMillis;
+	}
+
+	/**
+	 * @return the number of milliseconds to wait for data on an established
+	 *         connection
+	 */
+	public int getReadTimeoutMillis() {
+		return readTimeoutMillis;
+	}
+
+	/**
+	 * @param readTimeoutMillis the number of milliseconds to wait for data on an
+	 *                          established connection, 0 to wait forever
+	 */
+	public void setReadTimeoutMillis(int readTimeoutMillis) {
+		if (readTimeoutMillis < 0) {
+			throw new IllegalArgumentException("readTimeoutMillis must not be negative");
+		}
+		this.readTimeoutMillis = readTimeoutMillis;
+	}
+
+	/**
+	 * @return the single flight group identical GET requests are coalesced in,
+	 *         e.g. to monitor how many requests were saved
+	 */
+	public SingleFlight getSingleFlight() {
+		return singleFlight;
+	}
+
+	/**
+	 * @return true if identical GET requests in flight are coalesced
+	 */
+	public boolean isCoalescing() {
+		return coalescing;
+	}
+
+	/**
+	 * @param coalescing true to coalesce identical GET requests in flight
+	 */
+	public void setCoalescing(boolean coalescing) {
+		this.coalescing = coalescing;
+	}
+
+	/**
+	 * This method is used to execute a request and hand the response to a
+	 * handler. The response body is drained and closed afterwards so the
+	 * underlying socket can be reused. A GET request that fails with a transient
+	 * error, including one thrown by the handler, is sent again, so the handler
+	 * may be called more than once. The server may compress the response; the
+	 * handler gets the decompressed body
+	 *
+	 * @param <T>         Type of the value produced by the handler
+	 * @param method      HTTP method (GET, POST...)
+	 * @param url         URL to request
+	 * @param contentType Content-Type of the request body, may be null
+	 * @param body        Request body, may be null
+	 * @param accept      Accept header, may be null
+	 * @param handler     Handler consuming the response
+	 * @return Value produced by the handler
+	 * @throws IOException if the request fails, CircuitBreaker.OpenException if
+	 *                     the server is known to be unavailable
+	 */
+	public <T> T execute(String method, String url, String contentType, byte[] body, String accept,
+			ResponseHandler<T> handler) throws IOException {
+		return execute(method, url, null, contentType, body, accept, handler, true, true);
+	}
+
+	/**
+	 * This method is used to execute a request made on behalf of a session whose
+	 * ID isn't in the URL (e.g. it is in a posted body), so the response is
+	 * counted for that session in the download statistics
+	 *
+	 * @param <T>         Type of the value produced by the handler
+	 * @param method      HTTP method (GET, POST...)
+	 * @param url         URL to request
+	 * @param sessionID   session the request is made for, null to take the
+	 *                    sessionID parameter of the URL
+	 * @param contentType Content-Type of the request body, may be null
+	 * @param body        Request body, may be null
+	 * @param accept      Accept header, may be null
+	 * @param handler     Handler consuming the response
+	 * @return Value produced by the handler
+	 * @throws IOException if the request fails, CircuitBreaker.OpenException if
+	 *                     the server is known to be unavailable
+	 * @see #execute(String, String, String, byte[], String, ResponseHandler)
+	 */
+	public <T> T execute(String method, String url, String sessionID, String contentType, byte[] body,
+			String accept, ResponseHandler<T> handler) throws IOException {
+		return execute(method, url, sessionID, contentType, body, accept, handler, true, true);
+	}
+
+	/**
+	 * @param sessionID   session the request is made for, null to take the
+	 *                    sessionID parameter of the URL
+	 * @param replayable  false if a failing handler may have had side effects, in
+	 *                    which case only failures before the handler was called
+	 *                    are retried
+	 * @param compression true to accept a compressed response
+	 */
+	private <T> T execute(String method, String url, String sessionID, String contentType, byte[] body,
+			String accept, ResponseHandler<T> handler, boolean replayable, boolean compression) throws IOException {
+		URL urlResource = new URL(url);
+		String key = hostKey(urlResource);
+		ConcurrencyLimiter limiter = hostLimiters.computeIfAbsent(key, this::newLimiter);
+		CircuitBreaker breaker = hostBreakers.computeIfAbsent(key, CircuitBreaker::new);
+		PmaMetrics.Endpoint metrics = PmaClient.current().getMetrics().endpoint(key, DownloadStats.endpointOf(url));
+		RetryPolicy policy = "GET".equals(method) ? retryPolicy : RetryPolicy.NONE;
+		for (int attempt = 1;; attempt++) {
+			boolean mayRetry = attempt < policy.getMaxAttempts();
+			try {
+				return attempt(method, urlResource, url, sessionID, contentType, body, accept, compression, handler,
+						limiter, breaker, metrics, mayRetry, mayRetry && replayable);
+			} catch (RetryableException e) {
+				long delay = policy.delayMillis(attempt, e.retryAfterMillis);
+				Deadline deadline = Deadline.current();
+				if (deadline != null && delay >= deadline.remainingMillis()) {
+					// no time left for another attempt
+					throw (IOException) e.getCause();
+				}
+				int failed = attempt;
+				PmaLog.warning(() -> "Attempt " + failed + " of " + method + " " + url + " failed ("
+						+ e.getMessage() + "), retrying in " + delay + " ms");
+				retries.increment();
+				try {
+					Thread.sleep(delay);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while waiting to retry " + url);
+				}
+			}
+		}
+	}
+
+	/**
+	 * This method is used to send a request once. Failures are thrown as
+	 * RetryableException when another attempt may follow and is worth it
+	 */
+	private <T> T attempt(String method, URL urlResource, String url, String sessionID, String contentType,
+			byte[] body, String accept, boolean compression, ResponseHandler<T> handler, ConcurrencyLimiter limiter,
+			CircuitBreaker breaker, PmaMetrics.Endpoint metrics, boolean mayRetry, boolean mayReplayHandler)
+			throws IOException {
+		Deadline deadline = Deadline.current();
+		if (deadline != null) {
+			deadline.check(method + " " + url);
+		}
+		breaker.acquire();
+		ConcurrencyLimiter.Permit permit;
+		try {
+			permit = limiter.acquire(ConcurrencyLimiter.getPriority(),
+					deadline != null ? Math.max(0, deadline.remainingNanos()) : Long.MAX_VALUE);
+		} catch (InterruptedException e) {
+			breaker.cancel();
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a connection to " + urlResource.getHost());
+		}
+		if (permit == null) {
+			breaker.cancel();
+			throw new Deadline.ExceededException(
+					"Deadline exceeded while waiting for a connection to " + urlResource.getHost());
+		}
+		// failing to get an answer at all counts as overload, failing to handle it
+		// doesn't
+		boolean overloaded = true;
+		boolean answered = false;
+		boolean failed = true;
+		int status = 0;
+		CountingInputStream in = null;
+		InputStream decoded = null;
+		Throwable thrown = null;
+		Object event = PmaEvents.beginRequest();
+		long start = System.nanoTime();
+		try {
+			try {
+				HttpURLConnection con = open(urlResource, deadline);
+				con.setRequestMethod(method);
+				if (accept != null) {
+					con.setRequestProperty("Accept", accept);
+				}
+				if (compression) {
+					con.setRequestProperty("Accept-Encoding", "gzip, deflate");
+				}
+				if (body != null) {
+					if (contentType != null) {
+						con.setRequestProperty("Content-Type", contentType);
+					}
+					con.setDoOutput(true);
+					con.setFixedLengthStreamingMode(body.length);
+					try (OutputStream os = con.getOutputStream()) {
+						os.write(body);
+					}
+				}
+				in = CountingInputStream.wrap(responseStream(con));
+				status = con.getResponseCode();
+				answered = true;
+				overloaded = status == 429 || status == 503;
+				failed = status == 429 || status >= 500;
+				if (status == 502 || status == 503 || status == 504) {
+					breaker.onFailure();
+				} else {
+					breaker.onSuccess();
+				}
+				if (mayRetry && RetryPolicy.isRetryable(status)) {
+					long retryAfterMillis = retryAfterMillis(con);
+					release(url, sessionID, in, in, metrics);
+					throw new RetryableException(new HttpStatusException(status, url), retryAfterMillis);
+				}
+				decoded = in;
+				try {
+					decoded = decode(con, in);
+					if (decoded != in) {
+						decoded = new CountingInputStream(decoded);
+					}
+					return handler.handle(con, decoded);
+				} catch (IOException e) {
+					// an error status turned into an exception was already judged above
+					failed |= !(e instanceof HttpStatusException);
+					if (mayReplayHandler && RetryPolicy.isRetryable(e)) {
+						throw new RetryableException(e, -1);
+					}
+					throw e;
+				} finally {
+					release(url, sessionID, in, decoded, metrics);
+				}
+			} catch (RetryableException e) {
+				thrown = e.getCause();
+				throw e;
+			} catch (IOException e) {
+				thrown = e;
+				if (deadline != null && deadline.isExpired() && e instanceof SocketTimeoutException) {
+					// the timeout was cut short by the deadline, it says nothing about the server
+					if (!answered) {
+						breaker.cancel();
+					}
+					throw new Deadline.ExceededException("Deadline exceeded during " + method + " " + url, e);
+				}
+				if (!answered) {
+					if (e instanceof InterruptedIOException && !(e instanceof SocketTimeoutException)) {
+						breaker.cancel();
+					} else {
+						breaker.onFailure();
+					}
+					if (mayRetry && RetryPolicy.isRetryable(e)) {
+						throw new RetryableException(e, -1);
+					}
+				}
+				throw e;
+			} catch (RuntimeException e) {
+				thrown = e;
+				if (!answered) {
+					breaker.cancel();
+				}
+				throw e;
+			}
+		} finally {
+			metrics.record(System.nanoTime() - start, failed);
+			PmaEvents.endRequest(event, method, url, metrics.getServer(), metrics.getEndpoint(), status,
+					in != null ? in.count : 0, decodedBytes(in, decoded), thrown);
+			limiter.release(permit, overloaded);
+		}
+	}
+
+	/**
+	 * This method is used to get the body of a response as a string. Like
+	 * {@link PMA#getJSONAsStringBuffer(HttpURLConnection)}, the error body is
+	 * returned for non 2xx responses and line breaks are dropped
+	 *
+	 * @param url    URL to request
+	 * @param accept Accept header, may be null
+	 * @return Response body
+	 * @throws IOException if the request fails
+	 */
+	public String getString(String url, String accept) throws IOException {
+		return coalesce("text", url, accept, () -> execute("GET", url, null, null, accept, HttpTransport::readText));
+	}
+
+	/**
+	 * This method is used to get a JSON response decoded with Jackson's streaming
+	 * parser while it is received
+	 *
+	 * @param url URL to request
+	 * @return Decoded response: a Map for json objects, a List for json arrays, or
+	 *         a scalar
+	 * @throws IOException if the request fails or the response isn't valid json
+	 */
+	public Object getJSON(String url) throws IOException {
+		return coalesce("json", url, "application/json",
+				() -> execute("GET", url, null, null, "application/json", PMA::readJSON));
+	}
+
+	/**
+	 * This method is used to post JSON data and get the body of the response as
+	 * a string
+	 *
+	 * @param url    URL to request
+	 * @param data   JSON payload
+	 * @param accept Accept header, may be null
+	 * @return Response body
+	 * @throws IOException if the request fails
+	 */
+	public String postString(String url, String data, String accept) throws IOException {
+		return postString(url, data, accept, null);
+	}
+
+	/**
+	 * This method is used to post JSON data on behalf of a session and get the
+	 * body of the response as a string
+	 *
+	 * @param url       URL to request
+	 * @param data      JSON payload
+	 * @param accept    Accept header, may be null
+	 * @param sessionID session the data is posted for, null to take the
+	 *                  sessionID parameter of the URL
+	 * @return Response body
+	 * @throws IOException if the request fails
+	 */
+	public String postString(String url, String data, String accept, String sessionID) throws IOException {
+		return execute("POST", url, sessionID, "application/json", data.getBytes(StandardCharsets.UTF_8), accept,
+				HttpTransport::readText);
+	}
+
+	/**
+	 * This method is used to get the raw body of a successful response
+	 *
+	 * @param url URL to request
+	 * @return Response body
+	 * @throws IOException if the request fails or the server doesn't answer with
+	 *                     a 2xx status code
+	 */
+	public byte[] getBytes(String url) throws IOException {
+		return coalesce("bytes", url, null, () -> execute("GET", url, null, null, null, null, (con, in) -> {
+			int status = con.getResponseCode();
+			if (status < 200 || status > 299) {
+				throw new HttpStatusException(status, url);
+			}
+			return readBytes(in);
+		}, true, false));
+	}
+
+	/**
+	 * This method is used to copy the raw body of a successful response to an
+	 * output stream as it is received, without buffering it in memory
+	 *
+	 * @param url URL to request
+	 * @param out stream to write the body to; it is flushed but not closed
+	 * @return Number of bytes written
+	 * @throws IOException if the request fails, the server doesn't answer with a
+	 *                     2xx status code or writing fails
+	 */
+	public long copy(String url, OutputStream out) throws IOException {
+		// whatever was written can't be taken back, so only failures before the
+		// body arrives are retried
+		return execute("GET", url, null, null, null, null, (con, in) -> {
+			int status = con.getResponseCode();
+			if (status < 200 || status > 299) {
+				throw new HttpStatusException(status, url);
+			}
+			long count = 0;
+			if (in != null) {
+				byte[] buffer = new byte[16 * 1024];
+				int n;
+				while ((n = in.read(buffer)) != -1) {
+					out.write(buffer, 0, n);
+					count += n;
+				}
+			}
+			out.flush();
+			return count;
+		}, false, false);
+	}
+
+	/**
+	 * This method is used to read a text body the same way
+	 * {@link PMA#getJSONAsStringBuffer(HttpURLConnection)} does
+	 *
+	 * @param con connection the body belongs to
+	 * @param in  body to read, may be null
+	 * @return Body without line breaks
+	 * @throws IOException if reading fails
+	 */
+	static String readText(HttpURLConnection con, InputStream in) throws IOException {
+		if (in == null) {
+			return "";
+		}
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		StringBuilder response = new StringBuilder();
+		String inputLine;
+		while ((inputLine = reader.readLine()) != null) {
+			response.append(inputLine);
+		}
+		return response.toString();
+	}
+
+	/**
+	 * This method is used to read a body into a byte array
+	 *
+	 * @param in body to read, may be null
+	 * @return Body bytes
+	 * @throws IOException if reading fails
+	 */
+	static byte[] readBytes(InputStream in) throws IOException {
+		if (in == null) {
+			return new byte[0];
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+		byte[] buffer = new byte[16 * 1024];
+		int n;
+		while ((n = in.read(buffer)) != -1) {
+			out.write(buffer, 0, n);
+		}
+		return out.toByteArray();
+	}
+
+	private HttpURLConnection open(URL urlResource, Deadline deadline) throws IOException {
+		HttpURLConnection con = (HttpURLConnection) urlResource.openConnection();
+		if (con instanceof HttpsURLConnection && sslSocketFactory != null) {
+			((HttpsURLConnection) con).setSSLSocketFactory(sslSocketFactory);
+		}
+		con.setUseCaches(false);
+		con.setConnectTimeout(deadline != null ? deadline.cap(connectTimeoutMillis) : connectTimeoutMillis);
+		con.setReadTimeout(deadline != null ? deadline.cap(readTimeoutMillis) : readTimeoutMillis);
+		return con;
+	}
+
+	/**
+	 * Requests are only identical if they produce the same kind of result from
+	 * the same canonical URL with the same Accept header
+	 */
+	private <T> T coalesce(String kind, String url, String accept, SingleFlight.Call<T> call) throws IOException {
+		if (!coalescing) {
+			return call.call();
+		}
+		return singleFlight.execute(kind + " " + accept + " " + canonicalUrl(url), call);
+	}
+
+	/**
+	 * This method is used to normalize a URL so that URLs that only differ in the
+	 * case of the scheme and host, an explicit default port or the order of the
+	 * query parameters map to the same string
+	 *
+	 * @param url URL to normalize
+	 * @return Canonical URL, or url itself if it is malformed
+	 */
+	static String canonicalUrl(String url) {
+		URL urlResource;
+		try {
+			urlResource = new URL(url);
+		} catch (IOException e) {
+			return url;
+		}
+		StringBuilder canonical = new StringBuilder(url.length());
+		canonical.append(urlResource.getProtocol().toLowerCase(Locale.ROOT)).append("://")
+				.append(urlResource.getHost().toLowerCase(Locale.ROOT));
+		if (urlResource.getPort() != -1 && urlResource.getPort() != urlResource.getDefaultPort()) {
+			canonical.append(':').append(urlResource.getPort());
+		}
+		canonical.append(urlResource.getPath());
+		String query = urlResource.getQuery();
+		if (query != null && !query.isEmpty()) {
+			String[] parameters = query.split("&");
+			// stable, so repeated parameters keep their relative order
+			Arrays.sort(parameters, Comparator.comparing(parameter -> {
+				int equals = parameter.indexOf('=');
+				return equals >= 0 ? parameter.substring(0, equals) : parameter;
+			}));
+			canonical.append('?').append(String.join("&", parameters));
+		}
+		return canonical.toString();
+	}
+
+	private ConcurrencyLimiter newLimiter(String key) {
+		return new ConcurrencyLimiter(Math.max(1, maxConnectionsPerHost / 2), maxConnectionsPerHost);
+	}
+
+	private static String hostKey(URL urlResource) {
+		return urlResource.getProtocol() + "://" + urlResource.getHost() + ":"
+				+ (urlResource.getPort() != -1 ? urlResource.getPort() : urlResource.getDefaultPort());
+	}
+
+	/**
+	 * Retry-After given in seconds; the HTTP date form isn't worth parsing here
+	 */
+	private static long retryAfterMillis(HttpURLConnection con) {
+		String retryAfter = con.getHeaderField("Retry-After");
+		if (retryAfter == null) {
+			return -1;
+		}
+		try {
+			return Math.max(0, Long.parseLong(retryAfter.trim())) * 1000;
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private static InputStream responseStream(HttpURLConnection con) throws IOException {
+		int status = con.getResponseCode();
+		if (status >= 200 && status <= 299) {
+			return con.getInputStream();
+		}
+		return con.getErrorStream();
+	}
+
+	/**
+	 * This method is used to decompress a response body according to its
+	 * Content-Encoding
+	 *
+	 * @param con connection the body belongs to
+	 * @param in  body as received, may be null
+	 * @return Decompressed body, in itself when it isn't compressed
+	 * @throws IOException if the body isn't valid compressed data
+	 */
+	static InputStream decode(HttpURLConnection con, InputStream in) throws IOException {
+		String encoding = con.getContentEncoding();
+		if (in == null || encoding == null) {
+			return in;
+		}
+		encoding = encoding.trim().toLowerCase(Locale.ROOT);
+		if (!encoding.equals("gzip") && !encoding.equals("x-gzip") && !encoding.equals("deflate")) {
+			return in;
+		}
+		// an empty body (e.g. 204, or an error without content) has nothing to
+		// decompress
+		BufferedInputStream buffered = new BufferedInputStream(in, 16 * 1024);
+		buffered.mark(2);
+		int first = buffered.read();
+		int second = buffered.read();
+		buffered.reset();
+		if (first == -1) {
+			return buffered;
+		}
+		if (!encoding.equals("deflate")) {
+			return new GZIPInputStream(buffered, 16 * 1024);
+		}
+		// "deflate" should be zlib wrapped, but some servers send raw deflate data
+		boolean zlib = second != -1 && (first & 0x0f) == 8 && ((first << 8) | second) % 31 == 0;
+		return new InflaterInputStream(buffered, new Inflater(!zlib), 16 * 1024);
+	}
+
+	/**
+	 * Drains whatever the handler left unread; a connection only goes back to the
+	 * keep-alive cache once its body has been fully consumed. The body is then
+	 * counted in the download statistics and metrics of the current client
+	 *
+	 * @param url       URL requested
+	 * @param sessionID session the request was made for, null to take the
+	 *                  sessionID parameter of the URL
+	 * @param raw       body as received
+	 * @param decoded   body as handed to the handler, wrapping raw when the body
+	 *                  is compressed
+	 * @param metrics   metrics of the endpoint requested
+	 */
+	private static void release(String url, String sessionID, CountingInputStream raw, InputStream decoded,
+			PmaMetrics.Endpoint metrics) {
+		if (raw == null) {
+			PmaClient.current().getDownloadStats().record(url, sessionID, 0, 0);
+			return;
+		}
+		try {
+			byte[] buffer = new byte[8 * 1024];
+			while (raw.read(buffer) != -1) {
+				// discard
+			}
+		} catch (IOException e) {
+			// the connection can't be reused; nothing more to do
+		} finally {
+			try {
+				// closing the decoder frees its native inflater and closes raw
+				decoded.close();
+			} catch (IOException e) {
+				// ignore
+			}
+			long decodedBytes = decodedBytes(raw, decoded);
+			PmaClient.current().getDownloadStats().record(url, sessionID, raw.count, decodedBytes);
+			metrics.addBytes(raw.count, decodedBytes);
+		}
+	}
+
+	/**
+	 * Number of body bytes after decompression; what the handler left of a
+	 * compressed body was drained undecoded
+	 */
+	private static long decodedBytes(CountingInputStream raw, InputStream decoded) {
+		if (raw == null) {
+			return 0;
+		}
+		return decoded != raw && decoded instanceof CountingInputStream ? ((CountingInputStream) decoded).count
+				: raw.count;
+	}
+
+	/**
+	 * Counts the bytes read through a stream
+	 */
+	private static class CountingInputStream extends FilterInputStream {
+		private long count;
+		private long mark;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		static CountingInputStream wrap(InputStream in) {
+			return in != null ? new CountingInputStream(in) : null;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = in.read();
+			if (b != -1) {
+				count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = in.read(b, off, len);
+			if (n > 0) {
+				count += n;
+			}
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = in.skip(n);
+			count += skipped;
+			return skipped;
+		}
+
+		@Override
+		public synchronized void mark(int readlimit) {
+			in.mark(readlimit);
+			mark = count;
+		}
+
+		@Override
+		public synchronized void reset() throws IOException {
+			in.reset();
+			count = mark;
+		}
+	}
+
+	private static SSLContext defaultSSLContext(int tlsSessionCacheSize, int tlsSessionTimeoutSeconds) {
+		try {
+			SSLContext sslContext = SSLContext.getInstance("TLS");
+			sslContext.init(null, null, null);
+			SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+			sessionContext.setSessionCacheSize(tlsSessionCacheSize);
+			sessionContext.setSessionTimeout(tlsSessionTimeoutSeconds);
+			return sslContext;
+		} catch (Exception e) {
+			PmaLog.severe(() -> "Unable to create SSL context, falling back on JVM defaults: " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * This method is used to configure the JDK keep-alive cache, which is shared
+	 * by every transport (and every other HttpURLConnection) of the JVM. It sets
+	 * the http.maxConnections and http.keepAlive.time.server system properties,
+	 * which the JDK reads once: the call only has an effect before the first
+	 * HTTP connection of the JVM is opened, and values the application set
+	 * itself are left alone. http.keepAlive.time.server is ignored by JDKs older
+	 * than 8u321 / 11.0.14, which keep idle connections 5 seconds
+	 *
+	 * @param maxIdleConnectionsPerHost number of idle connections kept per host
+	 * @param keepAliveSeconds          number of seconds an idle connection is
+	 *                                  kept before it is evicted
+	 * @return True if both properties now hold the values given
+	 */
+	public static boolean configureKeepAlive(int maxIdleConnectionsPerHost, int keepAliveSeconds) {
+		if (maxIdleConnectionsPerHost < 1 || keepAliveSeconds < 1) {
+			PmaLog.severe(
+					() -> "configureKeepAlive() : maxIdleConnectionsPerHost and keepAliveSeconds must be positive");
+			throw new IllegalArgumentException("maxIdleConnectionsPerHost and keepAliveSeconds must be positive");
+		}
+		return setPropertyIfAbsent("http.maxConnections", String.valueOf(maxIdleConnectionsPerHost))
+				& setPropertyIfAbsent("http.keepAlive.time.server", String.valueOf(keepAliveSeconds));
+	}
+
+	private static boolean setPropertyIfAbsent(String key, String value) {
+		try {
+			if (System.getProperty(key) == null) {
+				System.setProperty(key, value);
+			}
+			return value.equals(System.getProperty(key));
+		} catch (SecurityException e) {
+			// not allowed to tune the JVM; the JDK defaults apply
+			return false;
+		}
+	}
+}
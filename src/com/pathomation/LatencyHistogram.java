@@ -0,0 +1,277 @@
+package com.pathomation;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies, in the spirit of HdrHistogram: values are counted in
+ * log-linear buckets covering 1 microsecond to more than a day with a relative
+ * error below 1/64 (about 1.6%), in a fixed amount of memory. Recording is lock
+ * free and may be done by any number of threads at once; percentiles are
+ * computed from a copy of the buckets, so reading them doesn't hold up the
+ * threads recording.
+ * <p>
+ * Snapshots also count the values up to each of a fixed set of bounds
+ * ({@link #getBounds()}), which is what monitoring systems aggregate across
+ * instances and over time windows (e.g. Prometheus histograms); percentiles
+ * can't be combined that way.
+ * </p>
+ */
+public class LatencyHistogram {
+
+	/**
+	 * Percentiles and totals of a histogram at a given moment, in microseconds
+	 */
+	public static final class Snapshot {
+
+		private final long[] cumulativeCounts;
+		private final long count;
+		private final long sum;
+		private final long max;
+		private final long p50;
+		private final long p90;
+		private final long p99;
+		private final long p999;
+
+		private Snapshot(long[] cumulativeCounts, long count, long sum, long max, long p50, long p90, long p99,
+				long p999) {
+			this.cumulativeCounts = cumulativeCounts;
+			this.count = count;
+			this.sum = sum;
+			this.max = max;
+			this.p50 = p50;
+			this.p90 = p90;
+			this.p99 = p99;
+			this.p999 = p999;
+		}
+
+		/**
+		 * @return the number of values recorded
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * This method is used to get the number of values recorded up to a bound,
+		 * to within the histogram's precision
+		 *
+		 * @param bound index of the bound in {@link LatencyHistogram#getBounds()}
+		 * @return Number of values up to the bound, included
+		 */
+		public long getCumulativeCount(int bound) {
+			return cumulativeCounts[bound];
+		}
+
+		/**
+		 * @return the sum of the values recorded, in microseconds
+		 */
+		public long getSum() {
+			return sum;
+		}
+
+		/**
+		 * @return the mean of the values recorded, in microseconds, 0 if none
+		 */
+		public double getMean() {
+			return count > 0 ? (double) sum / count : 0;
+		}
+
+		/**
+		 * @return the highest value recorded, in microseconds
+		 */
+		public long getMax() {
+			return max;
+		}
+
+		/**
+		 * @return the median, in microseconds
+		 */
+		public long getP50() {
+			return p50;
+		}
+
+		/**
+		 * @return the 90th percentile, in microseconds
+		 */
+		public long getP90() {
+			return p90;
+		}
+
+		/**
+		 * @return the 99th percentile, in microseconds
+		 */
+		public long getP99() {
+			return p99;
+		}
+
+		/**
+		 * @return the 99.9th percentile, in microseconds
+		 */
+		public long getP999() {
+			return p999;
+		}
+
+		@Override
+		public String toString() {
+			return "Snapshot [count=" + count + ", mean=" + Math.round(getMean()) + ", p50=" + p50 + ", p90=" + p90
+					+ ", p99=" + p99 + ", p999=" + p999 + ", max=" + max + "]";
+		}
+	}
+
+	// values below 2^SUB_BITS get a bucket each, every power of two above is
+	// split in 2^(SUB_BITS-1) buckets
+	private static final int SUB_BITS = 7;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	private static final int HALF_COUNT = SUB_COUNT / 2;
+	// 2^37 microseconds is about 38 hours
+	private static final int MAX_EXPONENT = 37;
+	private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+	private static final int BUCKETS = SUB_COUNT + (MAX_EXPONENT - SUB_BITS + 1) * HALF_COUNT;
+
+	// bounds snapshots count the values up to, in microseconds
+	private static final long[] BOUNDS = { 1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000,
+			1_000_000, 2_500_000, 5_000_000, 10_000_000, 30_000_000, 60_000_000 };
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * This method is used to record a latency
+	 *
+	 * @param nanos latency in nanoseconds
+	 */
+	public void record(long nanos) {
+		recordMicros(TimeUnit.NANOSECONDS.toMicros(Math.max(0, nanos)));
+	}
+
+	/**
+	 * This method is used to record a latency
+	 *
+	 * @param micros latency in microseconds, values above about 38 hours count as
+	 *               38 hours
+	 */
+	public void recordMicros(long micros) {
+		long value = Math.min(MAX_VALUE, Math.max(0, micros));
+		buckets.incrementAndGet(index(value));
+		count.increment();
+		sum.add(value);
+		max.accumulate(value);
+	}
+
+	/**
+	 * @return the number of values recorded
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * This method is used to get a percentile of the values recorded
+	 *
+	 * @param percentile percentile, between 0 and 100
+	 * @return Highest value that is equivalent to the percentile, in microseconds,
+	 *         0 if nothing was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long[] copy = copy();
+		return valueAtPercentile(copy, total(copy), percentile, max.get());
+	}
+
+	/**
+	 * This method is used to get the percentiles and totals of the values recorded
+	 *
+	 * @return Snapshot
+	 */
+	public Snapshot snapshot() {
+		long[] copy = copy();
+		long total = total(copy);
+		long highest = max.get();
+		return new Snapshot(cumulativeCounts(copy), total, sum.sum(), highest,
+				valueAtPercentile(copy, total, 50, highest), valueAtPercentile(copy, total, 90, highest),
+				valueAtPercentile(copy, total, 99, highest), valueAtPercentile(copy, total, 99.9, highest));
+	}
+
+	/**
+	 * This method is used to get the bounds snapshots count the values up to,
+	 * from 1 ms to 1 minute
+	 *
+	 * @return Bounds in ascending order, in microseconds
+	 */
+	public static long[] getBounds() {
+		return BOUNDS.clone();
+	}
+
+	private long[] copy() {
+		long[] copy = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			copy[i] = buckets.get(i);
+		}
+		return copy;
+	}
+
+	private static long total(long[] copy) {
+		long total = 0;
+		for (long n : copy) {
+			total += n;
+		}
+		return total;
+	}
+
+	private static long[] cumulativeCounts(long[] copy) {
+		long[] counts = new long[BOUNDS.length];
+		long seen = 0;
+		int i = 0;
+		for (int b = 0; b < BOUNDS.length; b++) {
+			// the bucket holding the bound counts as below it
+			for (int last = index(BOUNDS[b]); i <= last; i++) {
+				seen += copy[i];
+			}
+			counts[b] = seen;
+		}
+		return counts;
+	}
+
+	private static long valueAtPercentile(long[] copy, long total, double percentile, long highest) {
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total));
+		long seen = 0;
+		for (int i = 0; i < copy.length; i++) {
+			seen += copy[i];
+			if (seen >= rank) {
+				// a bucket's upper bound may lie above anything actually recorded
+				return Math.min(highestEquivalentValue(i), highest);
+			}
+		}
+		return highest;
+	}
+
+	static int index(long value) {
+		if (value < SUB_COUNT) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - SUB_BITS + 1;
+		return SUB_COUNT + (shift - 1) * HALF_COUNT + (int) (value >> shift) - HALF_COUNT;
+	}
+
+	static long highestEquivalentValue(int index) {
+		if (index < SUB_COUNT) {
+			return index;
+		}
+		int shift = (index - SUB_COUNT) / HALF_COUNT + 1;
+		long sub = (index - SUB_COUNT) % HALF_COUNT + HALF_COUNT;
+		return ((sub + 1) << shift) - 1;
+	}
+
+	@Override
+	public String toString() {
+		return "LatencyHistogram " + snapshot();
+	}
+}
@@ -0,0 +1,306 @@
+package com.pathomation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves the metrics of a client in the Prometheus text format, over an HTTP
+ * server embedded in the JVM (com.sun.net.httpserver):
+ *
+ * <pre>
+ * MetricsExporter exporter = MetricsExporter.start(9464);
+ * // scrape http://127.0.0.1:9464/metrics
+ * exporter.close();
+ * </pre>
+ * <p>
+ * Exported are, per server and endpoint, the request latencies as a histogram
+ * (buckets from 1 ms to 1 minute, for histogram_quantile()), the requests, failures and bytes received; per
+ * server, the concurrency limit, requests in flight and queued and the state
+ * of the circuit breaker; the retries and the hits, misses and hit ratios of
+ * the caches; the crawl and tile counters. All metric names start with "pma_".
+ * The figures are read when scraped, so the exporter adds nothing to the cost
+ * of the requests themselves.
+ * </p>
+ * <p>
+ * Applications that already run an HTTP server can serve
+ * {@link #format(PmaClient)} themselves instead.
+ * </p>
+ */
+public class MetricsExporter implements Closeable {
+
+	/**
+	 * Path the metrics are served at
+	 */
+	public static final String PATH = "/metrics";
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final PmaClient client;
+
+	/**
+	 * Constructor, starts serving the metrics
+	 *
+	 * @param address address to listen on, e.g. new InetSocketAddress(9464) to
+	 *                accept scrapes from other hosts
+	 * @param client  client whose metrics are served, null for the default client
+	 * @throws IOException if the address can't be bound
+	 */
+	public MetricsExporter(InetSocketAddress address, PmaClient client) throws IOException {
+		this.client = client != null ? client : PmaClient.getDefault();
+		server = HttpServer.create(address, 0);
+		server.createContext(PATH, this::handle);
+		executor = Executors.newSingleThreadExecutor(r -> {
+			Thread thread = new Thread(r, "pma-metrics-exporter");
+			thread.setDaemon(true);
+			return thread;
+		});
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	/**
+	 * This method is used to serve the metrics of the default client on the
+	 * loopback interface only
+	 *
+	 * @param port port to listen on, 0 for any free port
+	 * @return Exporter, to be closed when done
+	 * @throws IOException if the port can't be bound
+	 */
+	public static MetricsExporter start(int port) throws IOException {
+		return new MetricsExporter(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), null);
+	}
+
+	/**
+	 * @return the port the metrics are served on
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * @return the client whose metrics are served
+	 */
+	public PmaClient getClient() {
+		return client;
+	}
+
+	/**
+	 * This method is used to stop serving the metrics
+	 */
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			if (!PATH.equals(exchange.getRequestURI().getPath())) {
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+			if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+				exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			byte[] body = format(client).getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+			if ("HEAD".equals(exchange.getRequestMethod())) {
+				exchange.sendResponseHeaders(200, -1);
+				return;
+			}
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream os = exchange.getResponseBody()) {
+				os.write(body);
+			}
+		} catch (RuntimeException e) {
+			PmaLog.warning(() -> "Unable to export metrics: " + e);
+			exchange.sendResponseHeaders(500, -1);
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * This method is used to write the metrics of a client in the Prometheus text
+	 * format
+	 *
+	 * @param client client, null for the default client
+	 * @return Metrics
+	 */
+	public static String format(PmaClient client) {
+		if (client == null) {
+			client = PmaClient.getDefault();
+		}
+		PmaMetrics.Snapshot snapshot = client.getMetrics().snapshot();
+		HttpTransport transport = client.getTransport();
+		StringBuilder sb = new StringBuilder(8 * 1024);
+
+		header(sb, "pma_request_duration_seconds", "histogram",
+				"Time from sending a request to PMA.core to releasing its response");
+		long[] bounds = LatencyHistogram.getBounds();
+		for (PmaMetrics.EndpointSnapshot endpoint : snapshot.getEndpoints()) {
+			String labels = labels(endpoint);
+			LatencyHistogram.Snapshot latency = endpoint.getLatency();
+			for (int i = 0; i < bounds.length; i++) {
+				bucket(sb, labels, Double.toString(seconds(bounds[i])), latency.getCumulativeCount(i));
+			}
+			bucket(sb, labels, "+Inf", latency.getCount());
+			sample(sb, "pma_request_duration_seconds_sum", labels, seconds(latency.getSum()));
+			sample(sb, "pma_request_duration_seconds_count", labels, latency.getCount());
+		}
+		header(sb, "pma_requests_total", "counter", "Requests sent, retries included");
+		for (PmaMetrics.EndpointSnapshot endpoint : snapshot.getEndpoints()) {
+			sample(sb, "pma_requests_total", labels(endpoint), endpoint.getRequestCount());
+		}
+		header(sb, "pma_request_errors_total", "counter",
+				"Requests without answer, whose answer couldn't be read, or answered with 429 or 5xx");
+		for (PmaMetrics.EndpointSnapshot endpoint : snapshot.getEndpoints()) {
+			sample(sb, "pma_request_errors_total", labels(endpoint), endpoint.getErrorCount());
+		}
+		header(sb, "pma_response_bytes_total", "counter",
+				"Response body bytes, as received over the wire and after decompression");
+		for (PmaMetrics.EndpointSnapshot endpoint : snapshot.getEndpoints()) {
+			sample(sb, "pma_response_bytes_total", labels(endpoint) + ",encoding=\"wire\"", endpoint.getWireBytes());
+			sample(sb, "pma_response_bytes_total", labels(endpoint) + ",encoding=\"decoded\"",
+					endpoint.getDecodedBytes());
+		}
+
+		Map<String, ConcurrencyLimiter> limiters = transport.getLimiters();
+		header(sb, "pma_concurrency_limit", "gauge", "Current limit of requests in flight per server");
+		for (Map.Entry<String, ConcurrencyLimiter> entry : limiters.entrySet()) {
+			sample(sb, "pma_concurrency_limit", server(entry.getKey()), entry.getValue().getLimit());
+		}
+		header(sb, "pma_requests_in_flight", "gauge", "Requests in flight per server");
+		for (Map.Entry<String, ConcurrencyLimiter> entry : limiters.entrySet()) {
+			sample(sb, "pma_requests_in_flight", server(entry.getKey()), entry.getValue().getInFlight());
+		}
+		header(sb, "pma_requests_queued", "gauge", "Requests waiting for the concurrency limit per server");
+		for (Map.Entry<String, ConcurrencyLimiter> entry : limiters.entrySet()) {
+			sample(sb, "pma_requests_queued", server(entry.getKey()), entry.getValue().getQueueDepth());
+		}
+		Map<String, CircuitBreaker> breakers = transport.getCircuitBreakers();
+		header(sb, "pma_circuit_breaker_state", "gauge", "State of the circuit breaker per server");
+		for (Map.Entry<String, CircuitBreaker> entry : breakers.entrySet()) {
+			CircuitBreaker.State state = entry.getValue().getState();
+			for (CircuitBreaker.State s : CircuitBreaker.State.values()) {
+				sample(sb, "pma_circuit_breaker_state",
+						server(entry.getKey()) + ",state=\"" + s.name().toLowerCase(Locale.ROOT) + "\"",
+						s == state ? 1 : 0);
+			}
+		}
+		header(sb, "pma_circuit_breaker_rejected_total", "counter",
+				"Requests failed immediately by an open circuit breaker");
+		for (Map.Entry<String, CircuitBreaker> entry : breakers.entrySet()) {
+			sample(sb, "pma_circuit_breaker_rejected_total", server(entry.getKey()),
+					entry.getValue().getRejectedCount());
+		}
+		header(sb, "pma_retries_total", "counter", "Requests sent again after a transient failure");
+		sample(sb, "pma_retries_total", null, transport.getRetryCount());
+
+		header(sb, "pma_cache_hits_total", "counter", "Lookups answered from a cache");
+		for (Map.Entry<String, PmaMetrics.CacheSnapshot> entry : snapshot.getCaches().entrySet()) {
+			sample(sb, "pma_cache_hits_total", cache(entry.getKey()), entry.getValue().getHitCount());
+		}
+		header(sb, "pma_cache_misses_total", "counter", "Lookups not answered from a cache");
+		for (Map.Entry<String, PmaMetrics.CacheSnapshot> entry : snapshot.getCaches().entrySet()) {
+			sample(sb, "pma_cache_misses_total", cache(entry.getKey()), entry.getValue().getMissCount());
+		}
+		header(sb, "pma_cache_evictions_total", "counter", "Entries evicted from a cache to make room");
+		for (Map.Entry<String, PmaMetrics.CacheSnapshot> entry : snapshot.getCaches().entrySet()) {
+			sample(sb, "pma_cache_evictions_total", cache(entry.getKey()), entry.getValue().getEvictionCount());
+		}
+		header(sb, "pma_cache_hit_ratio", "gauge", "Share of lookups answered from a cache since start");
+		for (Map.Entry<String, PmaMetrics.CacheSnapshot> entry : snapshot.getCaches().entrySet()) {
+			sample(sb, "pma_cache_hit_ratio", cache(entry.getKey()), entry.getValue().getHitRatio());
+		}
+		SlideInfoBatcher batcher = client.getSlideInfoBatcher();
+		header(sb, "pma_slide_info_batched_requests_total", "counter",
+				"Slide information requests sent in batches");
+		sample(sb, "pma_slide_info_batched_requests_total", null, batcher.getRequestCount());
+		header(sb, "pma_slide_info_batches_total", "counter", "Batches of slide information requests");
+		sample(sb, "pma_slide_info_batches_total", null, batcher.getBatchCount());
+
+		Map<String, Long> counters = snapshot.getCounters();
+		single(sb, "pma_crawls_total", "counter", "Crawls started", counters.get("crawls"));
+		single(sb, "pma_crawls_active", "gauge", "Crawls in progress", counters.get("activeCrawls"));
+		single(sb, "pma_crawl_failures_total", "counter", "Crawls that failed", counters.get("failedCrawls"));
+		single(sb, "pma_crawled_directories_total", "counter", "Directories listed by crawls",
+				counters.get("crawledDirectories"));
+		single(sb, "pma_crawl_directory_errors_total", "counter", "Directories crawls couldn't list",
+				counters.get("directoryErrors"));
+		single(sb, "pma_crawled_slides_total", "counter", "Slides found by crawls", counters.get("crawledSlides"));
+		single(sb, "pma_tiles_total", "counter", "Tiles requested by tile streams", counters.get("tiles"));
+		single(sb, "pma_tile_errors_total", "counter", "Tiles tile streams couldn't retrieve",
+				counters.get("tileErrors"));
+		single(sb, "pma_tiles_in_flight", "gauge", "Tiles being retrieved by tile streams",
+				counters.get("tilesInFlight"));
+		return sb.toString();
+	}
+
+	private static void header(StringBuilder sb, String name, String type, String help) {
+		sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+	}
+
+	private static void single(StringBuilder sb, String name, String type, String help, long value) {
+		header(sb, name, type, help);
+		sample(sb, name, null, value);
+	}
+
+	private static void bucket(StringBuilder sb, String labels, String le, long count) {
+		sample(sb, "pma_request_duration_seconds_bucket", labels + ",le=\"" + le + "\"", count);
+	}
+
+	private static void sample(StringBuilder sb, String name, String labels, long value) {
+		sb.append(name);
+		if (labels != null) {
+			sb.append('{').append(labels).append('}');
+		}
+		sb.append(' ').append(value).append('\n');
+	}
+
+	private static void sample(StringBuilder sb, String name, String labels, double value) {
+		sb.append(name);
+		if (labels != null) {
+			sb.append('{').append(labels).append('}');
+		}
+		sb.append(' ').append(Double.isNaN(value) ? "NaN" : Double.toString(value)).append('\n');
+	}
+
+	private static double seconds(long micros) {
+		return micros / 1e6;
+	}
+
+	private static String labels(PmaMetrics.EndpointSnapshot endpoint) {
+		return "server=\"" + escape(endpoint.getServer()) + "\",endpoint=\"" + escape(endpoint.getEndpoint()) + "\"";
+	}
+
+	private static String server(String server) {
+		return "server=\"" + escape(server) + "\"";
+	}
+
+	private static String cache(String cache) {
+		return "cache=\"" + escape(cache) + "\"";
+	}
+
+	/**
+	 * Label values may contain any character but backslash, double quote and line
+	 * feed, which must be escaped
+	 */
+	private static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+}
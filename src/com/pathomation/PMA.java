@@ -2,15 +2,14 @@ package com.pathomation;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.io.OutputStream;
 import java.io.StringReader;
-import java.io.StringWriter;
 import java.net.HttpURLConnection;
-import java.net.URL;
-import java.net.URLConnection;
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -19,7 +18,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 
-import javax.net.ssl.HttpsURLConnection;
 import javax.swing.filechooser.FileSystemView;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -32,6 +30,10 @@ import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.InputSource;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
 /**
  * Helper class
  * 
@@ -40,7 +42,6 @@ import org.xml.sax.InputSource;
  */
 public class PMA {
 
-	private static Map<String, String> urlContent = new HashMap<>();
 	/**
 	 * Cache mechanism to store the disk names on end user's side (To interact with
 	 * PMA.start, paths should include the disk names if they are modified from
@@ -48,6 +49,12 @@ public class PMA {
 	 */
 	private static Map<String, String> diskLabels = new HashMap<String, String>();
 	public static boolean debug = false;
+	/**
+	 * Reader decoding JSON responses straight from the connection into maps, lists
+	 * and scalars (integers as Long)
+	 */
+	private static final ObjectReader jsonReader = new ObjectMapper().readerFor(Object.class)
+			.with(DeserializationFeature.USE_LONG_FOR_INTS);
 	/**
 	 * for logging purposes
 	 */
@@ -88,12 +95,7 @@ public class PMA {
 			try {
 				return URLEncoder.encode(arg, "UTF-8").replace("+", "%20");
 			} catch (Exception e) {
-				e.printStackTrace();
-				if (logger != null) {
-					StringWriter sw = new StringWriter();
-					e.printStackTrace(new PrintWriter(sw));
-					logger.severe(sw.toString());
-				}
+				PmaLog.error(e);
 				return "";
 			}
 		}
@@ -107,39 +109,169 @@ public class PMA {
 	 * @return Data returned following a request to a specific URL
 	 */
 	public static String httpGet(String url, String property) {
-		if (!urlContent.containsKey(url)) {
-			if (debug) {
-				System.out.println("Retrieving " + url);
-			}
+		UrlCache urlCache = PmaClient.current().getUrlCache();
+		String content = urlCache.get(url);
+		if (content == null) {
+			PmaLog.debug("Retrieving {0}", url);
 			try {
-				URL urlResource = new URL(url);
-				HttpURLConnection con;
-				if (url.startsWith("https")) {
-					con = (HttpsURLConnection) urlResource.openConnection();
-				} else {
-					con = (HttpURLConnection) urlResource.openConnection();
-				}
-				con.setRequestMethod("GET");
-				con.setRequestProperty("Accept", property);
-				urlContent.put(url, getJSONAsStringBuffer(con).toString());
+				content = httpGetString(url, property);
+				urlCache.put(url, content);
 			} catch (Exception e) {
-				e.printStackTrace();
-				if (PMA.logger != null) {
-					StringWriter sw = new StringWriter();
-					e.printStackTrace(new PrintWriter(sw));
-					PMA.logger.severe(sw.toString());
-				}
+				PmaLog.error(e);
 				return null;
 			}
 		}
-		return urlContent.get(url).toString();
+		return content;
+	}
+
+	/**
+	 * This method is used to request a URL (GET method) through the shared
+	 * transport, bypassing the URLs cache
+	 * 
+	 * @param url    URL to request
+	 * @param accept Header value, may be null
+	 * @return Data returned following a request to a specific URL
+	 * @throws IOException if the request fails
+	 */
+	public static String httpGetString(String url, String accept) throws IOException {
+		return PmaClient.current().getTransport().getString(url, accept);
+	}
+
+	/**
+	 * This method is used to post JSON data to a URL through the shared transport
+	 * 
+	 * @param url    URL to request
+	 * @param data   JSON input
+	 * @param accept Header value, may be null
+	 * @return Data returned following a request to a specific URL
+	 * @throws IOException if the request fails
+	 */
+	public static String httpPostString(String url, String data, String accept) throws IOException {
+		return PmaClient.current().getTransport().postString(url, data, accept);
+	}
+
+	/**
+	 * This method is used to post JSON data to a URL on behalf of a session
+	 * through the shared transport
+	 * 
+	 * @param url       URL to request
+	 * @param data      JSON input
+	 * @param accept    Header value, may be null
+	 * @param sessionID session the data is posted for, counted in the download
+	 *                  statistics
+	 * @return Data returned following a request to a specific URL
+	 * @throws IOException if the request fails
+	 */
+	public static String httpPostString(String url, String data, String accept, String sessionID)
+			throws IOException {
+		return PmaClient.current().getTransport().postString(url, data, accept, sessionID);
+	}
+
+	/**
+	 * This method is used to retrieve binary content (images, tiles...) from a URL
+	 * through the shared transport
+	 * 
+	 * @param url URL to request
+	 * @return Raw content returned following a request to a specific URL
+	 * @throws IOException if the request fails
+	 */
+	public static byte[] httpGetBytes(String url) throws IOException {
+		return PmaClient.current().getTransport().getBytes(url);
+	}
+
+	/**
+	 * This method is used to stream binary content (images, tiles...) from a URL
+	 * to an output stream through the shared transport
+	 * 
+	 * @param url URL to request
+	 * @param out stream to write the content to; it is flushed but not closed
+	 * @return Number of bytes written
+	 * @throws IOException if the request or writing fails
+	 */
+	public static long httpCopy(String url, OutputStream out) throws IOException {
+		return PmaClient.current().getTransport().copy(url, out);
+	}
+
+	/**
+	 * This method is used to request a URL (GET method) and decode the JSON
+	 * response in a single pass while it is being received, without building an
+	 * intermediate string
+	 * 
+	 * @param url URL to request
+	 * @return Decoded response: a Map for json objects, a List for json arrays, or
+	 *         a scalar; it may be shared with concurrent identical requests, so it
+	 *         must not be modified
+	 * @throws IOException if the request fails or the response isn't valid json
+	 */
+	public static Object httpGetJSON(String url) throws IOException {
+		return PmaClient.current().getTransport().getJSON(url);
+	}
+
+	/**
+	 * This method is used to post JSON data to a URL and decode the JSON response
+	 * in a single pass while it is being received
+	 * 
+	 * @param url       URL to request
+	 * @param data      JSON input
+	 * @param sessionID session the data is posted for, counted in the download
+	 *                  statistics; null to take the sessionID parameter of the URL
+	 * @return Decoded response: a Map for json objects, a List for json arrays, or
+	 *         a scalar
+	 * @throws IOException if the request fails or the response isn't valid json
+	 */
+	public static Object httpPostJSON(String url, String data, String sessionID) throws IOException {
+		return PmaClient.current().getTransport().execute("POST", url, sessionID, "application/json",
+				data.getBytes(StandardCharsets.UTF_8), "application/json", PMA::readJSON);
+	}
+
+	/**
+	 * This method is used to decode a JSON response body with Jackson's streaming
+	 * parser
+	 * 
+	 * @param con connection the body belongs to
+	 * @param in  body to decode, may be null
+	 * @return Decoded response: a Map for json objects, a List for json arrays, or
+	 *         a scalar
+	 * @throws IOException if the body is missing or isn't valid json
+	 */
+	static Object readJSON(HttpURLConnection con, InputStream in) throws IOException {
+		if (in == null) {
+			throw new IOException("Empty response from " + con.getURL());
+		}
+		return jsonReader.readValue(in);
+	}
+
+	/**
+	 * This method is used to turn a decoded json array into a list of strings, the
+	 * same way JSONArray.optString() does (null elements become "")
+	 * 
+	 * @param value decoded json array
+	 * @return List of strings
+	 */
+	public static List<String> toStringList(Object value) {
+		List<?> array = (List<?>) value;
+		List<String> result = new ArrayList<>(array.size());
+		for (Object element : array) {
+			result.add(element == null ? "" : element.toString());
+		}
+		return result;
 	}
 
 	/**
 	 * This method is used to clear the URLs cache
 	 */
 	public static void clearURLCache() {
-		urlContent = new HashMap<>();
+		PmaClient.current().getUrlCache().clear();
+	}
+
+	/**
+	 * This method is used to get the URLs cache, e.g. to change its byte budget or
+	 * time to live, or to read its hit/miss/eviction statistics
+	 * 
+	 * @return URLs cache used by httpGet() for the current client
+	 */
+	public static UrlCache getURLCache() {
+		return PmaClient.current().getUrlCache();
 	}
 
 	/**
@@ -152,14 +284,9 @@ public class PMA {
 	public static void setDebugFlag(Boolean flag) {
 		debug = flag;
 		if (flag) {
-			System.out.println(
+			PmaLog.info(
 					"Debug flag enabled. You will receive extra feedback and messages from the Java SDK (like this one)");
-			if (PMA.logger != null) {
-				PMA.logger.severe(
-						"Debug flag enabled. You will receive extra feedback and messages from the Java SDK (like this one)");
-			}
 		}
-
 	}
 
 	/**
@@ -170,23 +297,38 @@ public class PMA {
 	 */
 	public static String urlReader(String url) {
 		try {
-			URL urlResource = new URL(url);
-			URLConnection con = urlResource.openConnection();
-			InputStream in = con.getInputStream();
-			String encoding = con.getContentEncoding();
-			encoding = encoding == null ? "UTF-8" : encoding;
-			return IOUtils.toString(in, encoding);
+			return PmaClient.current().getTransport().execute("GET", url, null, null, null, (con, in) -> {
+				if (con.getResponseCode() / 100 != 2) {
+					throw new HttpStatusException(con.getResponseCode(), url);
+				}
+				// Content-Encoding is the compression (decoded by the transport), the
+				// character set comes with the Content-Type
+				return IOUtils.toString(in, charset(con.getContentType()));
+			});
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
 
+	/**
+	 * This method is used to get the character set of a Content-Type header
+	 * 
+	 * @param contentType header value, may be null
+	 * @return Character set, UTF-8 if none is given
+	 */
+	private static String charset(String contentType) {
+		if (contentType != null) {
+			for (String parameter : contentType.split(";")) {
+				parameter = parameter.trim();
+				if (parameter.toLowerCase().startsWith("charset=")) {
+					return parameter.substring(8).replace("\"", "").trim();
+				}
+			}
+		}
+		return "UTF-8";
+	}
+
 	/**
 	 * This method is used to parse a XML content
 	 * 
@@ -201,12 +343,7 @@ public class PMA {
 			inputStream.setCharacterStream(new StringReader(s));
 			return documentBuilder.parse(inputStream);
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -291,12 +428,7 @@ public class PMA {
 			in.close();
 			return response;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -378,12 +510,7 @@ public class PMA {
 			}
 			return lst;
 		} catch (Exception e) {
-			e.printStackTrace();
-			if (PMA.logger != null) {
-				StringWriter sw = new StringWriter();
-				e.printStackTrace(new PrintWriter(sw));
-				PMA.logger.severe(sw.toString());
-			}
+			PmaLog.error(e);
 			return null;
 		}
 	}
@@ -0,0 +1,355 @@
+package com.pathomation;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Everything a client of PMA.core instances keeps between calls: the sessions
+ * it opened, its caches, its download statistics and metrics, the executor
+ * its asynchronous calls run on and the HTTP transport it talks through.
+ * <p>
+ * The static methods of Core, PMA, Control and CoreAdmin work on the client
+ * that is current for the calling thread, which is the default client unless
+ * another one was made current through {@link #call(Callable)} or
+ * {@link #run(Runnable)}. Several clients can live side by side in one JVM,
+ * e.g. one per tenant or per server, each with its own sessions, cache sizes,
+ * executor and connection limits:
+ * </p>
+ *
+ * <pre>
+ * try (PmaClient tenant = new PmaClient(new HttpTransport(4, null))) {
+ * 	String sessionID = tenant.call(() -&gt; Core.connect(url, username, password));
+ * 	List&lt;String&gt; slides = tenant.call(() -&gt; Core.getSlides(dir, sessionID));
+ * }
+ * </pre>
+ * <p>
+ * Work a call hands over to other threads (asynchronous methods, crawls, tile
+ * streams...) stays with the client that was current when it started.
+ * </p>
+ * <p>
+ * A client that is no longer needed is closed, which shuts down the thread
+ * pool it created for its asynchronous calls.
+ * </p>
+ */
+public class PmaClient implements AutoCloseable {
+
+	private static volatile PmaClient defaultClient;
+	private static final ThreadLocal<PmaClient> current = new ThreadLocal<>();
+
+	// null for the shared default transport
+	private final HttpTransport transport;
+	private final UrlCache urlCache = new UrlCache();
+	private final Map<String, Object> sessions = new ConcurrentHashMap<>();
+	private final Map<String, String> usernames = new ConcurrentHashMap<>();
+	private final DownloadStats downloadStats = new DownloadStats();
+	private final PmaMetrics metrics = new PmaMetrics(this);
+	private final SlideInfoCache slideInfoCache = new SlideInfoCache();
+	private final SlideInfoBatcher slideInfoBatcher = new SlideInfoBatcher();
+	private final SlideCrawler slideCrawler = new SlideCrawler();
+	private final UrlCache tileFingerprints = new UrlCache("tileFingerprint", 1024 * 1024, 0);
+	private volatile Executor asyncExecutor = null;
+	// pool created by the client itself, guarded by this
+	private ExecutorService ownedExecutor = null;
+	private boolean closed = false;
+	private volatile DiskTileCache diskTileCache = null;
+	private volatile SlidePathIndex slidePathIndex = null;
+
+	/**
+	 * Constructor, the client talks through the transport returned by
+	 * HttpTransport.getDefault()
+	 */
+	public PmaClient() {
+		this(null);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param transport transport to talk through, null for the one returned by
+	 *                  HttpTransport.getDefault()
+	 */
+	public PmaClient(HttpTransport transport) {
+		this.transport = transport;
+	}
+
+	/**
+	 * This method is used to get the client the static API works on when no other
+	 * client is current
+	 *
+	 * @return Default client
+	 */
+	public static PmaClient getDefault() {
+		PmaClient client = defaultClient;
+		if (client == null) {
+			synchronized (PmaClient.class) {
+				if (defaultClient == null) {
+					defaultClient = new PmaClient();
+				}
+				client = defaultClient;
+			}
+		}
+		return client;
+	}
+
+	/**
+	 * This method is used to get the client the static API works on for the
+	 * current thread
+	 *
+	 * @return Current client, the default client unless another one was made
+	 *         current
+	 */
+	public static PmaClient current() {
+		PmaClient client = current.get();
+		return client != null ? client : getDefault();
+	}
+
+	/**
+	 * This method is used to make a client current for the current thread
+	 *
+	 * @param client client, null for the default client
+	 * @return Client that was current, to be restored when done
+	 */
+	public static PmaClient setCurrent(PmaClient client) {
+		PmaClient previous = current();
+		if (client == null || client == defaultClient) {
+			current.remove();
+		} else {
+			current.set(client);
+		}
+		return previous;
+	}
+
+	/**
+	 * This method is used to run a task with this client current
+	 *
+	 * @param <T>  Type of the task's result
+	 * @param task task to run on the current thread, typically calls to the
+	 *             static API
+	 * @return Task's result
+	 * @throws Exception if the task throws
+	 */
+	public <T> T call(Callable<T> task) throws Exception {
+		PmaClient previous = setCurrent(this);
+		try {
+			return task.call();
+		} finally {
+			setCurrent(previous);
+		}
+	}
+
+	/**
+	 * This method is used to run a task with this client current
+	 *
+	 * @param task task to run on the current thread, typically calls to the static
+	 *             API
+	 */
+	public void run(Runnable task) {
+		PmaClient previous = setCurrent(this);
+		try {
+			task.run();
+		} finally {
+			setCurrent(previous);
+		}
+	}
+
+	/**
+	 * @return the transport the client talks through
+	 */
+	public HttpTransport getTransport() {
+		return transport != null ? transport : HttpTransport.getDefault();
+	}
+
+	/**
+	 * @return the cache of the responses retrieved through PMA.httpGet()
+	 */
+	public UrlCache getUrlCache() {
+		return urlCache;
+	}
+
+	/**
+	 * @return the PMA.core URL of every session, per session's ID
+	 */
+	public Map<String, Object> getSessions() {
+		return sessions;
+	}
+
+	/**
+	 * @return the username of every session, per session's ID
+	 */
+	public Map<String, String> getUsernames() {
+		return usernames;
+	}
+
+	/**
+	 * @return the amount of data downloaded, in total, per session and per
+	 *         endpoint
+	 */
+	public DownloadStats getDownloadStats() {
+		return downloadStats;
+	}
+
+	/**
+	 * @return the latencies, failures and bytes of the requests sent, per server
+	 *         and endpoint
+	 */
+	public PmaMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * @return the cache of slide information
+	 */
+	public SlideInfoCache getSlideInfoCache() {
+		return slideInfoCache;
+	}
+
+	/**
+	 * @return the batcher of slide information requests
+	 */
+	public SlideInfoBatcher getSlideInfoBatcher() {
+		return slideInfoBatcher;
+	}
+
+	/**
+	 * @return the crawler of directory trees
+	 */
+	public SlideCrawler getSlideCrawler() {
+		return slideCrawler;
+	}
+
+	/**
+	 * @return the fingerprints of the slides whose tiles went through the local
+	 *         tile cache, per PMA.core URL and slide; empty for slides whose
+	 *         fingerprint couldn't be retrieved
+	 */
+	UrlCache getTileFingerprints() {
+		return tileFingerprints;
+	}
+
+	/**
+	 * This method is used to get the executor the client's asynchronous calls run
+	 * on. Unless one was set through setAsyncExecutor(), a fixed pool of daemon
+	 * threads sized to the transport's per-host connection limit is created on
+	 * first use; it is owned by the client and shut down by close()
+	 *
+	 * @return Executor used by the asynchronous calls
+	 * @throws IllegalStateException if the client was closed and has no executor
+	 *                               set
+	 */
+	public Executor getAsyncExecutor() {
+		Executor executor = asyncExecutor;
+		if (executor == null) {
+			synchronized (this) {
+				executor = asyncExecutor;
+				if (executor == null) {
+					if (closed) {
+						throw new IllegalStateException("PmaClient is closed");
+					}
+					final AtomicInteger threadNumber = new AtomicInteger();
+					ownedExecutor = Executors.newFixedThreadPool(getTransport().getMaxConnectionsPerHost(),
+							new ThreadFactory() {
+								@Override
+								public Thread newThread(Runnable r) {
+									Thread thread = new Thread(r, "pma-async-" + threadNumber.incrementAndGet());
+									thread.setDaemon(true);
+									return thread;
+								}
+							});
+					executor = ownedExecutor;
+					asyncExecutor = executor;
+				}
+			}
+		}
+		return executor;
+	}
+
+	/**
+	 * This method is used to change the executor the client's asynchronous calls
+	 * run on. The pool the client created itself, if any, is shut down (tasks
+	 * already submitted still complete); an executor set here is never shut down
+	 * by the client
+	 *
+	 * @param executor the executor the client's asynchronous calls run on, null
+	 *                 to fall back to the default pool
+	 */
+	public void setAsyncExecutor(Executor executor) {
+		ExecutorService owned;
+		synchronized (this) {
+			owned = ownedExecutor;
+			ownedExecutor = null;
+			asyncExecutor = executor;
+		}
+		if (owned != null) {
+			owned.shutdown();
+		}
+	}
+
+	/**
+	 * This method is used to release what the client holds: the pool it created
+	 * for its asynchronous calls is shut down, letting tasks already submitted
+	 * complete. Executors set through setAsyncExecutor() and the local tile cache
+	 * belong to the caller and are left alone. Closing the default client has no
+	 * effect
+	 */
+	@Override
+	public void close() {
+		if (this == defaultClient) {
+			return;
+		}
+		ExecutorService owned;
+		synchronized (this) {
+			closed = true;
+			owned = ownedExecutor;
+			ownedExecutor = null;
+			if (asyncExecutor == owned) {
+				asyncExecutor = null;
+			}
+		}
+		if (owned != null) {
+			owned.shutdown();
+		}
+	}
+
+	/**
+	 * @return the local tile cache, null if tiles aren't cached locally
+	 */
+	public DiskTileCache getDiskTileCache() {
+		return diskTileCache;
+	}
+
+	/**
+	 * @param cache the local tile cache, null to stop caching tiles locally; the
+	 *              previous cache, if any, is not closed
+	 */
+	public void setDiskTileCache(DiskTileCache cache) {
+		diskTileCache = cache;
+		tileFingerprints.clear();
+	}
+
+	/**
+	 * @return the local index searchSlides() answers from, null if it queries
+	 *         PMA.core
+	 */
+	public SlidePathIndex getSlidePathIndex() {
+		return slidePathIndex;
+	}
+
+	/**
+	 * @param index the local index searchSlides() answers from, null to query
+	 *              PMA.core
+	 */
+	public void setSlidePathIndex(SlidePathIndex index) {
+		slidePathIndex = index;
+	}
+
+	@Override
+	public String toString() {
+		return "PmaClient [sessions=" + sessions.size() + ", slideInfoCache=" + slideInfoCache + "]";
+	}
+}
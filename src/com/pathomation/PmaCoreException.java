@@ -0,0 +1,64 @@
+package com.pathomation;
+
+/**
+ * Thrown when PMA.core answers a request with an error ({"Code": ...,
+ * "Message": ...}) instead of the data asked for, e.g. because the slide or
+ * directory doesn't exist or can't be accessed with the session
+ */
+public class PmaCoreException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Object code;
+	private final Object serverMessage;
+	private final boolean batch;
+
+	/**
+	 * Constructor
+	 *
+	 * @param message       description of the failed call
+	 * @param code          error code reported by PMA.core
+	 * @param serverMessage error message reported by PMA.core
+	 */
+	public PmaCoreException(String message, Object code, Object serverMessage) {
+		this(message, code, serverMessage, false);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param message       description of the failed call
+	 * @param code          error code reported by PMA.core
+	 * @param serverMessage error message reported by PMA.core
+	 * @param batch         true if the error answers a request for several
+	 *                      items at once
+	 */
+	public PmaCoreException(String message, Object code, Object serverMessage, boolean batch) {
+		super(message);
+		this.code = code;
+		this.serverMessage = serverMessage;
+		this.batch = batch;
+	}
+
+	/**
+	 * @return the error code reported by PMA.core
+	 */
+	public Object getCode() {
+		return code;
+	}
+
+	/**
+	 * @return the error message reported by PMA.core
+	 */
+	public Object getServerMessage() {
+		return serverMessage;
+	}
+
+	/**
+	 * @return true if the error answers a request for several items at once
+	 *         (e.g. GetImagesInfo), so it doesn't tell which of them is at fault
+	 */
+	public boolean isBatch() {
+		return batch;
+	}
+}
@@ -0,0 +1,104 @@
+package com.pathomation;
+
+import java.util.regex.Pattern;
+
+/**
+ * Emits JDK Flight Recorder events: a com.pathomation.Request event for every
+ * attempt of an HTTP request (endpoint, slide, tile coordinates, status, bytes
+ * and duration) and a com.pathomation.CacheLookup event for every lookup in the
+ * URL, slide information and local tile caches. Both are enabled by the
+ * default JFR settings, e.g. with -XX:StartFlightRecording. Session IDs and
+ * passwords are left out of the URLs recorded.
+ * <p>
+ * On a JVM without Flight Recorder nothing is emitted, and the jdk.jfr classes
+ * are never loaded. The classes referring to them live in src-jfr and are
+ * compiled for Java 11, while the SDK targets Java 8; they are loaded
+ * reflectively, and nothing is emitted when they are missing (e.g. built with
+ * JDK 8) or can't be loaded. When no recording is running, emitting costs a
+ * check.
+ * </p>
+ */
+final class PmaEvents {
+
+	private static final Recorder RECORDER = loadRecorder();
+
+	private static final Pattern SECRETS = Pattern.compile("(?i)([?&](?:sessionID|password)=)[^&#]*");
+
+	private PmaEvents() {
+	}
+
+	private static Recorder loadRecorder() {
+		try {
+			Class.forName("jdk.jfr.Event", false, PmaEvents.class.getClassLoader());
+			return (Recorder) Class.forName("com.pathomation.JfrRecorder").getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * This method is used to start timing a request
+	 *
+	 * @return Event to hand to endRequest(), null if none is recorded
+	 */
+	static Object beginRequest() {
+		return RECORDER != null ? RECORDER.beginRequest() : null;
+	}
+
+	/**
+	 * This method is used to record a request
+	 *
+	 * @param event        event returned by beginRequest()
+	 * @param method       HTTP method
+	 * @param url          URL requested
+	 * @param server       server, as protocol://host:port
+	 * @param endpoint     endpoint
+	 * @param status       HTTP status code, 0 if no answer came
+	 * @param wireBytes    response body bytes received over the wire
+	 * @param decodedBytes response body bytes after decompression
+	 * @param error        failure, null if the request succeeded
+	 */
+	static void endRequest(Object event, String method, String url, String server, String endpoint, int status,
+			long wireBytes, long decodedBytes, Throwable error) {
+		if (event != null) {
+			RECORDER.endRequest(event, method, url, server, endpoint, status, wireBytes, decodedBytes, error);
+		}
+	}
+
+	/**
+	 * This method is used to record a cache lookup
+	 *
+	 * @param cache cache ("url", "slideInfo" or "diskTile")
+	 * @param key   URL, slide or tile looked up
+	 * @param hit   true if the cache held it
+	 */
+	static void cacheLookup(String cache, String key, boolean hit) {
+		if (RECORDER != null) {
+			RECORDER.cacheLookup(cache, key, hit);
+		}
+	}
+
+	/**
+	 * This method is used to leave the session's ID and password out of a URL
+	 *
+	 * @param url URL
+	 * @return URL with empty sessionID and password parameters
+	 */
+	static String redact(String url) {
+		return url != null ? SECRETS.matcher(url).replaceAll("$1") : null;
+	}
+
+	/**
+	 * Emits the events; implemented by JfrRecorder, in src-jfr, which is compiled
+	 * for Java 11 along with the event classes
+	 */
+	interface Recorder {
+
+		Object beginRequest();
+
+		void endRequest(Object event, String method, String url, String server, String endpoint, int status,
+				long wireBytes, long decodedBytes, Throwable error);
+
+		void cacheLookup(String cache, String key, boolean hit);
+	}
+}
@@ -0,0 +1,230 @@
+package com.pathomation;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Logging used by the SDK, on top of {@link PMA#logger}.
+ * <p>
+ * Nothing is written to stdout or stderr. Messages are only built when the
+ * logger would publish them: they are passed as suppliers, or as
+ * java.util.logging patterns ("Posting to {0}") formatted by the handler.
+ * Debug messages are logged at FINE, or at INFO while PMA.debug is set.
+ * </p>
+ * <p>
+ * Errors are logged with their exception, whose stack trace the handler's
+ * formatter renders only when it publishes the record. They are rate limited
+ * per exception class: at most {@link #ERRORS_PER_WINDOW} errors of a class
+ * are logged per {@link #WINDOW_MILLIS} window, so a storm of failing requests
+ * doesn't flood the log. Warnings and errors without exception are rate limited
+ * the same way per call site, i.e. per supplier lambda. How many were
+ * suppressed is logged with the first message of the next window and counted
+ * by {@link #getSuppressedCount()}.
+ * </p>
+ */
+public final class PmaLog {
+
+	/**
+	 * Number of errors of one exception class logged per window
+	 */
+	public static final int ERRORS_PER_WINDOW = 10;
+
+	/**
+	 * Length of a window, in milliseconds
+	 */
+	public static final long WINDOW_MILLIS = 10000;
+
+	// windows are tracked per exception class and call site, of which there are
+	// few
+	private static final int MAX_WINDOWS = 1024;
+
+	private static final Map<String, Window> windows = new ConcurrentHashMap<>();
+	private static final LongAdder suppressed = new LongAdder();
+
+	/**
+	 * Messages logged and suppressed in the current window of an exception class
+	 * or call site
+	 */
+	private static final class Window {
+		private final AtomicLong start = new AtomicLong(System.nanoTime());
+		private final AtomicLong logged = new AtomicLong();
+		private final AtomicLong suppressed = new AtomicLong();
+
+		/**
+		 * @return -1 if the error is to be suppressed, otherwise the number of
+		 *         errors suppressed since the last one logged
+		 */
+		long admit() {
+			long now = System.nanoTime();
+			long windowStart = start.get();
+			if (now - windowStart >= TimeUnit.MILLISECONDS.toNanos(WINDOW_MILLIS)
+					&& start.compareAndSet(windowStart, now)) {
+				logged.set(0);
+			}
+			if (logged.incrementAndGet() > ERRORS_PER_WINDOW) {
+				suppressed.incrementAndGet();
+				return -1;
+			}
+			return suppressed.getAndSet(0);
+		}
+	}
+
+	private PmaLog() {
+	}
+
+	private static Level debugLevel() {
+		return PMA.debug ? Level.INFO : Level.FINE;
+	}
+
+	/**
+	 * This method is used to check whether messages of a level would be logged
+	 *
+	 * @param level level
+	 * @return True if PMA.logger is set and publishes the level
+	 */
+	public static boolean isLoggable(Level level) {
+		Logger logger = PMA.logger;
+		return logger != null && logger.isLoggable(level);
+	}
+
+	/**
+	 * @return true if debug messages would be logged
+	 */
+	public static boolean isDebugEnabled() {
+		return isLoggable(debugLevel());
+	}
+
+	/**
+	 * This method is used to log a debug message
+	 *
+	 * @param message message, or java.util.logging pattern when parameters are
+	 *                given
+	 * @param params  parameters of the pattern
+	 */
+	public static void debug(String message, Object... params) {
+		log(debugLevel(), message, params);
+	}
+
+	/**
+	 * This method is used to log a debug message built only when it is logged
+	 *
+	 * @param message supplier of the message
+	 */
+	public static void debug(Supplier<String> message) {
+		log(debugLevel(), message);
+	}
+
+	/**
+	 * This method is used to log an informational message
+	 *
+	 * @param message message, or java.util.logging pattern when parameters are
+	 *                given
+	 * @param params  parameters of the pattern
+	 */
+	public static void info(String message, Object... params) {
+		log(Level.INFO, message, params);
+	}
+
+	/**
+	 * This method is used to log a warning built only when it is logged, subject
+	 * to rate limiting
+	 *
+	 * @param message supplier of the message
+	 */
+	public static void warning(Supplier<String> message) {
+		limited(Level.WARNING, message, null);
+	}
+
+	/**
+	 * This method is used to log an error without exception, subject to rate
+	 * limiting
+	 *
+	 * @param message supplier of the message
+	 */
+	public static void severe(Supplier<String> message) {
+		limited(Level.SEVERE, message, null);
+	}
+
+	/**
+	 * This method is used to log an exception, subject to rate limiting
+	 *
+	 * @param error exception
+	 */
+	public static void error(Throwable error) {
+		error(null, error);
+	}
+
+	/**
+	 * This method is used to log an exception with a message describing what
+	 * failed, subject to rate limiting
+	 *
+	 * @param message supplier of the message, null to use the exception's
+	 * @param error   exception
+	 */
+	public static void error(Supplier<String> message, Throwable error) {
+		limited(Level.SEVERE, message, error);
+	}
+
+	/**
+	 * Logs a message unless too many were logged in the current window of the
+	 * exception's class or, without exception, of the message's call site
+	 */
+	private static void limited(Level level, Supplier<String> message, Throwable error) {
+		Logger logger = PMA.logger;
+		if (logger == null || !logger.isLoggable(level)) {
+			return;
+		}
+		// each lambda expression has a class of its own
+		String key = error != null ? error.getClass().getName() : message.getClass().getName();
+		Window window = windows.get(key);
+		if (window == null) {
+			if (windows.size() >= MAX_WINDOWS) {
+				windows.clear();
+			}
+			window = windows.computeIfAbsent(key, k -> new Window());
+		}
+		long previouslySuppressed = window.admit();
+		if (previouslySuppressed < 0) {
+			suppressed.increment();
+			return;
+		}
+		String text = message != null ? message.get() : error.toString();
+		if (previouslySuppressed > 0) {
+			text += " (" + previouslySuppressed + " similar " + (error != null ? "errors" : "messages")
+					+ " suppressed)";
+		}
+		if (error != null) {
+			logger.log(level, text, error);
+		} else {
+			logger.log(level, text);
+		}
+	}
+
+	/**
+	 * @return the number of errors and warnings that weren't logged because of
+	 *         rate limiting
+	 */
+	public static long getSuppressedCount() {
+		return suppressed.sum();
+	}
+
+	private static void log(Level level, String message, Object... params) {
+		Logger logger = PMA.logger;
+		if (logger != null && logger.isLoggable(level)) {
+			logger.log(level, message, params);
+		}
+	}
+
+	private static void log(Level level, Supplier<String> message) {
+		Logger logger = PMA.logger;
+		if (logger != null && logger.isLoggable(level)) {
+			logger.log(level, message.get());
+		}
+	}
+}
@@ -0,0 +1,425 @@
+package com.pathomation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the requests a client sends, per server and endpoint (GetImageInfo,
+ * GetDirectories, tile, Sessions...): number of requests and failures, bytes
+ * received and a {@link LatencyHistogram} of the time each request took, from
+ * sending it to releasing its response. Every attempt counts as a request, so
+ * a retried request counts more than once. A request fails when no answer
+ * comes, when reading the answer fails or when the server answers 429 or 5xx.
+ * <p>
+ * The crawls ({@link SlideCrawler}) and tile streams ({@link TileEngine},
+ * Core.getTiles()) started through the client are counted as well.
+ * </p>
+ * <p>
+ * {@link #snapshot()} takes a copy of the figures, including the hit ratios of
+ * the client's caches, to be logged or scraped by a monitoring system.
+ * </p>
+ */
+public class PmaMetrics {
+
+	/**
+	 * Metrics of one endpoint of one server
+	 */
+	public static final class Endpoint {
+
+		private final String server;
+		private final String endpoint;
+		private final LongAdder requests = new LongAdder();
+		private final LongAdder errors = new LongAdder();
+		private final LongAdder wireBytes = new LongAdder();
+		private final LongAdder decodedBytes = new LongAdder();
+		private final LatencyHistogram latency = new LatencyHistogram();
+
+		Endpoint(String server, String endpoint) {
+			this.server = server;
+			this.endpoint = endpoint;
+		}
+
+		void record(long nanos, boolean failed) {
+			requests.increment();
+			if (failed) {
+				errors.increment();
+			}
+			latency.record(nanos);
+		}
+
+		void addBytes(long wire, long decoded) {
+			wireBytes.add(wire);
+			decodedBytes.add(decoded);
+		}
+
+		/**
+		 * @return the server, as protocol://host:port
+		 */
+		public String getServer() {
+			return server;
+		}
+
+		/**
+		 * @return the endpoint
+		 */
+		public String getEndpoint() {
+			return endpoint;
+		}
+
+		/**
+		 * @return the number of requests sent
+		 */
+		public long getRequestCount() {
+			return requests.sum();
+		}
+
+		/**
+		 * @return the number of requests that failed
+		 */
+		public long getErrorCount() {
+			return errors.sum();
+		}
+
+		/**
+		 * @return the number of body bytes received over the wire
+		 */
+		public long getWireBytes() {
+			return wireBytes.sum();
+		}
+
+		/**
+		 * @return the number of body bytes after decompression
+		 */
+		public long getDecodedBytes() {
+			return decodedBytes.sum();
+		}
+
+		/**
+		 * @return the histogram of the requests' latencies
+		 */
+		public LatencyHistogram getLatency() {
+			return latency;
+		}
+	}
+
+	/**
+	 * Figures of one endpoint of one server at a given moment
+	 */
+	public static final class EndpointSnapshot {
+
+		private final String server;
+		private final String endpoint;
+		private final long requests;
+		private final long errors;
+		private final long wireBytes;
+		private final long decodedBytes;
+		private final LatencyHistogram.Snapshot latency;
+
+		private EndpointSnapshot(Endpoint metrics) {
+			this.server = metrics.server;
+			this.endpoint = metrics.endpoint;
+			this.latency = metrics.latency.snapshot();
+			this.requests = metrics.requests.sum();
+			this.errors = metrics.errors.sum();
+			this.wireBytes = metrics.wireBytes.sum();
+			this.decodedBytes = metrics.decodedBytes.sum();
+		}
+
+		/**
+		 * @return the server, as protocol://host:port
+		 */
+		public String getServer() {
+			return server;
+		}
+
+		/**
+		 * @return the endpoint
+		 */
+		public String getEndpoint() {
+			return endpoint;
+		}
+
+		/**
+		 * @return the number of requests sent
+		 */
+		public long getRequestCount() {
+			return requests;
+		}
+
+		/**
+		 * @return the number of requests that failed
+		 */
+		public long getErrorCount() {
+			return errors;
+		}
+
+		/**
+		 * @return the number of body bytes received over the wire
+		 */
+		public long getWireBytes() {
+			return wireBytes;
+		}
+
+		/**
+		 * @return the number of body bytes after decompression
+		 */
+		public long getDecodedBytes() {
+			return decodedBytes;
+		}
+
+		/**
+		 * @return the percentiles of the requests' latencies, in microseconds
+		 */
+		public LatencyHistogram.Snapshot getLatency() {
+			return latency;
+		}
+
+		@Override
+		public String toString() {
+			return "EndpointSnapshot [server=" + server + ", endpoint=" + endpoint + ", requests=" + requests
+					+ ", errors=" + errors + ", wireBytes=" + wireBytes + ", decodedBytes=" + decodedBytes
+					+ ", latency=" + latency + "]";
+		}
+	}
+
+	/**
+	 * Figures of one cache at a given moment
+	 */
+	public static final class CacheSnapshot {
+
+		private final long hits;
+		private final long misses;
+		private final long evictions;
+
+		private CacheSnapshot(long hits, long misses, long evictions) {
+			this.hits = hits;
+			this.misses = misses;
+			this.evictions = evictions;
+		}
+
+		/**
+		 * @return the number of lookups answered from the cache
+		 */
+		public long getHitCount() {
+			return hits;
+		}
+
+		/**
+		 * @return the number of lookups that weren't
+		 */
+		public long getMissCount() {
+			return misses;
+		}
+
+		/**
+		 * @return the number of entries evicted to make room
+		 */
+		public long getEvictionCount() {
+			return evictions;
+		}
+
+		/**
+		 * @return the share of lookups answered from the cache, between 0 and 1, 0
+		 *         if there was none
+		 */
+		public double getHitRatio() {
+			long lookups = hits + misses;
+			return lookups > 0 ? (double) hits / lookups : 0;
+		}
+
+		@Override
+		public String toString() {
+			return "CacheSnapshot [hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + ", hitRatio="
+					+ String.format("%.3f", getHitRatio()) + "]";
+		}
+	}
+
+	/**
+	 * Figures of a client at a given moment
+	 */
+	public static final class Snapshot {
+
+		private final long timestamp;
+		private final List<EndpointSnapshot> endpoints;
+		private final Map<String, CacheSnapshot> caches;
+		private final Map<String, Long> counters;
+
+		private Snapshot(long timestamp, List<EndpointSnapshot> endpoints, Map<String, CacheSnapshot> caches,
+				Map<String, Long> counters) {
+			this.timestamp = timestamp;
+			this.endpoints = Collections.unmodifiableList(endpoints);
+			this.caches = Collections.unmodifiableMap(caches);
+			this.counters = Collections.unmodifiableMap(counters);
+		}
+
+		/**
+		 * @return the moment the snapshot was taken, in milliseconds since the epoch
+		 */
+		public long getTimestamp() {
+			return timestamp;
+		}
+
+		/**
+		 * @return the figures per server and endpoint, sorted by server and endpoint
+		 */
+		public List<EndpointSnapshot> getEndpoints() {
+			return endpoints;
+		}
+
+		/**
+		 * This method is used to get the figures of an endpoint
+		 *
+		 * @param server   server, as protocol://host:port
+		 * @param endpoint endpoint
+		 * @return Figures, null if no request was sent to the endpoint
+		 */
+		public EndpointSnapshot getEndpoint(String server, String endpoint) {
+			for (EndpointSnapshot snapshot : endpoints) {
+				if (snapshot.server.equals(server) && snapshot.endpoint.equals(endpoint)) {
+					return snapshot;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * @return the figures per cache: "url" (PMA.httpGet() responses),
+		 *         "slideInfo", "diskTile" when a local tile cache is set, and
+		 *         "coalescing" (identical requests in flight that were shared)
+		 */
+		public Map<String, CacheSnapshot> getCaches() {
+			return caches;
+		}
+
+		/**
+		 * @return the crawl and tile counters: "crawls", "activeCrawls",
+		 *         "failedCrawls", "crawledDirectories", "directoryErrors",
+		 *         "crawledSlides", "tiles", "tileErrors" and "tilesInFlight"
+		 */
+		public Map<String, Long> getCounters() {
+			return counters;
+		}
+
+		@Override
+		public String toString() {
+			return "Snapshot [endpoints=" + endpoints + ", caches=" + caches + ", counters=" + counters + "]";
+		}
+	}
+
+	private final PmaClient client;
+	private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+	private final LongAdder crawls = new LongAdder();
+	private final LongAdder activeCrawls = new LongAdder();
+	private final LongAdder failedCrawls = new LongAdder();
+	private final LongAdder crawledDirectories = new LongAdder();
+	private final LongAdder directoryErrors = new LongAdder();
+	private final LongAdder crawledSlides = new LongAdder();
+	private final LongAdder tiles = new LongAdder();
+	private final LongAdder tileErrors = new LongAdder();
+	private final LongAdder tilesInFlight = new LongAdder();
+
+	PmaMetrics(PmaClient client) {
+		this.client = client;
+	}
+
+	/**
+	 * This method is used to get the metrics of an endpoint, creating them on
+	 * first use
+	 *
+	 * @param server   server, as protocol://host:port
+	 * @param endpoint endpoint
+	 * @return Metrics
+	 */
+	Endpoint endpoint(String server, String endpoint) {
+		return endpoints.computeIfAbsent(server + " " + endpoint, k -> new Endpoint(server, endpoint));
+	}
+
+	void crawlStarted() {
+		crawls.increment();
+		activeCrawls.increment();
+	}
+
+	void crawlFinished(boolean failed) {
+		activeCrawls.decrement();
+		if (failed) {
+			failedCrawls.increment();
+		}
+	}
+
+	void directoryCrawled(int slides) {
+		crawledDirectories.increment();
+		crawledSlides.add(slides);
+	}
+
+	void directoryFailed() {
+		directoryErrors.increment();
+	}
+
+	void tileStarted() {
+		tiles.increment();
+		tilesInFlight.increment();
+	}
+
+	void tileFinished(boolean failed) {
+		tilesInFlight.decrement();
+		if (failed) {
+			tileErrors.increment();
+		}
+	}
+
+	/**
+	 * @return the metrics of every endpoint a request was sent to
+	 */
+	public List<Endpoint> getEndpoints() {
+		return new ArrayList<>(endpoints.values());
+	}
+
+	/**
+	 * This method is used to take a copy of the figures
+	 *
+	 * @return Snapshot
+	 */
+	public Snapshot snapshot() {
+		List<EndpointSnapshot> snapshots = new ArrayList<>();
+		for (Endpoint metrics : endpoints.values()) {
+			snapshots.add(new EndpointSnapshot(metrics));
+		}
+		snapshots.sort((a, b) -> a.server.equals(b.server) ? a.endpoint.compareTo(b.endpoint)
+				: a.server.compareTo(b.server));
+		Map<String, CacheSnapshot> caches = new LinkedHashMap<>();
+		UrlCache urlCache = client.getUrlCache();
+		caches.put("url",
+				new CacheSnapshot(urlCache.getHitCount(), urlCache.getMissCount(), urlCache.getEvictionCount()));
+		SlideInfoCache slideInfoCache = client.getSlideInfoCache();
+		caches.put("slideInfo", new CacheSnapshot(slideInfoCache.getHitCount(), slideInfoCache.getMissCount(),
+				slideInfoCache.getEvictionCount()));
+		DiskTileCache diskTileCache = client.getDiskTileCache();
+		if (diskTileCache != null) {
+			caches.put("diskTile", new CacheSnapshot(diskTileCache.getHitCount(), diskTileCache.getMissCount(),
+					diskTileCache.getEvictionCount()));
+		}
+		SingleFlight singleFlight = client.getTransport().getSingleFlight();
+		caches.put("coalescing", new CacheSnapshot(singleFlight.getSharedCount(), singleFlight.getCallCount(), 0));
+		Map<String, Long> counters = new LinkedHashMap<>();
+		counters.put("crawls", crawls.sum());
+		counters.put("activeCrawls", activeCrawls.sum());
+		counters.put("failedCrawls", failedCrawls.sum());
+		counters.put("crawledDirectories", crawledDirectories.sum());
+		counters.put("directoryErrors", directoryErrors.sum());
+		counters.put("crawledSlides", crawledSlides.sum());
+		counters.put("tiles", tiles.sum());
+		counters.put("tileErrors", tileErrors.sum());
+		counters.put("tilesInFlight", tilesInFlight.sum());
+		return new Snapshot(System.currentTimeMillis(), snapshots, caches, counters);
+	}
+
+	@Override
+	public String toString() {
+		return "PmaMetrics [endpoints=" + endpoints.size() + "]";
+	}
+}
@@ -0,0 +1,176 @@
+package com.pathomation;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Outcome of a call to PMA.core that tells apart data that doesn't exist from
+ * data that couldn't be retrieved.
+ * <p>
+ * Most methods of Core return null in both cases, so a slide or tile missing
+ * from the results of a long job can't be told apart from one that was lost to
+ * a dropped connection. The methods returning a PmaResult report:
+ * </p>
+ * <ul>
+ * <li>OK with the value when the call succeeded</li>
+ * <li>NOT_FOUND when the server answered, but had nothing to return: a 404 or
+ * 410 answer, or an error reported by PMA.core itself (unknown slide, no
+ * access...) for that item alone</li>
+ * <li>FAILED with the cause when the server couldn't be reached or failed
+ * (connection failures and timeouts, 5xx answers, open circuit breaker, an
+ * error PMA.core reported for a batch of items...); trying again later may
+ * succeed</li>
+ * </ul>
+ *
+ * @param <T> Type of the value
+ */
+public final class PmaResult<T> {
+
+	/**
+	 * Kind of outcome
+	 */
+	public enum Status {
+		/**
+		 * The call succeeded
+		 */
+		OK,
+		/**
+		 * The server answered that there's nothing to return
+		 */
+		NOT_FOUND,
+		/**
+		 * The call failed, the value may exist
+		 */
+		FAILED
+	}
+
+	private final Status status;
+	private final T value;
+	private final Exception error;
+
+	private PmaResult(Status status, T value, Exception error) {
+		this.status = status;
+		this.value = value;
+		this.error = error;
+	}
+
+	/**
+	 * This method is used to create a successful result
+	 *
+	 * @param <T>   Type of the value
+	 * @param value value
+	 * @return Result
+	 */
+	public static <T> PmaResult<T> ok(T value) {
+		return new PmaResult<>(Status.OK, value, null);
+	}
+
+	/**
+	 * This method is used to create a result for data that doesn't exist
+	 *
+	 * @param <T>   Type of the value
+	 * @param error error reported by the server, may be null
+	 * @return Result
+	 */
+	public static <T> PmaResult<T> notFound(Exception error) {
+		return new PmaResult<>(Status.NOT_FOUND, null, error);
+	}
+
+	/**
+	 * This method is used to create a result for a call that failed
+	 *
+	 * @param <T>   Type of the value
+	 * @param error cause of the failure
+	 * @return Result
+	 */
+	public static <T> PmaResult<T> failed(Exception error) {
+		return new PmaResult<>(Status.FAILED, null, error);
+	}
+
+	/**
+	 * This method is used to run a call and classify its outcome. A call returning
+	 * null counts as NOT_FOUND
+	 *
+	 * @param <T>  Type of the value
+	 * @param call call to run
+	 * @return Result
+	 */
+	public static <T> PmaResult<T> of(Callable<T> call) {
+		try {
+			T value = call.call();
+			return value != null ? ok(value) : notFound(null);
+		} catch (Exception e) {
+			return fromException(e);
+		}
+	}
+
+	/**
+	 * This method is used to classify a failed call
+	 *
+	 * @param <T> Type of the value
+	 * @param e   exception thrown by the call
+	 * @return NOT_FOUND or FAILED result
+	 */
+	public static <T> PmaResult<T> fromException(Exception e) {
+		Throwable cause = e;
+		while ((cause instanceof ExecutionException || cause instanceof CompletionException)
+				&& cause.getCause() instanceof Exception) {
+			cause = cause.getCause();
+		}
+		Exception error = (Exception) cause;
+		// an error for a whole batch doesn't say the item asked for doesn't exist
+		if ((error instanceof PmaCoreException && !((PmaCoreException) error).isBatch())
+				|| (error instanceof HttpStatusException && ((HttpStatusException) error).isNotFound())) {
+			return notFound(error);
+		}
+		return failed(error);
+	}
+
+	/**
+	 * @return the kind of outcome
+	 */
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * @return true if the call succeeded
+	 */
+	public boolean isOk() {
+		return status == Status.OK;
+	}
+
+	/**
+	 * @return true if the server answered that there's nothing to return
+	 */
+	public boolean isNotFound() {
+		return status == Status.NOT_FOUND;
+	}
+
+	/**
+	 * @return true if the call failed
+	 */
+	public boolean isFailed() {
+		return status == Status.FAILED;
+	}
+
+	/**
+	 * @return the value, null unless the call succeeded
+	 */
+	public T getValue() {
+		return value;
+	}
+
+	/**
+	 * @return the error, null if the call succeeded
+	 */
+	public Exception getError() {
+		return error;
+	}
+
+	@Override
+	public String toString() {
+		return "PmaResult [status=" + status + (error != null ? ", error=" + error.getMessage() : "") + "]";
+	}
+}
@@ -0,0 +1,123 @@
+package com.pathomation;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How often and how long to wait before retrying a failed idempotent request.
+ * <p>
+ * The delay before retry n (counting from 1) is drawn uniformly between 0 and
+ * min(maxDelay, baseDelay * 2^(n-1)) ("full jitter"), so clients that failed at
+ * the same moment don't all come back at the same moment. A Retry-After header
+ * sent with a 429 or 503 answer is honoured, up to the maximum delay.
+ * </p>
+ * <p>
+ * Connection failures, timeouts and 408, 429, 502, 503 and 504 answers are
+ * retried; other answers are final.
+ * </p>
+ */
+public class RetryPolicy {
+
+	/**
+	 * Default policy: 3 attempts, 200 ms base delay, 5 s maximum delay
+	 */
+	public static final RetryPolicy DEFAULT = new RetryPolicy(3, 200, 5000);
+
+	/**
+	 * Policy that never retries
+	 */
+	public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0);
+
+	private final int maxAttempts;
+	private final long baseDelayMillis;
+	private final long maxDelayMillis;
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxAttempts     maximum number of attempts, including the first one
+	 * @param baseDelayMillis upper bound of the delay before the first retry
+	 * @param maxDelayMillis  upper bound of any delay
+	 */
+	public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+		if (maxAttempts < 1 || baseDelayMillis < 0 || maxDelayMillis < baseDelayMillis) {
+			PmaLog.severe(() -> "RetryPolicy() : Invalid argument");
+			throw new IllegalArgumentException("maxAttempts >= 1 and 0 <= baseDelayMillis <= maxDelayMillis required");
+		}
+		this.maxAttempts = maxAttempts;
+		this.baseDelayMillis = baseDelayMillis;
+		this.maxDelayMillis = maxDelayMillis;
+	}
+
+	/**
+	 * @return the maximum number of attempts, including the first one
+	 */
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * @return the upper bound of the delay before the first retry
+	 */
+	public long getBaseDelayMillis() {
+		return baseDelayMillis;
+	}
+
+	/**
+	 * @return the upper bound of any delay
+	 */
+	public long getMaxDelayMillis() {
+		return maxDelayMillis;
+	}
+
+	/**
+	 * This method is used to get the delay before a retry
+	 *
+	 * @param retry            retry number, starting at 1
+	 * @param retryAfterMillis delay asked for by the server, negative if none
+	 * @return Number of milliseconds to wait
+	 */
+	public long delayMillis(int retry, long retryAfterMillis) {
+		if (retryAfterMillis >= 0) {
+			return Math.min(maxDelayMillis, retryAfterMillis);
+		}
+		long bound = baseDelayMillis << Math.min(retry - 1, 30);
+		bound = Math.min(maxDelayMillis, bound < 0 ? maxDelayMillis : bound);
+		return bound > 0 ? ThreadLocalRandom.current().nextLong(bound + 1) : 0;
+	}
+
+	/**
+	 * This method is used to tell whether an HTTP status code is worth retrying
+	 *
+	 * @param status HTTP status code
+	 * @return True if the status is transient
+	 */
+	public static boolean isRetryable(int status) {
+		return status == 408 || status == 429 || status == 502 || status == 503 || status == 504;
+	}
+
+	/**
+	 * This method is used to tell whether a failure is worth retrying
+	 *
+	 * @param e failure
+	 * @return True if the failure may be transient
+	 */
+	public static boolean isRetryable(IOException e) {
+		if (e instanceof HttpStatusException) {
+			return isRetryable(((HttpStatusException) e).getStatus());
+		}
+		if (e instanceof CircuitBreaker.OpenException || e instanceof Deadline.ExceededException) {
+			return false;
+		}
+		// an interrupted thread wants to stop, a timed out read doesn't
+		return !(e instanceof InterruptedIOException) || e instanceof SocketTimeoutException;
+	}
+
+	@Override
+	public String toString() {
+		return "RetryPolicy [maxAttempts=" + maxAttempts + ", baseDelayMillis=" + baseDelayMillis
+				+ ", maxDelayMillis=" + maxDelayMillis + "]";
+	}
+}
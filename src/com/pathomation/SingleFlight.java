@@ -0,0 +1,177 @@
+package com.pathomation;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces identical calls made at the same time: the first caller for a key
+ * performs the call, and everyone asking for the same key before it completes
+ * waits for it and gets the same result (or the same exception) instead of
+ * performing the call again. Once the call completed the key is forgotten, so
+ * results aren't cached. Waiting callers give up when their {@link Deadline}
+ * expires.
+ * <p>
+ * Failures that belong to the thread performing the call rather than to the
+ * call itself aren't shared: when it was interrupted, or ran out of its own
+ * deadline, the waiting callers perform the call again (one of them, the
+ * others wait for it) within their own deadlines.
+ * </p>
+ * <p>
+ * Byte arrays are copied for every waiting caller. Any other result (e.g. the
+ * Map of a json response) is the very same object for all callers, and must
+ * not be modified.
+ * </p>
+ */
+public class SingleFlight {
+
+	/**
+	 * Call whose result can be shared
+	 *
+	 * @param <T> Type of the result
+	 */
+	public interface Call<T> {
+		/**
+		 * This method is used to perform the call
+		 *
+		 * @return Result
+		 * @throws IOException if the call fails
+		 */
+		T call() throws IOException;
+	}
+
+	/**
+	 * Call in flight
+	 */
+	private static class Flight extends CompletableFuture<Object> {
+		// the deadline of the performing thread may have cut the call short
+		final boolean bounded = Deadline.current() != null;
+	}
+
+	private final ConcurrentHashMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+	private final LongAdder calls = new LongAdder();
+	private final LongAdder shared = new LongAdder();
+
+	/**
+	 * This method is used to perform a call, or wait for the identical call in
+	 * flight
+	 *
+	 * @param <T>  Type of the result
+	 * @param key  key identifying identical calls
+	 * @param call call to perform
+	 * @return Result of the call
+	 * @throws IOException if the call fails, or the thread is interrupted while
+	 *                     waiting
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T execute(String key, Call<T> call) throws IOException {
+		while (true) {
+			Flight flight = new Flight();
+			Flight existing = inFlight.putIfAbsent(key, flight);
+			if (existing == null) {
+				return perform(key, flight, call);
+			}
+			Deadline deadline = Deadline.current();
+			try {
+				Object result;
+				if (deadline != null) {
+					result = existing.get(Math.max(0, deadline.remainingNanos()), TimeUnit.NANOSECONDS);
+				} else {
+					result = existing.get();
+				}
+				shared.increment();
+				return (T) (result instanceof byte[] ? ((byte[]) result).clone() : result);
+			} catch (TimeoutException e) {
+				throw new Deadline.ExceededException("Deadline exceeded while waiting for " + key);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for " + key);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (isPerformerFailure(existing.bounded, cause)) {
+					continue;
+				}
+				shared.increment();
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
+				}
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new IOException(cause);
+			}
+		}
+	}
+
+	private <T> T perform(String key, Flight flight, Call<T> call) throws IOException {
+		calls.increment();
+		try {
+			T result = call.call();
+			inFlight.remove(key, flight);
+			flight.complete(result);
+			return result;
+		} catch (Throwable t) {
+			inFlight.remove(key, flight);
+			flight.completeExceptionally(t);
+			throw t;
+		}
+	}
+
+	/**
+	 * This method is used to tell whether a call failed because of the thread
+	 * performing it rather than because of the call itself: an interruption, or a
+	 * deadline or timeout of a thread that had a deadline, says nothing about how
+	 * the call would go for another thread
+	 *
+	 * @param bounded true if the performing thread had a deadline
+	 * @param cause   exception the call failed with
+	 * @return True if other threads waiting for the call should perform it again
+	 */
+	static boolean isPerformerFailure(boolean bounded, Throwable cause) {
+		if (cause instanceof Deadline.ExceededException || cause instanceof ClosedByInterruptException) {
+			return true;
+		}
+		if (cause instanceof SocketTimeoutException) {
+			return bounded;
+		}
+		return cause instanceof InterruptedIOException;
+	}
+
+	/**
+	 * @return the number of calls currently in flight
+	 */
+	public int getInFlight() {
+		return inFlight.size();
+	}
+
+	/**
+	 * @return the number of calls actually performed
+	 */
+	public long getCallCount() {
+		return calls.sum();
+	}
+
+	/**
+	 * @return the number of callers that got the result of an identical call in
+	 *         flight instead of performing their own
+	 */
+	public long getSharedCount() {
+		return shared.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "SingleFlight [inFlight=" + inFlight.size() + ", calls=" + calls.sum() + ", shared=" + shared.sum()
+				+ "]";
+	}
+}
@@ -0,0 +1,427 @@
+package com.pathomation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Walks a directory tree of a PMA.core server concurrently.
+ * <p>
+ * Every directory is requested exactly once (GetDirectories for its
+ * sub-directories, GetFiles for its slides). Directories are visited breadth
+ * first by up to {@link #getMaxConcurrentRequests()} requests at a time; since
+ * a crawl only talks to the server of its session, this caps the load a crawl
+ * puts on that server. Scheduling never blocks a thread waiting for another, so
+ * any executor can be used. The requests of a crawl have the priority and the
+ * deadline of the thread that started it (see ConcurrencyLimiter.setPriority()
+ * and Deadline); once the deadline expires no more directories are requested
+ * and the crawl fails with a Deadline.ExceededException. Directories are
+ * requested through the client that was current when the crawl started.
+ * </p>
+ * <p>
+ * {@link #crawl(String, String, int, Consumer, Consumer)} streams the slides
+ * and directories to consumers as they are found, without keeping them.
+ * Core.getSlides() and Core.getDirectories() use the same walk for their
+ * recursive variants and return the results in the same order as a sequential
+ * depth-first walk would.
+ * </p>
+ */
+public class SlideCrawler {
+
+	/**
+	 * Default maximum number of requests in flight per crawl
+	 */
+	public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 8;
+
+	/**
+	 * Depth limit for walking the whole tree
+	 */
+	public static final int UNLIMITED_DEPTH = -1;
+
+	private static volatile ExecutorService defaultExecutor = null;
+
+	private final int maxConcurrentRequests;
+	private final Executor executor;
+
+	/**
+	 * Receives the directories of a walk through walkTree()
+	 */
+	interface Visitor {
+		void visit(String directory, List<String> directories, List<String> slides);
+	}
+
+	/**
+	 * A directory of the tree
+	 */
+	private static class Node {
+		final String path;
+		final int depth;
+		List<String> directories = Collections.emptyList();
+		List<String> slides = Collections.emptyList();
+		// only filled when the crawl keeps the tree
+		List<Node> children = Collections.emptyList();
+
+		Node(String path, int depth) {
+			this.path = path;
+			this.depth = depth;
+		}
+	}
+
+	/**
+	 * State of a single walk
+	 */
+	private class Crawl {
+		final String sessionID;
+		final int maxDepth;
+		final boolean listSlides;
+		final boolean listLeafDirectories;
+		// keep the tree and stop at the first error, for Core's recursive methods
+		final boolean retain;
+		final Consumer<String> slideConsumer;
+		final Consumer<String> directoryConsumer;
+		// priority of the thread that started the crawl
+		final ConcurrencyLimiter.Priority priority = ConcurrencyLimiter.getPriority();
+		// deadline of the thread that started the crawl, stops it when expired
+		final Deadline deadline = Deadline.current();
+		final PmaClient client = PmaClient.current();
+		final Node root;
+		final CompletableFuture<Node> done = new CompletableFuture<>();
+		final AtomicLong slideCount = new AtomicLong();
+		// guarded by this
+		final ArrayDeque<Node> queue = new ArrayDeque<>();
+		int inFlight = 0;
+		Exception error = null;
+		boolean pumping = false;
+		boolean pumpAgain = false;
+
+		Crawl(String startDir, String sessionID, int maxDepth, boolean listSlides, boolean listLeafDirectories,
+				boolean retain, Consumer<String> slideConsumer, Consumer<String> directoryConsumer) {
+			this.sessionID = sessionID;
+			this.maxDepth = maxDepth;
+			this.listSlides = listSlides;
+			this.listLeafDirectories = listLeafDirectories;
+			this.retain = retain;
+			this.slideConsumer = slideConsumer;
+			this.directoryConsumer = directoryConsumer;
+			this.root = new Node(startDir, 0);
+			queue.add(root);
+			client.getMetrics().crawlStarted();
+		}
+
+		/**
+		 * Starts as many queued directories as the cap allows, and completes the walk
+		 * once nothing is queued or in flight anymore. A single thread pumps at a
+		 * time: a call made while another thread (or, with an executor that runs
+		 * tasks on the calling thread, the same one) is pumping only makes it go
+		 * round once more, so the stack doesn't grow with the number of directories
+		 */
+		void pump() {
+			synchronized (this) {
+				if (pumping) {
+					pumpAgain = true;
+					return;
+				}
+				pumping = true;
+			}
+			while (true) {
+				List<Node> start = new ArrayList<>();
+				synchronized (this) {
+					pumpAgain = false;
+					if (error == null && deadline != null && deadline.isExpired() && !queue.isEmpty()) {
+						error = new Deadline.ExceededException(
+								"Deadline exceeded with " + queue.size() + " directories left to crawl");
+					}
+					if (error != null) {
+						queue.clear();
+					}
+					while (inFlight < maxConcurrentRequests && !queue.isEmpty()) {
+						start.add(queue.poll());
+						inFlight++;
+					}
+					if (inFlight == 0 && queue.isEmpty()) {
+						pumping = false;
+						if (error != null ? done.completeExceptionally(error) : done.complete(root)) {
+							client.getMetrics().crawlFinished(error != null);
+						}
+						return;
+					}
+				}
+				for (Node node : start) {
+					try {
+						executor.execute(() -> visit(node));
+					} catch (RuntimeException e) {
+						finish(node, e);
+					}
+				}
+				synchronized (this) {
+					if (!pumpAgain) {
+						pumping = false;
+						return;
+					}
+				}
+			}
+		}
+
+		void visit(Node node) {
+			ConcurrencyLimiter.Priority previous = ConcurrencyLimiter.setPriority(priority);
+			Deadline previousDeadline = Deadline.setCurrent(deadline);
+			PmaClient previousClient = PmaClient.setCurrent(client);
+			try {
+				boolean descend = maxDepth == UNLIMITED_DEPTH || node.depth < maxDepth;
+				if (descend || listLeafDirectories) {
+					node.directories = orEmpty(Core.loadDirectories(node.path, sessionID));
+				}
+				if (listSlides) {
+					node.slides = orEmpty(Core.loadSlides(node.path, sessionID));
+				}
+				if (directoryConsumer != null && node != root) {
+					directoryConsumer.accept(node.path);
+				}
+				if (slideConsumer != null) {
+					for (String slide : node.slides) {
+						slideConsumer.accept(slide);
+					}
+				}
+				slideCount.addAndGet(node.slides.size());
+				client.getMetrics().directoryCrawled(node.slides.size());
+				List<Node> children = new ArrayList<>();
+				if (descend) {
+					for (String directory : node.directories) {
+						children.add(new Node(directory, node.depth + 1));
+					}
+				}
+				if (retain) {
+					node.children = children;
+				} else {
+					// the caller gets everything through the consumers
+					node.directories = Collections.emptyList();
+					node.slides = Collections.emptyList();
+				}
+				synchronized (this) {
+					queue.addAll(children);
+				}
+				finish(node, null);
+			} catch (Exception e) {
+				finish(node, e);
+			} finally {
+				ConcurrencyLimiter.setPriority(previous);
+				Deadline.setCurrent(previousDeadline);
+				PmaClient.setCurrent(previousClient);
+			}
+		}
+
+		void finish(Node node, Exception e) {
+			synchronized (this) {
+				inFlight--;
+				if (e != null) {
+					client.getMetrics().directoryFailed();
+					if (retain) {
+						if (error == null) {
+							error = e;
+						}
+					} else {
+						PmaLog.error(() -> "Unable to crawl " + node.path, e);
+					}
+				}
+			}
+			pump();
+		}
+	}
+
+	/**
+	 * Constructor, uses the default cap and executor
+	 */
+	public SlideCrawler() {
+		this(DEFAULT_MAX_CONCURRENT_REQUESTS);
+	}
+
+	/**
+	 * Constructor, uses the default executor
+	 *
+	 * @param maxConcurrentRequests maximum number of requests in flight per crawl
+	 */
+	public SlideCrawler(int maxConcurrentRequests) {
+		this(maxConcurrentRequests, null);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxConcurrentRequests maximum number of requests in flight per crawl
+	 * @param executor              executor to run the requests on, null for a
+	 *                              shared pool of daemon threads
+	 */
+	public SlideCrawler(int maxConcurrentRequests, Executor executor) {
+		if (maxConcurrentRequests < 1) {
+			PmaLog.severe(() -> "SlideCrawler() : maxConcurrentRequests must be at least 1");
+			throw new IllegalArgumentException("maxConcurrentRequests must be at least 1");
+		}
+		this.maxConcurrentRequests = maxConcurrentRequests;
+		this.executor = executor != null ? executor : defaultExecutor();
+	}
+
+	/**
+	 * @return the maximum number of requests in flight per crawl
+	 */
+	public int getMaxConcurrentRequests() {
+		return maxConcurrentRequests;
+	}
+
+	/**
+	 * This method is used to stream the slides below a start directory to a
+	 * consumer as they are found
+	 *
+	 * @param startDir      start directory
+	 * @param sessionID     session's ID, null for the default session
+	 * @param maxDepth      how many levels of sub-directories to visit, 0 for the
+	 *                      start directory only, UNLIMITED_DEPTH for the whole tree
+	 * @param slideConsumer receives every slide found; it is called from several
+	 *                      threads at once
+	 * @return Future completed with the number of slides found
+	 */
+	public CompletableFuture<Long> crawl(String startDir, String sessionID, int maxDepth,
+			Consumer<String> slideConsumer) {
+		return crawl(startDir, sessionID, maxDepth, slideConsumer, null);
+	}
+
+	/**
+	 * This method is used to stream the slides and directories below a start
+	 * directory to consumers as they are found. Directories that can't be read
+	 * are logged and skipped
+	 *
+	 * @param startDir          start directory
+	 * @param sessionID         session's ID, null for the default session
+	 * @param maxDepth          how many levels of sub-directories to visit, 0 for
+	 *                          the start directory only, UNLIMITED_DEPTH for the
+	 *                          whole tree
+	 * @param slideConsumer     receives every slide found, null to skip listing
+	 *                          slides; it is called from several threads at once
+	 * @param directoryConsumer receives every sub-directory once it was visited,
+	 *                          may be null; it is called from several threads at
+	 *                          once
+	 * @return Future completed with the number of slides found
+	 */
+	public CompletableFuture<Long> crawl(String startDir, String sessionID, int maxDepth,
+			Consumer<String> slideConsumer, Consumer<String> directoryConsumer) {
+		final Crawl crawl = new Crawl(startDir, Core.sessionId(sessionID), maxDepth, slideConsumer != null, false,
+				false, slideConsumer, directoryConsumer);
+		crawl.pump();
+		return crawl.done.thenApply(root -> crawl.slideCount.get());
+	}
+
+	/**
+	 * This method is used to get the sub-directories below a start directory, in
+	 * the order of a depth-first walk
+	 *
+	 * @param startDir  start directory
+	 * @param sessionID session's ID
+	 * @param maxDepth  how many levels of sub-directories to descend into
+	 * @return Sub-directories
+	 * @throws Exception if a directory can't be read
+	 */
+	List<String> getDirectories(String startDir, String sessionID, int maxDepth) throws Exception {
+		Node root = walk(new Crawl(startDir, sessionID, maxDepth, false, true, true, null, null));
+		List<String> result = new ArrayList<>();
+		collect(root, result, false);
+		return result;
+	}
+
+	/**
+	 * This method is used to get the slides below a start directory, in the order
+	 * of a depth-first walk
+	 *
+	 * @param startDir  start directory
+	 * @param sessionID session's ID
+	 * @param maxDepth  how many levels of sub-directories to descend into
+	 * @return Slides
+	 * @throws Exception if a directory can't be read
+	 */
+	List<String> getSlides(String startDir, String sessionID, int maxDepth) throws Exception {
+		Node root = walk(new Crawl(startDir, sessionID, maxDepth, true, false, true, null, null));
+		List<String> result = new ArrayList<>();
+		collect(root, result, true);
+		return result;
+	}
+
+	/**
+	 * This method is used to walk the whole tree below a start directory and hand
+	 * every directory with its entries to a visitor, parents before their
+	 * sub-directories
+	 *
+	 * @param startDir  start directory
+	 * @param sessionID session's ID
+	 * @param visitor   receives every directory
+	 * @throws Exception if a directory can't be read
+	 */
+	void walkTree(String startDir, String sessionID, Visitor visitor) throws Exception {
+		Node root = walk(new Crawl(startDir, sessionID, UNLIMITED_DEPTH, true, false, true, null, null));
+		ArrayDeque<Node> pending = new ArrayDeque<>();
+		pending.push(root);
+		while (!pending.isEmpty()) {
+			Node node = pending.pop();
+			visitor.visit(node.path, node.directories, node.slides);
+			for (int i = node.children.size() - 1; i >= 0; i--) {
+				pending.push(node.children.get(i));
+			}
+		}
+	}
+
+	private Node walk(Crawl crawl) throws Exception {
+		crawl.pump();
+		try {
+			return crawl.done.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * A directory's own entries come first, followed by those of each
+	 * sub-directory in turn
+	 */
+	private static void collect(Node node, List<String> result, boolean slides) {
+		result.addAll(slides ? node.slides : node.directories);
+		for (Node child : node.children) {
+			collect(child, result, slides);
+		}
+	}
+
+	private static List<String> orEmpty(List<String> list) {
+		return list != null ? list : Collections.<String>emptyList();
+	}
+
+	/**
+	 * Crawls run on a cached pool so that a thread waiting for a crawl never
+	 * starves the crawl itself
+	 */
+	private static Executor defaultExecutor() {
+		ExecutorService executor = defaultExecutor;
+		if (executor == null) {
+			synchronized (SlideCrawler.class) {
+				executor = defaultExecutor;
+				if (executor == null) {
+					final AtomicInteger threadNumber = new AtomicInteger();
+					executor = Executors.newCachedThreadPool(r -> {
+						Thread thread = new Thread(r, "pma-crawler-" + threadNumber.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					});
+					defaultExecutor = executor;
+				}
+			}
+		}
+		return executor;
+	}
+}
@@ -0,0 +1,314 @@
+package com.pathomation;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Groups slide information requests into GetImagesInfo requests.
+ * <p>
+ * Core.getSlideInfo() goes through {@link #load(String, String)} whenever the
+ * slide information cache misses. The first miss of a session opens a batch and
+ * waits for the batching window; misses of the same session arriving meanwhile
+ * join that batch. The batch is sent as a single GetImagesInfo request once the
+ * window has passed or as soon as it holds the maximum number of slides,
+ * whichever comes first, and all waiting callers are completed from the result.
+ * </p>
+ * <p>
+ * A batch of a single slide is sent as a plain GetImageInfo request, so a lone
+ * caller pays nothing but the window. The callers of slides missing from a
+ * GetImagesInfo response (e.g. because they don't exist) send their own
+ * GetImageInfo request, so they see the same error as without batching. So do
+ * the callers of a GetImagesInfo request PMA.core rejects as a whole, which it
+ * does when a single slide of it is unknown or forbidden. Any other failure
+ * (timeout, unreachable server...) is shared by all callers of the batch,
+ * unless it is due to the interruption or the deadline of the caller that sent
+ * it: the others then send their own request within their own deadline. A
+ * window of 0 disables batching.
+ * </p>
+ * <p>
+ * No background thread is involved: the caller that opened a batch sends it,
+ * or the caller that filled it up, and callers wait for it no longer than their
+ * {@link Deadline} allows.
+ * </p>
+ */
+public class SlideInfoBatcher {
+
+	/**
+	 * Default time the first request of a batch waits for others to join (2 ms)
+	 */
+	public static final long DEFAULT_WINDOW_MILLIS = 2;
+
+	/**
+	 * Default maximum number of slides per GetImagesInfo request
+	 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 50;
+
+	private static class Batch {
+		final String sessionID;
+		// requested slide -> future completed with its information
+		final Map<String, CompletableFuture<Map<String, Object>>> requests = new LinkedHashMap<>();
+		boolean sent = false;
+		// whether the sender had a deadline, written before the futures complete
+		boolean bounded = false;
+
+		Batch(String sessionID) {
+			this.sessionID = sessionID;
+		}
+	}
+
+	/**
+	 * Completes the requests a batch didn't answer, whose callers send their own
+	 */
+	private static final class Unanswered extends Exception {
+
+		private static final long serialVersionUID = 1L;
+
+		Unanswered() {
+			super("Not answered by the batch", null, false, false);
+		}
+	}
+
+	private static final Unanswered UNANSWERED = new Unanswered();
+
+	// open batch per session, guarded by this
+	private final Map<String, Batch> open = new HashMap<>();
+	private volatile long windowMillis;
+	private volatile int maxBatchSize;
+
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder batches = new LongAdder();
+
+	/**
+	 * Constructor, uses the default window and batch size
+	 */
+	public SlideInfoBatcher() {
+		this(DEFAULT_WINDOW_MILLIS, DEFAULT_MAX_BATCH_SIZE);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param windowMillis time the first request of a batch waits for others to
+	 *                     join, 0 to disable batching
+	 * @param maxBatchSize maximum number of slides per request
+	 */
+	public SlideInfoBatcher(long windowMillis, int maxBatchSize) {
+		setWindowMillis(windowMillis);
+		setMaxBatchSize(maxBatchSize);
+	}
+
+	/**
+	 * This method is used to retrieve the information of a slide from PMA.core,
+	 * batched with the requests of other threads for the same session
+	 *
+	 * @param slideRef  slide's path or UID
+	 * @param sessionID session's ID
+	 * @return Nested maps forming a raw image, null if the response isn't a json
+	 *         object
+	 * @throws Exception if PMA.core reports an error, Deadline.ExceededException
+	 *                   if the caller's deadline expires while waiting for the
+	 *                   batch
+	 */
+	public Map<String, Object> load(String slideRef, String sessionID) throws Exception {
+		requests.increment();
+		if (windowMillis == 0) {
+			batches.increment();
+			return Core.loadSlideInfo(slideRef, sessionID);
+		}
+		Batch batch;
+		boolean leader = false;
+		boolean full = false;
+		CompletableFuture<Map<String, Object>> future;
+		synchronized (this) {
+			batch = open.get(sessionID);
+			if (batch == null) {
+				batch = new Batch(sessionID);
+				open.put(sessionID, batch);
+				leader = true;
+			}
+			future = batch.requests.get(slideRef);
+			if (future == null) {
+				future = new CompletableFuture<>();
+				batch.requests.put(slideRef, future);
+			}
+			if (batch.requests.size() >= maxBatchSize) {
+				full = true;
+			}
+		}
+		if (leader && !full) {
+			try {
+				Thread.sleep(windowMillis);
+			} catch (InterruptedException e) {
+				// send what we have right away
+				Thread.currentThread().interrupt();
+			}
+		}
+		boolean sender = (leader || full) && send(batch);
+		Deadline deadline = Deadline.current();
+		try {
+			if (deadline != null) {
+				return future.get(Math.max(0, deadline.remainingNanos()), TimeUnit.NANOSECONDS);
+			}
+			return future.get();
+		} catch (TimeoutException e) {
+			throw new Deadline.ExceededException("Deadline exceeded while waiting for the information of " + slideRef);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the information of " + slideRef);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Unanswered || (!sender && SingleFlight.isPerformerFailure(batch.bounded, cause))) {
+				// the slide gets a request of its own, on this thread and within its
+				// deadline
+				batches.increment();
+				return Core.loadSlideInfo(slideRef, sessionID);
+			}
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * @return the time the first request of a batch waits for others to join, in
+	 *         milliseconds
+	 */
+	public long getWindowMillis() {
+		return windowMillis;
+	}
+
+	/**
+	 * This method is used to change the time the first request of a batch waits
+	 * for others to join
+	 *
+	 * @param windowMillis window in milliseconds, 0 to disable batching
+	 */
+	public void setWindowMillis(long windowMillis) {
+		if (windowMillis < 0) {
+			PmaLog.severe(() -> "setWindowMillis() : Invalid argument");
+			throw new IllegalArgumentException("windowMillis must not be negative");
+		}
+		this.windowMillis = windowMillis;
+	}
+
+	/**
+	 * @return the maximum number of slides per request
+	 */
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	/**
+	 * This method is used to change the maximum number of slides per request
+	 *
+	 * @param maxBatchSize maximum number of slides per request
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		if (maxBatchSize < 1) {
+			PmaLog.severe(() -> "setMaxBatchSize() : Invalid argument");
+			throw new IllegalArgumentException("maxBatchSize must be at least 1");
+		}
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * @return the number of slides requested through load()
+	 */
+	public long getRequestCount() {
+		return requests.sum();
+	}
+
+	/**
+	 * @return the number of requests sent to PMA.core
+	 */
+	public long getBatchCount() {
+		return batches.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "SlideInfoBatcher [windowMillis=" + windowMillis + ", maxBatchSize=" + maxBatchSize + ", requests="
+				+ getRequestCount() + ", batches=" + getBatchCount() + "]";
+	}
+
+	/**
+	 * This method is used to close a batch and complete its requests; only the
+	 * first call for a batch does anything
+	 *
+	 * @return True if this call sent the batch
+	 */
+	private boolean send(Batch batch) {
+		List<String> slideRefs;
+		synchronized (this) {
+			if (batch.sent) {
+				return false;
+			}
+			batch.sent = true;
+			if (open.get(batch.sessionID) == batch) {
+				open.remove(batch.sessionID);
+			}
+			slideRefs = new ArrayList<>(batch.requests.keySet());
+		}
+		batch.bounded = Deadline.current() != null;
+		batches.increment();
+		if (slideRefs.size() == 1) {
+			complete(batch, slideRefs.get(0));
+			return true;
+		}
+		List<Map<String, Object>> infos;
+		try {
+			infos = Core.loadSlidesInfo(slideRefs, batch.sessionID);
+		} catch (Exception e) {
+			// a slide PMA.core rejects fails the whole request: every caller asks
+			// for its own slide, so it only fails with its own error
+			Exception error = e instanceof PmaCoreException && ((PmaCoreException) e).isBatch() ? UNANSWERED : e;
+			for (CompletableFuture<Map<String, Object>> future : batch.requests.values()) {
+				future.completeExceptionally(error);
+			}
+			return true;
+		}
+		Map<String, Map<String, Object>> byAlias = new HashMap<>();
+		if (infos != null) {
+			for (Map<String, Object> info : infos) {
+				if (info.get("Filename") != null) {
+					byAlias.put(info.get("Filename").toString(), info);
+				}
+				if (info.get("UID") != null) {
+					byAlias.put(info.get("UID").toString(), info);
+				}
+			}
+		}
+		for (String slideRef : slideRefs) {
+			Map<String, Object> info = byAlias.get(slideRef);
+			if (info != null) {
+				batch.requests.get(slideRef).complete(info);
+			} else {
+				batch.requests.get(slideRef).completeExceptionally(UNANSWERED);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * This method is used to complete the single request of a batch through a
+	 * GetImageInfo request
+	 */
+	private void complete(Batch batch, String slideRef) {
+		CompletableFuture<Map<String, Object>> future = batch.requests.get(slideRef);
+		try {
+			future.complete(Core.loadSlideInfo(slideRef, batch.sessionID));
+		} catch (Exception e) {
+			future.completeExceptionally(e);
+		}
+	}
+}
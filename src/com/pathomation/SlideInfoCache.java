@@ -0,0 +1,500 @@
+package com.pathomation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe cache of slide information (the maps returned by
+ * Core.getSlideInfo()), per session.
+ * <p>
+ * A slide's information is stored once and can be looked up through any of
+ * its aliases: the path or UID it was requested with, its Filename and its UID.
+ * The number of cached slides is bounded both per session and over all
+ * sessions; when a bound is exceeded the least recently used slide is evicted.
+ * A session is forgotten along with its last slide, or when it is removed
+ * (e.g. on logout).
+ * </p>
+ * <p>
+ * When several threads ask for the same uncached slide through
+ * {@link #get(String, String, Callable)}, only one of them loads it; the others
+ * wait for and share its result.
+ * </p>
+ */
+public class SlideInfoCache {
+
+	/**
+	 * Default maximum number of slides cached per session
+	 */
+	public static final int DEFAULT_MAX_ENTRIES_PER_SESSION = 10000;
+
+	/**
+	 * Default maximum number of slides cached over all sessions
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 50000;
+
+	private static class Entry {
+		final String sessionID;
+		final Map<String, Object> info;
+		final List<String> aliases = new ArrayList<>(3);
+
+		Entry(String sessionID, Map<String, Object> info) {
+			this.sessionID = sessionID;
+			this.info = info;
+		}
+	}
+
+	private static class Session {
+		final Map<String, Entry> aliases = new HashMap<>();
+		// access ordered, so iteration starts at the least recently used entry
+		final LinkedHashMap<Entry, Boolean> lru = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	// guards sessions and lru
+	private final Object lock = new Object();
+	private final Map<String, Session> sessions = new HashMap<>();
+	private final LinkedHashMap<Entry, Boolean> lru = new LinkedHashMap<>(64, 0.75f, true);
+	private int maxEntriesPerSession;
+	private int maxEntries;
+
+	// loads in progress, keyed by session and slideRef
+	private final ConcurrentHashMap<String, CompletableFuture<Map<String, Object>>> loading = new ConcurrentHashMap<>();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Constructor, creates a cache with the default bounds
+	 */
+	public SlideInfoCache() {
+		this(DEFAULT_MAX_ENTRIES_PER_SESSION, DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxEntriesPerSession maximum number of slides cached per session
+	 * @param maxEntries           maximum number of slides cached over all
+	 *                             sessions
+	 */
+	public SlideInfoCache(int maxEntriesPerSession, int maxEntries) {
+		checkBound(maxEntriesPerSession);
+		checkBound(maxEntries);
+		this.maxEntriesPerSession = maxEntriesPerSession;
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * This method is used to get the cached information for a slide
+	 *
+	 * @param sessionID session's ID
+	 * @param slideRef  slide's path or UID
+	 * @return Slide information, null if it isn't cached
+	 */
+	public Map<String, Object> get(String sessionID, String slideRef) {
+		Entry entry;
+		synchronized (lock) {
+			entry = lookup(sessionID, slideRef);
+		}
+		if (entry == null) {
+			misses.increment();
+			PmaEvents.cacheLookup("slideInfo", slideRef, false);
+			return null;
+		}
+		hits.increment();
+		PmaEvents.cacheLookup("slideInfo", slideRef, true);
+		return entry.info;
+	}
+
+	/**
+	 * This method is used to get the information for a slide, loading it when it
+	 * isn't cached yet. Concurrent calls for the same uncached slide share a
+	 * single load
+	 *
+	 * @param sessionID session's ID
+	 * @param slideRef  slide's path or UID
+	 * @param loader    retrieves the slide's information, may return null when
+	 *                  there's nothing to cache
+	 * @return Slide information
+	 * @throws Exception the exception thrown by loader
+	 */
+	public Map<String, Object> get(String sessionID, String slideRef, Callable<Map<String, Object>> loader)
+			throws Exception {
+		Map<String, Object> info = get(sessionID, slideRef);
+		if (info != null) {
+			return info;
+		}
+		String key = sessionID + "\n" + slideRef;
+		CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+		CompletableFuture<Map<String, Object>> pending = loading.putIfAbsent(key, future);
+		if (pending != null) {
+			try {
+				return pending.get();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof Exception) {
+					throw (Exception) e.getCause();
+				}
+				throw e;
+			}
+		}
+		try {
+			// another thread may have finished loading between get() and putIfAbsent()
+			info = get(sessionID, slideRef);
+			if (info == null) {
+				info = loader.call();
+				if (info != null) {
+					put(sessionID, slideRef, info);
+				}
+			}
+			future.complete(info);
+			return info;
+		} catch (Throwable t) {
+			future.completeExceptionally(t);
+			throw t;
+		} finally {
+			loading.remove(key, future);
+		}
+	}
+
+	/**
+	 * This method is used to cache the information for a slide under slideRef as
+	 * well as under its Filename and UID
+	 *
+	 * @param sessionID session's ID
+	 * @param slideRef  slide's path or UID it was requested with, may be null
+	 * @param info      slide information
+	 */
+	public void put(String sessionID, String slideRef, Map<String, Object> info) {
+		if (sessionID == null || info == null) {
+			return;
+		}
+		Entry entry = new Entry(sessionID, info);
+		addAlias(entry, slideRef);
+		addAlias(entry, info.get("Filename"));
+		addAlias(entry, info.get("UID"));
+		if (entry.aliases.isEmpty()) {
+			return;
+		}
+		synchronized (lock) {
+			Session session = sessions.get(sessionID);
+			if (session == null) {
+				session = new Session();
+				sessions.put(sessionID, session);
+			}
+			for (String alias : entry.aliases) {
+				Entry previous = session.aliases.get(alias);
+				if (previous != null) {
+					remove(session, previous);
+				}
+			}
+			for (String alias : entry.aliases) {
+				session.aliases.put(alias, entry);
+			}
+			session.lru.put(entry, Boolean.TRUE);
+			lru.put(entry, Boolean.TRUE);
+			evict(session);
+		}
+	}
+
+	/**
+	 * This method is used to check whether the information for a slide is cached,
+	 * without affecting its eviction order
+	 *
+	 * @param sessionID session's ID
+	 * @param slideRef  slide's path or UID
+	 * @return True if the slide is cached
+	 */
+	public boolean contains(String sessionID, String slideRef) {
+		synchronized (lock) {
+			Session session = sessions.get(sessionID);
+			return session != null && session.aliases.containsKey(slideRef);
+		}
+	}
+
+	/**
+	 * This method is used to remove the information for a slide (under all its
+	 * aliases)
+	 *
+	 * @param sessionID session's ID
+	 * @param slideRef  slide's path or UID
+	 */
+	public void invalidate(String sessionID, String slideRef) {
+		synchronized (lock) {
+			Session session = sessions.get(sessionID);
+			if (session != null) {
+				Entry entry = session.aliases.get(slideRef);
+				if (entry != null) {
+					remove(session, entry);
+					dropIfEmpty(sessionID, session);
+				}
+			}
+		}
+	}
+
+	/**
+	 * This method is used to remove all the slides cached for a session
+	 *
+	 * @param sessionID session's ID
+	 */
+	public void removeSession(String sessionID) {
+		synchronized (lock) {
+			Session session = sessions.remove(sessionID);
+			if (session != null) {
+				for (Entry entry : session.lru.keySet()) {
+					lru.remove(entry);
+				}
+			}
+		}
+	}
+
+	/**
+	 * This method is used to remove all cached slides. Statistics are kept
+	 */
+	public void clear() {
+		synchronized (lock) {
+			sessions.clear();
+			lru.clear();
+		}
+	}
+
+	/**
+	 * @return the number of slides cached over all sessions
+	 */
+	public int size() {
+		synchronized (lock) {
+			return lru.size();
+		}
+	}
+
+	/**
+	 * This method is used to get the number of slides cached for a session
+	 *
+	 * @param sessionID session's ID
+	 * @return Number of slides cached for the session
+	 */
+	public int size(String sessionID) {
+		synchronized (lock) {
+			Session session = sessions.get(sessionID);
+			return session == null ? 0 : session.lru.size();
+		}
+	}
+
+	/**
+	 * This method is used to get the information of all the slides cached for a
+	 * session, each slide once
+	 *
+	 * @param sessionID session's ID
+	 * @return List of slide information
+	 */
+	public List<Map<String, Object>> values(String sessionID) {
+		synchronized (lock) {
+			Session session = sessions.get(sessionID);
+			List<Map<String, Object>> values = new ArrayList<>();
+			if (session != null) {
+				for (Entry entry : session.lru.keySet()) {
+					values.add(entry.info);
+				}
+			}
+			return values;
+		}
+	}
+
+	/**
+	 * This method is used to get a read-only snapshot of the cache in the layout
+	 * Core.getPmaSlideInfos() used to expose: session's ID to a map of alias
+	 * (path or UID) to slide information
+	 *
+	 * @return Snapshot of the cache
+	 */
+	public Map<String, Object> snapshot() {
+		synchronized (lock) {
+			Map<String, Object> result = new HashMap<>();
+			for (Map.Entry<String, Session> session : sessions.entrySet()) {
+				Map<String, Object> infos = new HashMap<>();
+				for (Map.Entry<String, Entry> alias : session.getValue().aliases.entrySet()) {
+					infos.put(alias.getKey(), alias.getValue().info);
+				}
+				result.put(session.getKey(), Collections.unmodifiableMap(infos));
+			}
+			return Collections.unmodifiableMap(result);
+		}
+	}
+
+	/**
+	 * @return the maximum number of slides cached per session
+	 */
+	public int getMaxEntriesPerSession() {
+		synchronized (lock) {
+			return maxEntriesPerSession;
+		}
+	}
+
+	/**
+	 * This method is used to change the maximum number of slides cached per
+	 * session, evicting slides right away if needed
+	 *
+	 * @param maxEntriesPerSession maximum number of slides cached per session
+	 */
+	public void setMaxEntriesPerSession(int maxEntriesPerSession) {
+		checkBound(maxEntriesPerSession);
+		synchronized (lock) {
+			this.maxEntriesPerSession = maxEntriesPerSession;
+			for (Session session : new ArrayList<>(sessions.values())) {
+				evict(session);
+			}
+		}
+	}
+
+	/**
+	 * @return the maximum number of slides cached over all sessions
+	 */
+	public int getMaxEntries() {
+		synchronized (lock) {
+			return maxEntries;
+		}
+	}
+
+	/**
+	 * This method is used to change the maximum number of slides cached over all
+	 * sessions, evicting slides right away if needed
+	 *
+	 * @param maxEntries maximum number of slides cached over all sessions
+	 */
+	public void setMaxEntries(int maxEntries) {
+		checkBound(maxEntries);
+		synchronized (lock) {
+			this.maxEntries = maxEntries;
+			evict(null);
+		}
+	}
+
+	/**
+	 * @return the number of lookups that found the slide cached
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of lookups that didn't find the slide cached
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return the number of slides evicted to stay within the bounds
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "SlideInfoCache [size=" + size() + ", maxEntries=" + getMaxEntries() + ", maxEntriesPerSession="
+				+ getMaxEntriesPerSession() + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+				+ ", evictions=" + getEvictionCount() + "]";
+	}
+
+	/**
+	 * Must be called while holding the lock
+	 */
+	private Entry lookup(String sessionID, String slideRef) {
+		Session session = sessions.get(sessionID);
+		if (session == null) {
+			return null;
+		}
+		Entry entry = session.aliases.get(slideRef);
+		if (entry != null) {
+			// refresh the entry's position in both eviction orders
+			session.lru.get(entry);
+			lru.get(entry);
+		}
+		return entry;
+	}
+
+	/**
+	 * This method is used to evict the least recently used slides until the
+	 * session (if any) and the whole cache are within their bounds. Must be called
+	 * while holding the lock
+	 */
+	private void evict(Session session) {
+		if (session != null) {
+			Iterator<Entry> iterator = session.lru.keySet().iterator();
+			while (session.lru.size() > maxEntriesPerSession && iterator.hasNext()) {
+				Entry entry = iterator.next();
+				iterator.remove();
+				unlink(session, entry);
+				lru.remove(entry);
+				evictions.increment();
+			}
+		}
+		Iterator<Entry> iterator = lru.keySet().iterator();
+		while (lru.size() > maxEntries && iterator.hasNext()) {
+			Entry entry = iterator.next();
+			iterator.remove();
+			Session owner = sessions.get(entry.sessionID);
+			if (owner != null) {
+				owner.lru.remove(entry);
+				unlink(owner, entry);
+				dropIfEmpty(entry.sessionID, owner);
+			}
+			evictions.increment();
+		}
+	}
+
+	/**
+	 * Must be called while holding the lock
+	 */
+	private void remove(Session session, Entry entry) {
+		session.lru.remove(entry);
+		lru.remove(entry);
+		unlink(session, entry);
+	}
+
+	/**
+	 * This method is used to forget a session once its last slide is gone. Must be
+	 * called while holding the lock
+	 */
+	private void dropIfEmpty(String sessionID, Session session) {
+		if (session.lru.isEmpty()) {
+			sessions.remove(sessionID, session);
+		}
+	}
+
+	/**
+	 * This method is used to drop the aliases of an entry that still point to it.
+	 * Must be called while holding the lock
+	 */
+	private static void unlink(Session session, Entry entry) {
+		for (String alias : entry.aliases) {
+			session.aliases.remove(alias, entry);
+		}
+	}
+
+	private static void addAlias(Entry entry, Object alias) {
+		if (alias != null) {
+			String value = alias.toString();
+			if (!value.isEmpty() && !entry.aliases.contains(value)) {
+				entry.aliases.add(value);
+			}
+		}
+	}
+
+	private static void checkBound(int bound) {
+		if (bound < 1) {
+			PmaLog.severe(() -> "SlideInfoCache() : Invalid argument");
+			throw new IllegalArgumentException("bounds must be at least 1");
+		}
+	}
+}
@@ -0,0 +1,536 @@
+package com.pathomation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * In-process index over slide paths, answering substring, prefix and glob
+ * queries without contacting PMA.core.
+ * <p>
+ * Substring queries go through an inverted index of the trigrams (three
+ * character sequences) of every path: only the paths containing all trigrams of
+ * the query are checked. Prefix queries use a sorted map. Glob queries use the
+ * trigrams of their literal parts to narrow down the paths to match. All
+ * queries are case insensitive.
+ * </p>
+ * <p>
+ * The index is filled from a {@link CrawlSnapshot} and kept up to date with
+ * {@link #apply(CrawlDelta)} after every re-crawl; Core.searchSlides() uses it
+ * when one is set through Core.setSlidePathIndex(). An index built with
+ * {@link #of(CrawlSnapshot)} knows the server and start directory it was
+ * crawled from, and Core.searchSlides() only answers from it for searches of
+ * that server within that directory. It is safe for concurrent use; queries
+ * don't block each other.
+ * </p>
+ */
+public class SlidePathIndex {
+
+	/**
+	 * Growable array of slide ids, in increasing order
+	 */
+	private static class Postings {
+		int[] ids = new int[4];
+		int size = 0;
+
+		void add(int id) {
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+			}
+			ids[size++] = id;
+		}
+
+		boolean contains(int id) {
+			return Arrays.binarySearch(ids, 0, size, id) >= 0;
+		}
+	}
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	// slide id -> path, null once removed; ids are never reused, so postings stay
+	// sorted
+	private final List<String> paths = new ArrayList<>();
+	private final List<String> lowerPaths = new ArrayList<>();
+	private final Map<String, Integer> ids = new HashMap<>();
+	private final Map<Long, Postings> trigrams = new HashMap<>();
+	// lower case path + '\0' + path -> path; the suffix keeps paths that only
+	// differ in case apart
+	private final TreeMap<String, String> sorted = new TreeMap<>();
+	private int removed = 0;
+	// what the index covers, null for any server and all directories
+	private final String server;
+	private final String root;
+
+	/**
+	 * Constructor, creates an empty index that isn't tied to a server
+	 */
+	public SlidePathIndex() {
+		this(null, null, Collections.<String>emptyList());
+	}
+
+	/**
+	 * Constructor, creates an index that isn't tied to a server
+	 *
+	 * @param paths slide paths to index
+	 */
+	public SlidePathIndex(Collection<String> paths) {
+		this(null, null, paths);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param server PMA.core URL the slides belong to, null for any server
+	 * @param root   directory holding all slides, null or empty for all
+	 *               directories
+	 * @param paths  slide paths to index
+	 */
+	public SlidePathIndex(String server, String root, Collection<String> paths) {
+		this.server = server;
+		this.root = normalize(root);
+		addAll(paths);
+	}
+
+	/**
+	 * This method is used to build an index over all slides of a crawl, covering
+	 * the crawl's server and start directory
+	 *
+	 * @param snapshot crawl snapshot
+	 * @return Index over the snapshot's slides
+	 */
+	public static SlidePathIndex of(CrawlSnapshot snapshot) {
+		return new SlidePathIndex(snapshot.getServer(), snapshot.getStartDir(), snapshot.getSlides());
+	}
+
+	/**
+	 * @return the PMA.core URL the slides belong to, null for any server
+	 */
+	public String getServer() {
+		return server;
+	}
+
+	/**
+	 * @return the directory holding all slides, empty for all directories
+	 */
+	public String getRoot() {
+		return root;
+	}
+
+	/**
+	 * This method is used to check whether the index holds all slides a search
+	 * may find
+	 *
+	 * @param server   PMA.core URL searched, null if unknown, in which case only
+	 *                 an index bound to no server covers it
+	 * @param startDir directory searched, null or empty for all directories
+	 * @return True if the index covers the server and the directory
+	 */
+	public boolean covers(String server, String startDir) {
+		if (this.server != null && !this.server.equals(server)) {
+			return false;
+		}
+		if (root.isEmpty()) {
+			return true;
+		}
+		String dir = normalize(startDir).toLowerCase(Locale.ROOT);
+		String lowerRoot = root.toLowerCase(Locale.ROOT);
+		return dir.equals(lowerRoot) || dir.startsWith(lowerRoot + "/");
+	}
+
+	/**
+	 * This method is used to add a slide path; adding a path twice has no effect
+	 *
+	 * @param path slide path
+	 */
+	public void add(String path) {
+		lock.writeLock().lock();
+		try {
+			insert(path);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to add slide paths
+	 *
+	 * @param paths slide paths
+	 */
+	public void addAll(Collection<String> paths) {
+		lock.writeLock().lock();
+		try {
+			for (String path : paths) {
+				insert(path);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to remove a slide path
+	 *
+	 * @param path slide path
+	 */
+	public void remove(String path) {
+		lock.writeLock().lock();
+		try {
+			delete(path);
+			compactIfSparse();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to bring the index up to date with a re-crawl: added
+	 * slides are indexed and removed ones dropped (changed slides keep their path)
+	 *
+	 * @param delta differences found by the re-crawl
+	 */
+	public void apply(CrawlDelta delta) {
+		lock.writeLock().lock();
+		try {
+			for (String path : delta.getRemoved()) {
+				delete(path);
+			}
+			for (String path : delta.getAdded()) {
+				insert(path);
+			}
+			compactIfSparse();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to remove all slide paths
+	 */
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			paths.clear();
+			lowerPaths.clear();
+			ids.clear();
+			trigrams.clear();
+			sorted.clear();
+			removed = 0;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the number of slide paths indexed
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return ids.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to check whether a slide path is indexed
+	 *
+	 * @param path slide path
+	 * @return True if the path is indexed
+	 */
+	public boolean contains(String path) {
+		lock.readLock().lock();
+		try {
+			return ids.containsKey(path);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to find the slide paths containing a text
+	 *
+	 * @param text  text to look for, case insensitive
+	 * @param limit maximum number of paths to return, 0 for all
+	 * @return Matching slide paths, in the order they were indexed
+	 */
+	public List<String> findContaining(String text, int limit) {
+		final String needle = text.toLowerCase(Locale.ROOT);
+		lock.readLock().lock();
+		try {
+			return scan(Collections.singletonList(needle), lowerPath -> lowerPath.contains(needle), limit);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to find the slide paths starting with a prefix
+	 *
+	 * @param prefix prefix, case insensitive
+	 * @param limit  maximum number of paths to return, 0 for all
+	 * @return Matching slide paths, sorted
+	 */
+	public List<String> findByPrefix(String prefix, int limit) {
+		String from = prefix.toLowerCase(Locale.ROOT);
+		lock.readLock().lock();
+		try {
+			List<String> result = new ArrayList<>();
+			for (String path : sorted.subMap(from, true, from + Character.MAX_VALUE, false).values()) {
+				result.add(path);
+				if (result.size() == limit) {
+					break;
+				}
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to find the slide paths matching a glob pattern. "?"
+	 * matches any single character but "/", "*" any sequence of characters without
+	 * "/" and "**" any sequence of characters. A pattern without "/" is matched
+	 * against the file name only, so "*.svs" finds all svs slides in all
+	 * directories
+	 *
+	 * @param glob  glob pattern, case insensitive
+	 * @param limit maximum number of paths to return, 0 for all
+	 * @return Matching slide paths, in the order they were indexed
+	 */
+	public List<String> findByGlob(String glob, int limit) {
+		String lowerGlob = glob.toLowerCase(Locale.ROOT);
+		boolean nameOnly = lowerGlob.indexOf('/') < 0;
+		Pattern pattern = Pattern.compile(globToRegex(lowerGlob));
+		List<String> literals = new ArrayList<>();
+		for (String literal : lowerGlob.split("[*?]+")) {
+			if (!literal.isEmpty()) {
+				literals.add(literal);
+			}
+		}
+		lock.readLock().lock();
+		try {
+			return scan(literals, lowerPath -> pattern
+					.matcher(nameOnly ? lowerPath.substring(lowerPath.lastIndexOf('/') + 1) : lowerPath).matches(),
+					limit);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to search the slides of a directory (and its
+	 * sub-directories) the way Core.searchSlides() does: patterns with "*" or "?"
+	 * are globs, anything else is looked for as text in the file name (or in the
+	 * whole path when it contains "/")
+	 *
+	 * @param startDir start directory, null or empty for all slides
+	 * @param pattern  search pattern
+	 * @return Matching slide paths
+	 */
+	public List<String> search(String startDir, String pattern) {
+		List<String> found;
+		if (pattern.indexOf('*') >= 0 || pattern.indexOf('?') >= 0) {
+			found = findByGlob(pattern, 0);
+		} else if (pattern.indexOf('/') >= 0) {
+			found = findContaining(pattern, 0);
+		} else {
+			String text = pattern.toLowerCase(Locale.ROOT);
+			found = new ArrayList<>();
+			for (String path : findContaining(pattern, 0)) {
+				if (path.substring(path.lastIndexOf('/') + 1).toLowerCase(Locale.ROOT).contains(text)) {
+					found.add(path);
+				}
+			}
+		}
+		if (startDir == null || startDir.isEmpty() || startDir.equals("/")) {
+			return found;
+		}
+		if (startDir.startsWith("/")) {
+			startDir = startDir.substring(1);
+		}
+		String scope = (startDir.endsWith("/") ? startDir : startDir + "/").toLowerCase(Locale.ROOT);
+		List<String> result = new ArrayList<>();
+		for (String path : found) {
+			if (path.toLowerCase(Locale.ROOT).startsWith(scope)) {
+				result.add(path);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		lock.readLock().lock();
+		try {
+			return "SlidePathIndex [server=" + server + ", root=" + root + ", size=" + ids.size() + ", trigrams="
+					+ trigrams.size() + "]";
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to collect the paths that contain all given fragments
+	 * and match a condition, stopping as soon as the limit is reached. Fragments
+	 * shorter than three characters don't narrow the candidates down. Must be
+	 * called while holding the lock
+	 */
+	private List<String> scan(List<String> fragments, Predicate<String> matches, int limit) {
+		List<String> result = new ArrayList<>();
+		int max = limit > 0 ? limit : Integer.MAX_VALUE;
+		List<Postings> lists = new ArrayList<>();
+		for (String fragment : fragments) {
+			for (int i = 0; i + 3 <= fragment.length(); i++) {
+				Postings postings = trigrams.get(trigram(fragment, i));
+				if (postings == null) {
+					return result;
+				}
+				lists.add(postings);
+			}
+		}
+		if (lists.isEmpty()) {
+			for (int id = 0; id < lowerPaths.size() && result.size() < max; id++) {
+				String lowerPath = lowerPaths.get(id);
+				if (lowerPath != null && matches.test(lowerPath)) {
+					result.add(paths.get(id));
+				}
+			}
+			return result;
+		}
+		// walk the shortest list, probing the others
+		lists.sort(Comparator.comparingInt(postings -> postings.size));
+		Postings shortest = lists.get(0);
+		for (int i = 0; i < shortest.size && result.size() < max; i++) {
+			int id = shortest.ids[i];
+			boolean inAll = true;
+			for (int j = 1; j < lists.size() && inAll; j++) {
+				inAll = lists.get(j).contains(id);
+			}
+			String lowerPath = lowerPaths.get(id);
+			if (inAll && lowerPath != null && matches.test(lowerPath)) {
+				result.add(paths.get(id));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Directories are compared without leading and trailing "/"
+	 */
+	private static String normalize(String directory) {
+		if (directory == null) {
+			return "";
+		}
+		int start = 0;
+		int end = directory.length();
+		while (start < end && directory.charAt(start) == '/') {
+			start++;
+		}
+		while (end > start && directory.charAt(end - 1) == '/') {
+			end--;
+		}
+		return directory.substring(start, end);
+	}
+
+	/**
+	 * Must be called while holding the write lock
+	 */
+	private void insert(String path) {
+		if (path == null || ids.containsKey(path)) {
+			return;
+		}
+		int id = paths.size();
+		String lowerPath = path.toLowerCase(Locale.ROOT);
+		paths.add(path);
+		lowerPaths.add(lowerPath);
+		ids.put(path, id);
+		sorted.put(lowerPath + '\0' + path, path);
+		for (int i = 0; i + 3 <= lowerPath.length(); i++) {
+			long trigram = trigram(lowerPath, i);
+			Postings postings = trigrams.get(trigram);
+			if (postings == null) {
+				postings = new Postings();
+				trigrams.put(trigram, postings);
+			}
+			// a trigram occurring twice in a path was already added
+			if (postings.size == 0 || postings.ids[postings.size - 1] != id) {
+				postings.add(id);
+			}
+		}
+	}
+
+	/**
+	 * The path's postings are left in place and skipped at query time until the
+	 * index is compacted. Must be called while holding the write lock
+	 */
+	private void delete(String path) {
+		Integer id = ids.remove(path);
+		if (id == null) {
+			return;
+		}
+		sorted.remove(lowerPaths.get(id) + '\0' + path);
+		paths.set(id, null);
+		lowerPaths.set(id, null);
+		removed++;
+	}
+
+	/**
+	 * This method is used to rebuild the index once more than half of its ids
+	 * belong to removed paths. Must be called while holding the write lock
+	 */
+	private void compactIfSparse() {
+		if (removed <= ids.size()) {
+			return;
+		}
+		List<String> live = new ArrayList<>(ids.size());
+		for (String path : paths) {
+			if (path != null) {
+				live.add(path);
+			}
+		}
+		paths.clear();
+		lowerPaths.clear();
+		ids.clear();
+		trigrams.clear();
+		sorted.clear();
+		removed = 0;
+		for (String path : live) {
+			insert(path);
+		}
+	}
+
+	private static long trigram(String s, int index) {
+		return ((long) s.charAt(index) << 32) | ((long) s.charAt(index + 1) << 16) | s.charAt(index + 2);
+	}
+
+	private static String globToRegex(String glob) {
+		StringBuilder regex = new StringBuilder();
+		for (int i = 0; i < glob.length(); i++) {
+			char c = glob.charAt(i);
+			if (c == '*') {
+				if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+					regex.append(".*");
+					i++;
+				} else {
+					regex.append("[^/]*");
+				}
+			} else if (c == '?') {
+				regex.append("[^/]");
+			} else {
+				regex.append(Pattern.quote(String.valueOf(c)));
+			}
+		}
+		return regex.toString();
+	}
+}
@@ -0,0 +1,93 @@
+package com.pathomation;
+
+import java.awt.Image;
+
+/**
+ * A single tile of a slide together with the coordinates it was requested at
+ */
+public class Tile {
+
+	private final String slideRef;
+	private final int x;
+	private final int y;
+	private final int zoomLevel;
+	private final int zStack;
+	private final Image image;
+	private final Throwable error;
+
+	/**
+	 * Constructor
+	 *
+	 * @param slideRef  slide's path or UID
+	 * @param x         x position
+	 * @param y         y position
+	 * @param zoomLevel zoom level
+	 * @param zStack    z stack
+	 * @param image     tile's image, null if it couldn't be retrieved
+	 * @param error     reason the image couldn't be retrieved, null on success
+	 */
+	public Tile(String slideRef, int x, int y, int zoomLevel, int zStack, Image image, Throwable error) {
+		this.slideRef = slideRef;
+		this.x = x;
+		this.y = y;
+		this.zoomLevel = zoomLevel;
+		this.zStack = zStack;
+		this.image = image;
+		this.error = error;
+	}
+
+	/**
+	 * @return the slideRef
+	 */
+	public String getSlideRef() {
+		return slideRef;
+	}
+
+	/**
+	 * @return the x position
+	 */
+	public int getX() {
+		return x;
+	}
+
+	/**
+	 * @return the y position
+	 */
+	public int getY() {
+		return y;
+	}
+
+	/**
+	 * @return the zoomLevel
+	 */
+	public int getZoomLevel() {
+		return zoomLevel;
+	}
+
+	/**
+	 * @return the zStack
+	 */
+	public int getZStack() {
+		return zStack;
+	}
+
+	/**
+	 * @return the image, null if it couldn't be retrieved
+	 */
+	public Image getImage() {
+		return image;
+	}
+
+	/**
+	 * @return the reason the image couldn't be retrieved, null on success
+	 */
+	public Throwable getError() {
+		return error;
+	}
+
+	@Override
+	public String toString() {
+		return "Tile [slideRef=" + slideRef + ", x=" + x + ", y=" + y + ", zoomLevel=" + zoomLevel + ", zStack="
+				+ zStack + "]";
+	}
+}
@@ -0,0 +1,270 @@
+package com.pathomation;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Retrieves all tiles of a (fromX, fromY, toX, toY) rectangle concurrently.
+ * <p>
+ * At most {@link #getParallelism()} tiles are in flight at any time. Tiles are
+ * either returned in grid order (the same order as Core.getTiles()) or in the
+ * order in which they complete; in both cases every {@link Tile} carries the
+ * coordinates it was requested at. Tiles that couldn't be retrieved are
+ * returned with a null image and the reason in {@link Tile#getError()}.
+ * </p>
+ * <p>
+ * Requests run on the executor passed to the constructor, or on
+ * Core.getAsyncExecutor() when none is given. Closing the returned stream
+ * cancels the tiles that are still outstanding. When getTiles() is called with
+ * a {@link Deadline} set, no more tiles are requested once it expires: the
+ * remaining tiles are returned right away, without image and with a
+ * Deadline.ExceededException as their error.
+ * </p>
+ */
+public class TileEngine {
+
+	private final int parallelism;
+	private final Executor executor;
+
+	/**
+	 * Constructor, runs the requests on Core.getAsyncExecutor()
+	 *
+	 * @param parallelism maximum number of tiles in flight
+	 */
+	public TileEngine(int parallelism) {
+		this(parallelism, null);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param parallelism maximum number of tiles in flight
+	 * @param executor    executor to run the requests on, null for
+	 *                    Core.getAsyncExecutor()
+	 */
+	public TileEngine(int parallelism, Executor executor) {
+		if (parallelism < 1) {
+			PmaLog.severe(() -> "TileEngine() : parallelism must be at least 1");
+			throw new IllegalArgumentException("parallelism must be at least 1");
+		}
+		this.parallelism = parallelism;
+		this.executor = executor;
+	}
+
+	/**
+	 * @return the maximum number of tiles in flight
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * This method is used to get all tiles with a (fromX, fromY, toX, toY)
+	 * rectangle
+	 *
+	 * @param slideRef slide's path or UID
+	 * @param ordered  true to return the tiles in grid order, false to return them
+	 *                 as soon as they complete
+	 * @param varargs  Array of optional arguments
+	 *                 <p>
+	 *                 fromX : First optional argument(Integer), default value(0),
+	 *                 starting x position
+	 *                 </p>
+	 *                 <p>
+	 *                 fromY : Second optional argument(Integer), default value(0),
+	 *                 starting y position
+	 *                 </p>
+	 *                 <p>
+	 *                 toX : Third optional argument(Integer), default value(last
+	 *                 column), ending x position (inclusive)
+	 *                 </p>
+	 *                 <p>
+	 *                 toY : Fourth optional argument(Integer), default value(last
+	 *                 row), ending y position (inclusive)
+	 *                 </p>
+	 *                 <p>
+	 *                 zoomLevel : Fifth optional argument(Integer), default
+	 *                 value(0), zoom level
+	 *                 </p>
+	 *                 <p>
+	 *                 zStack : Sixth optional argument(Integer), default value(0),
+	 *                 Number of z stacks
+	 *                 </p>
+	 *                 <p>
+	 *                 sessionID : Seventh optional argument(String), default
+	 *                 value(null), session's ID
+	 *                 </p>
+	 *                 <p>
+	 *                 format : Eigth optional argument(String), default value(jpg),
+	 *                 image format
+	 *                 </p>
+	 *                 <p>
+	 *                 quality : Ninth optional argument(Integer), default
+	 *                 value(100), quality
+	 *                 </p>
+	 * @return Stream of the tiles, to be closed when not consumed entirely
+	 */
+	public Stream<Tile> getTiles(String slideRef, boolean ordered, Object... varargs) {
+		// setting the default values when arguments' values are omitted
+		int fromX = argument(varargs, 0, Integer.class, 0);
+		int fromY = argument(varargs, 1, Integer.class, 0);
+		Integer toX = argument(varargs, 2, Integer.class, null);
+		Integer toY = argument(varargs, 3, Integer.class, null);
+		int zoomLevel = argument(varargs, 4, Integer.class, 0);
+		int zStack = argument(varargs, 5, Integer.class, 0);
+		String sessionID = argument(varargs, 6, String.class, null);
+		String format = argument(varargs, 7, String.class, "jpg");
+		Integer quality = argument(varargs, 8, Integer.class, 100);
+		if (slideRef.startsWith("/")) {
+			slideRef = slideRef.substring(1);
+		}
+		if (toX == null || toY == null) {
+			List<Integer> numberOfTiles = Core.getNumberOfTiles(slideRef, zoomLevel, sessionID);
+			if (toX == null) {
+				toX = numberOfTiles.get(0) - 1;
+			}
+			if (toY == null) {
+				toY = numberOfTiles.get(1) - 1;
+			}
+		}
+		TileIterator iterator = new TileIterator(
+				new TileSpliterator(slideRef, fromX, fromY, toX, toY, zoomLevel, zStack, sessionID, format, quality),
+				ordered);
+		int characteristics = Spliterator.SIZED | Spliterator.NONNULL | (ordered ? Spliterator.ORDERED : 0);
+		return StreamSupport.stream(Spliterators.spliterator(iterator, iterator.count, characteristics), false)
+				.onClose(iterator::close);
+	}
+
+	/**
+	 * This method is used to read an optional argument, checking its type
+	 *
+	 * @param varargs      Array of optional arguments
+	 * @param index        position of the argument
+	 * @param type         expected type
+	 * @param defaultValue value used when the argument is omitted or null
+	 * @return Argument's value
+	 */
+	private static <T> T argument(Object[] varargs, int index, Class<T> type, T defaultValue) {
+		if (varargs.length <= index || varargs[index] == null) {
+			return defaultValue;
+		}
+		if (!type.isInstance(varargs[index])) {
+			PmaLog.severe(() -> "getTiles() : Invalid argument");
+			throw new IllegalArgumentException("...");
+		}
+		return type.cast(varargs[index]);
+	}
+
+	/**
+	 * Submits tiles ahead of the consumer, keeping at most parallelism of them in
+	 * flight
+	 */
+	private class TileIterator implements Iterator<Tile> {
+		private final TileSpliterator tiles;
+		private final boolean ordered;
+		private final long count;
+		// tiles submitted but not yet returned, in submission order
+		private final ArrayDeque<CompletableFuture<Tile>> inFlight = new ArrayDeque<>();
+		// unordered mode only: tiles in the order they completed
+		private final BlockingQueue<CompletableFuture<Tile>> completed = new LinkedBlockingQueue<>();
+		private long submitted = 0;
+		private long returned = 0;
+		private volatile boolean closed = false;
+
+		TileIterator(TileSpliterator tiles, boolean ordered) {
+			this.tiles = tiles;
+			this.ordered = ordered;
+			this.count = tiles.estimateSize();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !closed && returned < count;
+		}
+
+		@Override
+		public Tile next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			fill();
+			try {
+				CompletableFuture<Tile> future;
+				if (ordered) {
+					future = inFlight.poll();
+				} else {
+					future = completed.take();
+					inFlight.remove(future);
+				}
+				Tile tile = future.get();
+				returned++;
+				return tile;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				close();
+				throw new CancellationException("getTiles() interrupted");
+			} catch (ExecutionException e) {
+				// submit() never completes its futures exceptionally
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+
+		/**
+		 * Tops the in-flight window up to the parallelism cap; once the deadline
+		 * expired, tiles are completed without being requested
+		 */
+		private void fill() {
+			while (submitted < count && inFlight.size() < parallelism) {
+				if (tiles.isExpired()) {
+					CompletableFuture<Tile> future = CompletableFuture.completedFuture(tiles.expired(submitted++));
+					inFlight.add(future);
+					if (!ordered) {
+						completed.add(future);
+					}
+				} else {
+					inFlight.add(submit(submitted++));
+				}
+			}
+		}
+
+		private CompletableFuture<Tile> submit(final long index) {
+			final CompletableFuture<Tile> request = Core.async(executor != null ? executor : Core.getAsyncExecutor(),
+					() -> tiles.fetch(index));
+			final CompletableFuture<Tile> future = new CompletableFuture<>();
+			request.whenComplete((tile, throwable) -> {
+				// fetch() doesn't throw, so this only happens when the request was
+				// rejected or cancelled
+				future.complete(tile != null ? tile : tiles.failed(index, throwable));
+				if (!ordered) {
+					completed.add(future);
+				}
+			});
+			future.whenComplete((tile, throwable) -> {
+				if (future.isCancelled()) {
+					request.cancel(true);
+				}
+			});
+			return future;
+		}
+
+		void close() {
+			closed = true;
+			for (CompletableFuture<Tile> future : inFlight) {
+				future.cancel(true);
+			}
+			inFlight.clear();
+		}
+	}
+}
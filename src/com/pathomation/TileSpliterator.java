@@ -0,0 +1,176 @@
+package com.pathomation;
+
+import java.awt.Image;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over the tiles of a (fromX, fromY, toX, toY) rectangle, column
+ * by column (all rows of fromX first, then fromX + 1, ...).
+ * <p>
+ * Every tile is retrieved through Core.getTile() when the spliterator advances
+ * over it. The rectangle is split in half on trySplit(), so a parallel stream
+ * built on it spreads the requests over the fork-join pool without any shared
+ * mutable state.
+ * </p>
+ * <p>
+ * The client and the {@link Deadline} of the thread that created the
+ * spliterator apply to all tiles, whatever thread retrieves them. Once the
+ * deadline expires the remaining tiles aren't requested anymore: they are
+ * returned without image, with a Deadline.ExceededException as their error, so
+ * the stream still holds every tile of the rectangle and the caller can tell
+ * it was cut short.
+ * </p>
+ */
+public class TileSpliterator implements Spliterator<Tile> {
+
+	private final String slideRef;
+	private final int fromX;
+	private final int fromY;
+	private final int height;
+	private final int zoomLevel;
+	private final int zStack;
+	private final String sessionID;
+	private final String format;
+	private final Integer quality;
+	private final Deadline deadline;
+	private final PmaClient client;
+	// index of the next tile to return
+	private long origin;
+	// index one past the last tile to return
+	private final long fence;
+	// error of the tiles skipped once the deadline expired
+	private volatile Deadline.ExceededException skipped;
+
+	/**
+	 * Constructor
+	 *
+	 * @param slideRef  slide's path or UID
+	 * @param fromX     starting x position
+	 * @param fromY     starting y position
+	 * @param toX       ending x position (inclusive)
+	 * @param toY       ending y position (inclusive)
+	 * @param zoomLevel zoom level
+	 * @param zStack    z stack
+	 * @param sessionID session's ID
+	 * @param format    image format
+	 * @param quality   quality
+	 */
+	public TileSpliterator(String slideRef, int fromX, int fromY, int toX, int toY, int zoomLevel, int zStack,
+			String sessionID, String format, Integer quality) {
+		this(slideRef, fromX, fromY, Math.max(0, toY - fromY + 1), zoomLevel, zStack, sessionID, format, quality,
+				Deadline.current(), PmaClient.current(), 0,
+				(long) Math.max(0, toX - fromX + 1) * Math.max(0, toY - fromY + 1));
+	}
+
+	private TileSpliterator(String slideRef, int fromX, int fromY, int height, int zoomLevel, int zStack,
+			String sessionID, String format, Integer quality, Deadline deadline, PmaClient client, long origin,
+			long fence) {
+		this.slideRef = slideRef;
+		this.fromX = fromX;
+		this.fromY = fromY;
+		this.height = height;
+		this.zoomLevel = zoomLevel;
+		this.zStack = zStack;
+		this.sessionID = sessionID;
+		this.format = format;
+		this.quality = quality;
+		this.deadline = deadline;
+		this.client = client;
+		this.origin = origin;
+		this.fence = fence;
+	}
+
+	/**
+	 * This method is used to retrieve the tile at a given position of the
+	 * rectangle, independently of this spliterator's progress
+	 *
+	 * @param index position of the tile, column by column, starting at 0
+	 * @return Tile at that position; its image is null and its error set when it
+	 *         couldn't be retrieved
+	 */
+	Tile fetch(long index) {
+		int x = fromX + (int) (index / height);
+		int y = fromY + (int) (index % height);
+		client.getMetrics().tileStarted();
+		Image image = null;
+		try {
+			image = client.call(() -> Deadline.callWith(deadline,
+					() -> Core.getTile(slideRef, x, y, zoomLevel, zStack, sessionID, format, quality)));
+			return new Tile(slideRef, x, y, zoomLevel, zStack, image, null);
+		} catch (Exception e) {
+			return new Tile(slideRef, x, y, zoomLevel, zStack, null, e);
+		} finally {
+			client.getMetrics().tileFinished(image == null);
+		}
+	}
+
+	/**
+	 * This method is used to describe a tile of the rectangle that couldn't be
+	 * retrieved
+	 *
+	 * @param index position of the tile, column by column, starting at 0
+	 * @param error reason the tile couldn't be retrieved
+	 * @return Tile at that position without image
+	 */
+	Tile failed(long index, Throwable error) {
+		return new Tile(slideRef, fromX + (int) (index / height), fromY + (int) (index % height), zoomLevel, zStack,
+				null, error);
+	}
+
+	/**
+	 * This method is used to describe a tile of the rectangle that wasn't
+	 * requested because the deadline expired
+	 *
+	 * @param index position of the tile, column by column, starting at 0
+	 * @return Tile at that position without image
+	 */
+	Tile expired(long index) {
+		Deadline.ExceededException error = skipped;
+		if (error == null) {
+			// a single exception for all skipped tiles, there may be many
+			error = new Deadline.ExceededException("Deadline exceeded before the tile was requested");
+			skipped = error;
+			PmaLog.warning(() -> "Deadline exceeded, skipping the remaining tiles of " + slideRef);
+		}
+		return failed(index, error);
+	}
+
+	/**
+	 * @return true once the deadline the tiles are retrieved under has passed
+	 */
+	boolean isExpired() {
+		return deadline != null && deadline.isExpired();
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super Tile> action) {
+		if (origin >= fence) {
+			return false;
+		}
+		action.accept(isExpired() ? expired(origin++) : fetch(origin++));
+		return true;
+	}
+
+	@Override
+	public Spliterator<Tile> trySplit() {
+		long mid = (origin + fence) >>> 1;
+		if (mid <= origin) {
+			return null;
+		}
+		TileSpliterator prefix = new TileSpliterator(slideRef, fromX, fromY, height, zoomLevel, zStack, sessionID,
+				format, quality, deadline, client, origin, mid);
+		origin = mid;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return fence - origin;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+	}
+}
@@ -0,0 +1,360 @@
+package com.pathomation;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe cache of the responses retrieved through PMA.httpGet().
+ * <p>
+ * The cache is bounded by an (approximate) number of bytes rather than a
+ * number of entries: when adding a response exceeds the budget, the least
+ * recently used entries are evicted until it fits again. Every entry can be
+ * given a time to live after which it is no longer returned; a time to live of
+ * 0 means the entry only leaves the cache through eviction or clear(). Expired
+ * entries are dropped when looked up, and by a sweep of the whole cache that
+ * runs at most once a second while the budget is exceeded.
+ * </p>
+ * <p>
+ * Hits, misses, evictions and expirations are counted and can be read through
+ * the corresponding getters.
+ * </p>
+ */
+public class UrlCache {
+
+	/**
+	 * Default byte budget (32 MB)
+	 */
+	public static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+
+	/**
+	 * Approximate per-entry overhead (map entry, key and value objects) in bytes
+	 */
+	private static final int ENTRY_OVERHEAD = 96;
+
+	/**
+	 * Minimum time between two sweeps for expired entries
+	 */
+	private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	private static class Entry {
+		final String value;
+		final long weight;
+		// System.nanoTime() after which the entry is stale, 0 if it never expires
+		final long expiresAt;
+
+		Entry(String value, long weight, long expiresAt) {
+			this.value = value;
+			this.weight = weight;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+	// access ordered, so iteration starts at the least recently used entry
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+	private long maxBytes;
+	private long defaultTtlMillis;
+	private long weightedSize = 0;
+	private long lastSweep = System.nanoTime() - SWEEP_INTERVAL_NANOS;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder expirations = new LongAdder();
+	// name of the cache in the Flight Recorder events
+	private final String name;
+
+	/**
+	 * Constructor, creates a cache with the default byte budget whose entries
+	 * never expire
+	 */
+	public UrlCache() {
+		this(DEFAULT_MAX_BYTES, 0);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxBytes         byte budget
+	 * @param defaultTtlMillis time to live of entries added through put(url,
+	 *                         value), 0 to keep them until they are evicted
+	 */
+	public UrlCache(long maxBytes, long defaultTtlMillis) {
+		this("url", maxBytes, defaultTtlMillis);
+	}
+
+	/**
+	 * Constructor of a cache used for something else than responses
+	 *
+	 * @param name             name of the cache in the Flight Recorder events
+	 * @param maxBytes         byte budget
+	 * @param defaultTtlMillis time to live of entries added through put(url,
+	 *                         value), 0 to keep them until they are evicted
+	 */
+	UrlCache(String name, long maxBytes, long defaultTtlMillis) {
+		if (maxBytes < 0 || defaultTtlMillis < 0) {
+			PmaLog.severe(() -> "UrlCache() : Invalid argument");
+			throw new IllegalArgumentException("maxBytes and defaultTtlMillis must not be negative");
+		}
+		this.name = name;
+		this.maxBytes = maxBytes;
+		this.defaultTtlMillis = defaultTtlMillis;
+	}
+
+	/**
+	 * This method is used to get the cached response for a URL
+	 *
+	 * @param url URL
+	 * @return Cached response, null if the URL isn't cached or its entry expired
+	 */
+	public String get(String url) {
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(url);
+			if (entry != null && entry.expiresAt != 0 && entry.expiresAt - System.nanoTime() <= 0) {
+				remove(url, entry);
+				expirations.increment();
+				entry = null;
+			}
+		}
+		if (entry == null) {
+			misses.increment();
+			PmaEvents.cacheLookup(name, url, false);
+			return null;
+		}
+		hits.increment();
+		PmaEvents.cacheLookup(name, url, true);
+		return entry.value;
+	}
+
+	/**
+	 * This method is used to cache the response for a URL with the default time to
+	 * live
+	 *
+	 * @param url   URL
+	 * @param value response
+	 */
+	public void put(String url, String value) {
+		put(url, value, defaultTtlMillis);
+	}
+
+	/**
+	 * This method is used to cache the response for a URL. Responses larger than
+	 * the whole byte budget aren't cached
+	 *
+	 * @param url       URL
+	 * @param value     response
+	 * @param ttlMillis time to live in milliseconds, 0 to keep the entry until it
+	 *                  is evicted
+	 */
+	public void put(String url, String value, long ttlMillis) {
+		if (url == null || value == null) {
+			return;
+		}
+		long weight = weigh(url, value);
+		long expiresAt = ttlMillis > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis) : 0;
+		synchronized (entries) {
+			Entry previous = entries.remove(url);
+			if (previous != null) {
+				weightedSize -= previous.weight;
+			}
+			if (weight > maxBytes) {
+				return;
+			}
+			entries.put(url, new Entry(value, weight, expiresAt));
+			weightedSize += weight;
+			evict();
+		}
+	}
+
+	/**
+	 * This method is used to remove the cached response for a URL
+	 *
+	 * @param url URL
+	 */
+	public void invalidate(String url) {
+		synchronized (entries) {
+			Entry entry = entries.get(url);
+			if (entry != null) {
+				remove(url, entry);
+			}
+		}
+	}
+
+	/**
+	 * This method is used to remove all cached responses. Statistics are kept
+	 */
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+			weightedSize = 0;
+		}
+	}
+
+	/**
+	 * @return the byte budget
+	 */
+	public long getMaxBytes() {
+		synchronized (entries) {
+			return maxBytes;
+		}
+	}
+
+	/**
+	 * This method is used to change the byte budget, evicting entries right away
+	 * if the cache no longer fits
+	 *
+	 * @param maxBytes byte budget
+	 */
+	public void setMaxBytes(long maxBytes) {
+		if (maxBytes < 0) {
+			PmaLog.severe(() -> "setMaxBytes() : Invalid argument");
+			throw new IllegalArgumentException("maxBytes must not be negative");
+		}
+		synchronized (entries) {
+			this.maxBytes = maxBytes;
+			evict();
+		}
+	}
+
+	/**
+	 * @return the time to live in milliseconds of entries added through put(url,
+	 *         value), 0 if they don't expire
+	 */
+	public long getDefaultTtlMillis() {
+		synchronized (entries) {
+			return defaultTtlMillis;
+		}
+	}
+
+	/**
+	 * This method is used to change the time to live of entries added from now on
+	 * through put(url, value)
+	 *
+	 * @param defaultTtlMillis time to live in milliseconds, 0 to keep entries until
+	 *                         they are evicted
+	 */
+	public void setDefaultTtlMillis(long defaultTtlMillis) {
+		if (defaultTtlMillis < 0) {
+			PmaLog.severe(() -> "setDefaultTtlMillis() : Invalid argument");
+			throw new IllegalArgumentException("defaultTtlMillis must not be negative");
+		}
+		synchronized (entries) {
+			this.defaultTtlMillis = defaultTtlMillis;
+		}
+	}
+
+	/**
+	 * @return the number of cached responses
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * @return the approximate number of bytes used by the cached responses
+	 */
+	public long getWeightedSize() {
+		synchronized (entries) {
+			return weightedSize;
+		}
+	}
+
+	/**
+	 * @return the number of lookups that returned a cached response
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of lookups that didn't return a cached response
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return the fraction of lookups that returned a cached response, 1 if there
+	 *         were no lookups yet
+	 */
+	public double getHitRate() {
+		long hitCount = hits.sum();
+		long requestCount = hitCount + misses.sum();
+		return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+	}
+
+	/**
+	 * @return the number of entries evicted to stay within the byte budget
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	/**
+	 * @return the number of entries dropped because their time to live had passed
+	 */
+	public long getExpirationCount() {
+		return expirations.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "UrlCache [size=" + size() + ", weightedSize=" + getWeightedSize() + ", maxBytes=" + getMaxBytes()
+				+ ", hits=" + getHitCount() + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount()
+				+ ", expirations=" + getExpirationCount() + "]";
+	}
+
+	/**
+	 * This method is used to evict the least recently used entries until the cache
+	 * fits its byte budget. Expired entries are dropped first, but the whole cache
+	 * is swept for them at most once per SWEEP_INTERVAL_NANOS, so a put doesn't
+	 * cost a full scan every time the cache is full. Must be called while holding
+	 * the lock on entries
+	 */
+	private void evict() {
+		if (weightedSize <= maxBytes) {
+			return;
+		}
+		long now = System.nanoTime();
+		Iterator<Map.Entry<String, Entry>> iterator;
+		if (now - lastSweep >= SWEEP_INTERVAL_NANOS) {
+			lastSweep = now;
+			iterator = entries.entrySet().iterator();
+			while (iterator.hasNext()) {
+				Entry entry = iterator.next().getValue();
+				if (entry.expiresAt != 0 && entry.expiresAt - now <= 0) {
+					iterator.remove();
+					weightedSize -= entry.weight;
+					expirations.increment();
+				}
+			}
+		}
+		iterator = entries.entrySet().iterator();
+		while (weightedSize > maxBytes && iterator.hasNext()) {
+			Entry entry = iterator.next().getValue();
+			iterator.remove();
+			weightedSize -= entry.weight;
+			evictions.increment();
+		}
+	}
+
+	/**
+	 * Must be called while holding the lock on entries
+	 */
+	private void remove(String url, Entry entry) {
+		entries.remove(url);
+		weightedSize -= entry.weight;
+	}
+
+	/**
+	 * Strings take at most two bytes per character
+	 */
+	private static long weigh(String url, String value) {
+		return ENTRY_OVERHEAD + 2L * (url.length() + value.length());
+	}
+}
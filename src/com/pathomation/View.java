@@ -17,14 +17,6 @@ public class View {
 	 */
 	public static void setDebugFlag(boolean flag) {
 		PMA.setDebugFlag(flag);
-		if (flag) {
-			System.out.println(
-					"Debug flag enabled. You will receive extra feedback and messages from the Java SDK (like this one)");
-			if (PMA.logger != null) {
-				PMA.logger.severe(
-						"Debug flag enabled. You will receive extra feedback and messages from the Java SDK (like this one)");
-			}
-		}
 	}
 	
 	/**
@@ -42,9 +34,7 @@ public class View {
 		String version = "";
 		try {
 			// Are we looking at PMA.view/studio 2.x?
-			if (PMA.debug) {
-				System.out.println(url);
-			}
+			PmaLog.debug(url);
 			// we remove leading/trailing quotes
 			String contents = PMA.urlReader(url).replaceAll("^\"+", "").replaceAll("\"+$", "").replaceAll("^'+", "")
 					.replaceAll("'+$", "");
@@ -56,9 +46,7 @@ public class View {
 		url = PMA.join(pmaViewURL, "viewer/version");
 		try {
 			// Oops, perhaps this is a PMA.view 1.x version
-			if (PMA.debug) {
-				System.out.println(url);
-			}
+			PmaLog.debug(url);
 			// we remove leading/trailing quotes
 			String contents = PMA.urlReader(url).replaceAll("^\"+", "").replaceAll("\"+$", "").replaceAll("^'+", "")
 					.replaceAll("'+$", "");